@@ -24,10 +24,12 @@ import org.heigit.ors.api.errors.CommonResponseEntityExceptionHandler;
 import org.heigit.ors.api.requests.common.APIEnums;
 import org.heigit.ors.api.requests.matrix.MatrixRequest;
 import org.heigit.ors.api.requests.matrix.MatrixRequestHandler;
+import org.heigit.ors.api.responses.matrix.binary.BinaryMatrixResponse;
 import org.heigit.ors.api.responses.matrix.json.JSONMatrixResponse;
 import org.heigit.ors.exceptions.*;
 import org.heigit.ors.matrix.MatrixErrorCodes;
 import org.heigit.ors.matrix.MatrixResult;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -35,6 +37,7 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @RestController
 @Api(value = "Matrix Service", description = "Obtain one-to-many, many-to-one and many-to-many matrices for time and distance", tags = "Matrix")
@@ -100,6 +103,26 @@ public class MatrixAPI {
         return new JSONMatrixResponse(matrixResult, originalRequest);
     }
 
+    @PostMapping(value = "/{profile}/binary", produces = {BinaryMatrixResponse.MEDIA_TYPE})
+    @ApiOperation(value = "Get a matrix calculation from the specified profile as binary tables", httpMethod = "POST", consumes = "application/json", produces = BinaryMatrixResponse.MEDIA_TYPE,
+            notes = "Returns the matrix as little-endian binary data: a header of five 32 bit integers (magic number \"ORSM\", format version, number of sources, number of destinations, metric flags with duration = 1, distance = 2, weight = 4) " +
+                    "followed by one table of 32 bit floats per requested metric in the order of the flags, one row per source. Unreachable entries are -1. " +
+                    "The response is compressed with zstd or gzip if the client accepts it.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Standard response for successfully processed requests. Returns binary matrix tables.")
+    })
+    public void getBinaryMime(
+            @ApiParam(value = "Specifies the matrix profile.", required = true, example = "driving-car") @PathVariable APIEnums.Profile profile,
+            @ApiParam(value = "The request payload", required = true) @RequestBody MatrixRequest originalRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws StatusCodeException, IOException {
+        originalRequest.setProfile(profile);
+        originalRequest.setResponseType(APIEnums.MatrixResponseType.BINARY);
+        MatrixResult matrixResult = MatrixRequestHandler.generateMatrixFromRequest(originalRequest);
+
+        new BinaryMatrixResponse(matrixResult).write(response, acceptEncoding);
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<Object> handleMissingParams(final MissingServletRequestParameterException e) {
         return errorHandler.handleStatusCodeException(new MissingParameterException(MatrixErrorCodes.MISSING_PARAMETER, e.getParameterName()));
@@ -16,12 +16,15 @@
 package org.heigit.ors.api.controllers;
 
 import com.graphhopper.storage.StorableProperties;
+import org.heigit.ors.isochrones.IsochroneCache;
 import org.heigit.ors.kafka.ORSKafkaConsumer;
+import org.heigit.ors.kafka.ORSKafkaConsumerMetrics;
 import org.heigit.ors.localization.LocalizationManager;
 import org.heigit.ors.routing.RoutingProfile;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingProfileManagerStatus;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.heigit.ors.routing.graphhopper.extensions.CachedLocationIndex;
 import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 import org.heigit.ors.services.mapmatching.MapMatchingServiceSettings;
 import org.heigit.ors.services.matrix.MatrixServiceSettings;
@@ -108,6 +111,26 @@ public class StatusAPI {
                     if (jProfileLimits.length() > 0)
                         jProfileProps.put("limits", jProfileLimits);
 
+                    CachedLocationIndex locationCache = rp.getLocationCache();
+                    if (locationCache != null) {
+                        org.json.JSONObject jLocationCache = new org.json.JSONObject(true);
+                        jLocationCache.put("size", locationCache.getSize());
+                        jLocationCache.put("hits", locationCache.getHits());
+                        jLocationCache.put("misses", locationCache.getMisses());
+                        jLocationCache.put("hit_rate", locationCache.getHitRate());
+                        jProfileProps.put("location_cache", jLocationCache);
+                    }
+
+                    IsochroneCache isochroneCache = rp.getIsochroneCache();
+                    if (isochroneCache != null) {
+                        org.json.JSONObject jIsochroneCache = new org.json.JSONObject(true);
+                        jIsochroneCache.put("size", isochroneCache.getSize());
+                        jIsochroneCache.put("hits", isochroneCache.getHits());
+                        jIsochroneCache.put("misses", isochroneCache.getMisses());
+                        jIsochroneCache.put("hit_rate", isochroneCache.getHitRate());
+                        jProfileProps.put("isochrone_cache", jIsochroneCache);
+                    }
+
                     jProfiles.put("profile " + Integer.toString(i), jProfileProps);
 
                     i++;
@@ -117,10 +140,18 @@ public class StatusAPI {
             }
 
             if (ORSKafkaConsumer.isEnabled()) {
+                ORSKafkaConsumerMetrics kafkaMetrics = ORSKafkaConsumer.getMetrics();
                 org.json.JSONObject jKafka = new org.json.JSONObject(true);
                 jKafka.put("runners", ORSKafkaConsumer.getEnabledRunners());
-                jKafka.put("processed", profileManager.getKafkaMessagesProcessed());
-                jKafka.put("failed", profileManager.getKafkaMessagesFailed());
+                jKafka.put("received", kafkaMetrics.getReceived());
+                jKafka.put("processed", kafkaMetrics.getProcessed());
+                jKafka.put("failed", kafkaMetrics.getFailed());
+                jKafka.put("coalesced", kafkaMetrics.getCoalesced());
+                jKafka.put("batches", kafkaMetrics.getBatches());
+                jKafka.put("pending_batches", kafkaMetrics.getPendingBatches());
+                jKafka.put("lag", kafkaMetrics.getLag());
+                jKafka.put("throughput", kafkaMetrics.getThroughput());
+                jKafka.put("paused", kafkaMetrics.isPaused());
                 jInfo.put("kafkaConsumer", jKafka);
             }
         }
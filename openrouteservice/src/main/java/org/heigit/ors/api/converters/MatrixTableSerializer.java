@@ -0,0 +1,54 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.heigit.ors.api.responses.matrix.json.JSONMatrixTable;
+import org.heigit.ors.util.FormatUtility;
+
+import java.io.IOException;
+
+public class MatrixTableSerializer extends StdSerializer<JSONMatrixTable> {
+    public MatrixTableSerializer() {
+        this(null);
+    }
+
+    public MatrixTableSerializer(Class<JSONMatrixTable> t) {
+        super(t);
+    }
+
+    @Override
+    public void serialize(JSONMatrixTable table, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        float[] values = table.getValues();
+        int columns = table.getColumns();
+        jsonGenerator.writeStartArray();
+        for (int i = 0; i < table.getRows(); i++) {
+            jsonGenerator.writeStartArray();
+            int offset = i * columns;
+            for (int j = 0; j < columns; j++) {
+                double value = values[offset + j];
+                if (value == -1)
+                    jsonGenerator.writeNull();
+                else
+                    jsonGenerator.writeNumber(FormatUtility.roundToDecimals(value, JSONMatrixTable.DECIMALS));
+            }
+            jsonGenerator.writeEndArray();
+        }
+        jsonGenerator.writeEndArray();
+    }
+}
@@ -19,6 +19,8 @@ public class CentralityRequest {
     public static final String PARAM_MODE = "mode";
     public static final String PARAM_PROFILE = "profile";
     public static final String PARAM_FORMAT = "format";
+    public static final String PARAM_SAMPLE_SIZE = "sample_size";
+    public static final String PARAM_EPSILON = "epsilon";
 
     @ApiModelProperty(name = PARAM_ID, value = "Arbitrary identification string of the request reflected in the meta information.",
             example = "centrality_request")
@@ -50,6 +52,22 @@ public class CentralityRequest {
     @JsonProperty(PARAM_MODE)
     private CentralityRequestEnums.Mode mode = CentralityRequestEnums.Mode.NODES;
 
+    @ApiModelProperty(name = PARAM_SAMPLE_SIZE, value = "Approximate the centrality scores using the given number of randomly sampled source nodes instead of all nodes in the bbox. " +
+            "The scores are scaled up to the magnitude of the exact ones. Cannot be combined with `epsilon`.",
+            example = "500")
+    @JsonProperty(PARAM_SAMPLE_SIZE)
+    private Integer sampleSize;
+    @JsonIgnore
+    private boolean hasSampleSize = false;
+
+    @ApiModelProperty(name = PARAM_EPSILON, value = "Approximate the centrality scores with a maximal error of `epsilon * n * (n - 1)`, n being the number of nodes in the bbox. " +
+            "The number of sampled source nodes is derived from it and, like the confidence of the bound, reported in the response. Cannot be combined with `sample_size`.",
+            example = "0.05")
+    @JsonProperty(PARAM_EPSILON)
+    private Double epsilon;
+    @JsonIgnore
+    private boolean hasEpsilon = false;
+
     @JsonCreator
     public CentralityRequest(@JsonProperty(value = PARAM_BBOX, required = true) List<List<Double>> bbox) {
         this.bbox = bbox;
@@ -103,5 +121,29 @@ public class CentralityRequest {
         this.mode = mode;
     }
 
+    public Integer getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(Integer sampleSize) {
+        this.sampleSize = sampleSize;
+        this.hasSampleSize = true;
+    }
+
+    public boolean hasSampleSize() {
+        return hasSampleSize;
+    }
+
+    public Double getEpsilon() {
+        return epsilon;
+    }
 
+    public void setEpsilon(Double epsilon) {
+        this.epsilon = epsilon;
+        this.hasEpsilon = true;
+    }
+
+    public boolean hasEpsilon() {
+        return hasEpsilon;
+    }
 }
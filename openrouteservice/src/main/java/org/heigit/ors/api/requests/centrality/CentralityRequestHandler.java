@@ -4,6 +4,7 @@ import com.google.common.primitives.Doubles;
 import com.graphhopper.util.shapes.BBox;
 import org.heigit.ors.api.requests.common.GenericHandler;
 import org.heigit.ors.common.StatusCode;
+import org.heigit.ors.exceptions.IncompatibleParameterException;
 import org.heigit.ors.exceptions.ParameterValueException;
 import org.heigit.ors.exceptions.StatusCodeException;
 import org.heigit.ors.centrality.CentralityResult;
@@ -53,6 +54,21 @@ public class CentralityRequestHandler extends GenericHandler {
             centralityRequest.setExcludeNodes(request.getExcludeNodes());
         }
 
+        if (request.hasSampleSize() && request.hasEpsilon())
+            throw new IncompatibleParameterException(CentralityErrorCodes.INCOMPATIBLE_PARAMETERS, CentralityRequest.PARAM_SAMPLE_SIZE, CentralityRequest.PARAM_EPSILON);
+
+        if (request.hasSampleSize()) {
+            if (request.getSampleSize() == null || request.getSampleSize() < 1)
+                throw new ParameterValueException(CentralityErrorCodes.INVALID_PARAMETER_VALUE, CentralityRequest.PARAM_SAMPLE_SIZE);
+            centralityRequest.setSampleSize(request.getSampleSize());
+        }
+
+        if (request.hasEpsilon()) {
+            if (request.getEpsilon() == null || request.getEpsilon() <= 0 || request.getEpsilon() >= 1)
+                throw new ParameterValueException(CentralityErrorCodes.INVALID_PARAMETER_VALUE, CentralityRequest.PARAM_EPSILON);
+            centralityRequest.setEpsilon(request.getEpsilon());
+        }
+
         return centralityRequest;
     }
 
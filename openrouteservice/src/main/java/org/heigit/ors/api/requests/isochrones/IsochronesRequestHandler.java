@@ -35,6 +35,7 @@ import org.heigit.ors.routing.RoutingProfileType;
 import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 import org.heigit.ors.util.DistanceUnitUtil;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -62,14 +63,11 @@ public class IsochronesRequestHandler extends GenericHandler {
         validateAgainstConfig(isochroneRequest, travellers);
 
         if (!travellers.isEmpty()) {
-            isoMaps = new IsochroneMapCollection();
-
-            for (int i = 0; i < travellers.size(); ++i) {
-                IsochroneSearchParameters searchParams = isochroneRequest.getSearchParameters(i);
-                IsochroneMap isochroneMap = RoutingProfileManager.getInstance().buildIsochrone(searchParams);
-                isoMaps.add(isochroneMap);
-            }
+            List<IsochroneSearchParameters> searchParams = new ArrayList<>(travellers.size());
+            for (int i = 0; i < travellers.size(); ++i)
+                searchParams.add(isochroneRequest.getSearchParameters(i));
 
+            isoMaps = RoutingProfileManager.getInstance().buildIsochrones(searchParams);
         }
     }
 
@@ -43,6 +43,7 @@ public class MatrixRequest {
     public static final String PARAM_RESOLVE_LOCATIONS = "resolve_locations";
     public static final String PARAM_UNITS = "units";
     public static final String PARAM_OPTIMIZED = "optimized";
+    public static final String PARAM_LIVE_TRAFFIC = "live_traffic";
 
     @ApiModelProperty(name = "PARAM_ID", value = "Arbitrary identification string of the request reflected in the meta information.",
             example = "matrix_request")
@@ -101,6 +102,13 @@ public class MatrixRequest {
     @JsonIgnore
     private boolean hasOptimized = false;
 
+    @ApiModelProperty(name = PARAM_LIVE_TRAFFIC, value = "Specifies whether live speeds received for the profile are used. " +
+            "The matrix is then computed without preprocessed speedups while live speeds are available.", hidden = true)
+    @JsonProperty(value = PARAM_LIVE_TRAFFIC)
+    private boolean liveTraffic;
+    @JsonIgnore
+    private boolean hasLiveTraffic = false;
+
     @ApiModelProperty(hidden = true)
     private APIEnums.MatrixResponseType responseType;
 
@@ -243,6 +251,19 @@ public class MatrixRequest {
         return hasOptimized;
     }
 
+    public boolean getLiveTraffic() {
+        return liveTraffic;
+    }
+
+    public void setLiveTraffic(boolean liveTraffic) {
+        this.liveTraffic = liveTraffic;
+        hasLiveTraffic = true;
+    }
+
+    public boolean hasLiveTraffic() {
+        return hasLiveTraffic;
+    }
+
     public APIEnums.MatrixResponseType getResponseType() {
         return responseType;
     }
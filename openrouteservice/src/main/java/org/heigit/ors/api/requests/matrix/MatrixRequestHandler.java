@@ -76,6 +76,8 @@ public class MatrixRequestHandler {
             coreRequest.setId(request.getId());
         if (request.hasOptimized())
             coreRequest.setFlexibleMode(!request.getOptimized());
+        if (request.hasLiveTraffic())
+            coreRequest.setLiveTraffic(request.getLiveTraffic());
         if (request.hasResolveLocations())
             coreRequest.setResolveLocations(request.getResolveLocations());
         if (request.hasUnits())
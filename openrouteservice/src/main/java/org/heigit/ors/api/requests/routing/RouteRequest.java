@@ -57,6 +57,7 @@ public class RouteRequest {
     public static final String PARAM_DEPARTURE = "departure";
     public static final String PARAM_ARRIVAL = "arrival";
     public static final String PARAM_MAXIMUM_SPEED = "maximum_speed";
+    public static final String PARAM_LIVE_TRAFFIC = "live_traffic";
 
     @ApiModelProperty(name = PARAM_ID, value = "Arbitrary identification string of the request reflected in the meta information.",
             example = "routing_request")
@@ -272,6 +273,15 @@ public class RouteRequest {
     @JsonIgnore
     private boolean hasMaximumSpeed = false;
 
+    @ApiModelProperty(name = PARAM_LIVE_TRAFFIC, value = "Specifies whether live speeds received for the profile are used. " +
+            "The route is then computed without preprocessed speedups while live speeds are available." +
+            "CUSTOM_KEYS:{'apiDefault':false,'validWhen':{'ref':'profile','value':['driving-*']}}",
+            example = "false", hidden = true)
+    @JsonProperty(PARAM_LIVE_TRAFFIC)
+    private boolean liveTraffic;
+    @JsonIgnore
+    private boolean hasLiveTraffic = false;
+
     @JsonCreator
     public RouteRequest(@JsonProperty(value = PARAM_COORDINATES, required = true) List<List<Double>> coordinates) {
         this.coordinates = coordinates;
@@ -557,6 +567,15 @@ public class RouteRequest {
         return maximumSpeed;
     }
 
+    public boolean getLiveTraffic() {
+        return liveTraffic;
+    }
+
+    public void setLiveTraffic(boolean liveTraffic) {
+        this.liveTraffic = liveTraffic;
+        hasLiveTraffic = true;
+    }
+
     public boolean hasIncludeRoundaboutExitInfo() {
         return hasIncludeRoundaboutExitInfo;
     }
@@ -636,4 +655,8 @@ public class RouteRequest {
     public boolean hasMaximumSpeed() {
         return hasMaximumSpeed;
     }
+
+    public boolean hasLiveTraffic() {
+        return hasLiveTraffic;
+    }
 }
@@ -192,6 +192,9 @@ public class RouteRequestHandler extends GenericHandler {
             params.setMaximumSpeed(request.getMaximumSpeed());
         }
 
+        if (request.hasLiveTraffic())
+            params.setLiveTraffic(request.getLiveTraffic());
+
         params.setConsiderTurnRestrictions(false);
 
         routingRequest.setSearchParameters(params);
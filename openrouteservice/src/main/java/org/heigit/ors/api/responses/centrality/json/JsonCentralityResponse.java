@@ -27,6 +27,9 @@ public class JsonCentralityResponse extends CentralityResponse {
     @JsonProperty("edgeScores")
     public List<JsonEdgeScore> edgeScores;
 
+    @JsonProperty("sampling")
+    public JsonCentralitySampling sampling;
+
     @JsonProperty("warning")
     public JSONWarning warning;
 
@@ -52,6 +55,10 @@ public class JsonCentralityResponse extends CentralityResponse {
             }
         }
 
+        if (centralityResult.hasSampling()) {
+            this.sampling = new JsonCentralitySampling(centralityResult.getSampling());
+        }
+
         if (centralityResult.hasWarning()) {
             CentralityWarning warning = centralityResult.getWarning();
             this.warning = new JSONWarning(warning.getWarningCode(), warning.getWarningMessage());
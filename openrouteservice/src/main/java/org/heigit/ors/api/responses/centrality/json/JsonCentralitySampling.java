@@ -0,0 +1,32 @@
+package org.heigit.ors.api.responses.centrality.json;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import org.heigit.ors.centrality.CentralitySampling;
+
+@ApiModel(description = "Information about the sampling used to approximate the centrality scores")
+public class JsonCentralitySampling {
+    @ApiModelProperty(value = "Number of source nodes the scores were computed from", example = "500")
+    @JsonProperty(value = "sample_size")
+    @JsonFormat(shape = JsonFormat.Shape.NUMBER_INT)
+    protected Integer sampleSize;
+
+    @ApiModelProperty(value = "Maximal error of the scores relative to `n * (n - 1)`, n being the number of nodes in the bbox",
+            example = "0.05")
+    @JsonProperty(value = "epsilon")
+    @JsonFormat(shape = JsonFormat.Shape.NUMBER_FLOAT)
+    protected Double epsilon;
+
+    @ApiModelProperty(value = "Probability with which all scores are within the error bound", example = "0.95")
+    @JsonProperty(value = "confidence")
+    @JsonFormat(shape = JsonFormat.Shape.NUMBER_FLOAT)
+    protected Double confidence;
+
+    JsonCentralitySampling(CentralitySampling sampling) {
+        this.sampleSize = sampling.getSampleSize();
+        this.epsilon = sampling.getEpsilon();
+        this.confidence = sampling.getConfidence();
+    }
+}
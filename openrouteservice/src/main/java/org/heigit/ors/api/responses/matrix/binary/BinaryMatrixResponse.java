@@ -0,0 +1,165 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.responses.matrix.binary;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.servlet.filters.ContentEncodingType;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary representation of a matrix for clients which process large matrices and do not want to parse JSON.
+ * <p>
+ * All values are little-endian. The header consists of five 32 bit integers: the magic number "ORSM", the format
+ * version, the number of sources, the number of destinations and the {@link MatrixMetricsType} flags of the contained
+ * tables. It is followed by one table of 32 bit floats per metric, in the ascending order of the metric flags. Each
+ * table holds the values row by row, one row per source. Unreachable entries are -1, the values are not rounded.
+ * <p>
+ * The tables are written from the arrays of the {@link MatrixResult} through a small buffer, without copying them as a whole.
+ */
+public class BinaryMatrixResponse {
+    public static final String MEDIA_TYPE = "application/octet-stream";
+    public static final int MAGIC = 0x4D53524F;
+    public static final int VERSION = 1;
+    private static final int[] METRICS = {MatrixMetricsType.DURATION, MatrixMetricsType.DISTANCE, MatrixMetricsType.WEIGHT};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MatrixResult matrixResult;
+
+    public BinaryMatrixResponse(MatrixResult result) {
+        this.matrixResult = result;
+    }
+
+    /**
+     * Choose the content encoding of the response from the encodings accepted by the client. The encoding with the
+     * higher quality value is chosen, zstd is preferred over gzip if both have the same one.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header, may be null
+     * @return the content encoding or null if the response is not compressed
+     */
+    public static String getContentEncoding(String acceptEncoding) {
+        float zstdQuality = ContentEncodingType.getQuality(acceptEncoding, ContentEncodingType.ZSTD);
+        float gzipQuality = ContentEncodingType.getQuality(acceptEncoding, ContentEncodingType.GZIP);
+        if (zstdQuality > 0 && zstdQuality >= gzipQuality)
+            return ContentEncodingType.ZSTD;
+        if (gzipQuality > 0)
+            return ContentEncodingType.GZIP;
+        return null;
+    }
+
+    public int getMetrics() {
+        int metrics = MatrixMetricsType.UNKNOWN;
+        for (int metric : METRICS) {
+            if (matrixResult.getTable(metric) != null)
+                metrics |= metric;
+        }
+        return metrics;
+    }
+
+    /**
+     * Write the matrix as the body of the servlet response, compressed with the encoding chosen from the Accept-Encoding
+     * header. The Content-Encoding header is set before the body is written, so that the compression filter passes the
+     * response through.
+     *
+     * @param response       servlet response to write to
+     * @param acceptEncoding value of the Accept-Encoding header, may be null
+     */
+    public void write(HttpServletResponse response, String acceptEncoding) throws IOException {
+        String contentEncoding = getContentEncoding(acceptEncoding);
+        response.setContentType(MEDIA_TYPE);
+        if (contentEncoding != null)
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        write(response.getOutputStream(), contentEncoding);
+    }
+
+    /**
+     * Write the matrix to the stream, compressed with the given content encoding. The stream is not closed.
+     *
+     * @param out             stream to write to
+     * @param contentEncoding one of the encodings returned by {@link #getContentEncoding(String)}
+     */
+    public void write(OutputStream out, String contentEncoding) throws IOException {
+        if (ContentEncodingType.ZSTD.equals(contentEncoding)) {
+            ZstdOutputStream zstdOut = new ZstdOutputStream(new NonClosingOutputStream(out));
+            write(zstdOut);
+            zstdOut.close();
+        } else if (ContentEncodingType.GZIP.equals(contentEncoding)) {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(new NonClosingOutputStream(out), BUFFER_SIZE);
+            write(gzipOut);
+            gzipOut.close();
+        } else {
+            write(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the uncompressed matrix to the stream.
+     */
+    public void write(OutputStream out) throws IOException {
+        int sourceCount = matrixResult.getSources().length;
+        int destinationCount = matrixResult.getDestinations().length;
+        int metrics = getMetrics();
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(sourceCount).putInt(destinationCount).putInt(metrics);
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+
+        FloatBuffer floats = buffer.asFloatBuffer();
+        int tableSize = sourceCount * destinationCount;
+        for (int metric : METRICS) {
+            if (!MatrixMetricsType.isSet(metrics, metric))
+                continue;
+            float[] table = matrixResult.getTable(metric);
+            for (int offset = 0; offset < tableSize; offset += floats.capacity()) {
+                int length = Math.min(floats.capacity(), tableSize - offset);
+                floats.clear();
+                floats.put(table, offset, length);
+                out.write(buffer.array(), 0, length * Float.BYTES);
+            }
+        }
+    }
+
+    /**
+     * Lets the compressing streams write their trailer without closing the stream of the servlet response.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
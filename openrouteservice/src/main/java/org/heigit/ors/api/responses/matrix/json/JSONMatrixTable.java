@@ -0,0 +1,87 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.responses.matrix.json;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.heigit.ors.api.converters.MatrixTableSerializer;
+import org.heigit.ors.util.FormatUtility;
+
+/**
+ * A metric table of a matrix response which is written directly from the values of the {@link org.heigit.ors.matrix.MatrixResult}.
+ * The values are neither copied nor boxed, they are only rounded while being serialized. Unreachable entries are
+ * stored as -1 and serialized as null.
+ */
+@JsonSerialize(using = MatrixTableSerializer.class)
+public class JSONMatrixTable {
+    public static final int DECIMALS = 2;
+
+    private final float[] values;
+    private final int rows;
+    private final int columns;
+
+    public JSONMatrixTable(float[] values, int rows, int columns) {
+        this.values = values;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    public static JSONMatrixTable fromArray(Double[][] table) {
+        int rows = table.length;
+        int columns = rows == 0 ? 0 : table[0].length;
+        float[] values = new float[rows * columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                Double value = table[i][j];
+                values[i * columns + j] = value == null ? -1 : value.floatValue();
+            }
+        }
+        return new JSONMatrixTable(values, rows, columns);
+    }
+
+    /**
+     * @return the rounded value of an entry or null if the destination is not reachable from the source
+     */
+    public Double getValue(int row, int column) {
+        double value = values[row * columns + column];
+        if (value == -1)
+            return null;
+        return FormatUtility.roundToDecimals(value, DECIMALS);
+    }
+
+    public Double[][] toArray() {
+        Double[][] table = new Double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++)
+                table[i][j] = getValue(i, j);
+        }
+        return table;
+    }
+
+    /**
+     * @return the values of the table row by row, -1 for unreachable entries
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -9,6 +9,7 @@ public class CentralityErrorCodes {
     public static final int UNKNOWN_PARAMETER = 7004;
     public static final int MISMATCHED_INPUT = 7005;
     public static final int UNSUPPORTED_EXPORT_FORMAT = 7006;
+    public static final int INCOMPATIBLE_PARAMETERS = 7007;
     public static final int UNKNOWN = 7099;
     private CentralityErrorCodes() {}
 
@@ -10,6 +10,8 @@ public class CentralityRequest extends ServiceRequest {
     private BBox bbox;
     private List<Integer> excludeNodes = new ArrayList<>();
     private String mode;
+    private int sampleSize = 0;
+    private double epsilon = 0.0d;
 
     private int profileType = -1;
 
@@ -28,4 +30,21 @@ public class CentralityRequest extends ServiceRequest {
     public String getMode() { return mode; }
 
     public void setMode(String mode) { this.mode = mode; }
+
+    public int getSampleSize() { return sampleSize; }
+
+    public void setSampleSize(int sampleSize) { this.sampleSize = sampleSize; }
+
+    public boolean hasSampleSize() { return sampleSize > 0; }
+
+    public double getEpsilon() { return epsilon; }
+
+    public void setEpsilon(double epsilon) { this.epsilon = epsilon; }
+
+    public boolean hasEpsilon() { return epsilon > 0.0d; }
+
+    /**
+     * Whether the scores should be estimated from a sample of sources instead of being computed exactly.
+     */
+    public boolean isApproximate() { return hasSampleSize() || hasEpsilon(); }
 }
@@ -11,6 +11,7 @@ public class CentralityResult {
     private Map<Integer, Double> nodeCentralityScores;
     private Map<Pair<Integer, Integer>, Double> edgeCentralityScores;
     private CentralityWarning warning;
+    private CentralitySampling sampling;
 
 
     public CentralityResult() {
@@ -18,6 +19,7 @@ public class CentralityResult {
         this.nodeCentralityScores = null;
         this.edgeCentralityScores = null;
         this.warning = null;
+        this.sampling = null;
     }
 
     public Map<Integer, Double> getNodeCentralityScores() {
@@ -60,6 +62,12 @@ public class CentralityResult {
 
     public boolean hasWarning() {return this.warning != null; }
 
+    public CentralitySampling getSampling() { return sampling; }
+
+    public void setSampling(CentralitySampling sampling) { this.sampling = sampling; }
+
+    public boolean hasSampling() { return this.sampling != null; }
+
 
 
 }
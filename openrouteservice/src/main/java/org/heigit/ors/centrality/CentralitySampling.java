@@ -0,0 +1,106 @@
+package org.heigit.ors.centrality;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Source sampling for approximate betweenness centrality ("pivot" sampling as described in "Centrality Estimation in
+ * Large Networks" by Ulrik Brandes and Christian Pich, 2007). Instead of running one search per node in the bbox, only
+ * the dependencies of a uniform sample of k sources are summed up and scaled by n / k, which is an unbiased estimate
+ * of the exact score.
+ *
+ * A single dependency is bounded by n - 1, so by Hoeffding's inequality and a union bound over all N scores, every
+ * estimate deviates by at most epsilon * n * (n - 1) from the exact score with probability {@link #CONFIDENCE} if
+ * k >= ln(2N / (1 - CONFIDENCE)) / (2 * epsilon^2). As k only grows logarithmically in N, the number of searches stays
+ * sub-linear in the bbox size.
+ */
+public class CentralitySampling {
+    public static final double CONFIDENCE = 0.95;
+    // fixed seed, so that repeated requests return the same scores
+    private static final long SEED = 1L;
+
+    private final int sampleSize;
+    private final double epsilon;
+
+    private CentralitySampling(int sampleSize, double epsilon) {
+        this.sampleSize = sampleSize;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Create the sampling for a request, which either specifies the sample size or the target epsilon.
+     *
+     * @param req       The centrality request
+     * @param nodeCount Number of nodes in the bbox, i.e. possible sources
+     * @param scoreCount Number of scores which are estimated (nodes or edges in the bbox)
+     */
+    public static CentralitySampling create(CentralityRequest req, int nodeCount, int scoreCount) {
+        int size = req.hasSampleSize() ? req.getSampleSize() : getSampleSize(req.getEpsilon(), scoreCount);
+        if (size >= nodeCount)
+            return new CentralitySampling(nodeCount, 0.0d);
+        return new CentralitySampling(size, getEpsilon(size, scoreCount));
+    }
+
+    static int getSampleSize(double epsilon, int scoreCount) {
+        double size = Math.log(2.0d * Math.max(scoreCount, 1) / (1 - CONFIDENCE)) / (2 * epsilon * epsilon);
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(size));
+    }
+
+    static double getEpsilon(int sampleSize, int scoreCount) {
+        return Math.sqrt(Math.log(2.0d * Math.max(scoreCount, 1) / (1 - CONFIDENCE)) / (2.0d * sampleSize));
+    }
+
+    /**
+     * Whether all nodes are used as sources, in which case the scores are exact.
+     */
+    public boolean isExact() {
+        return epsilon == 0.0d;
+    }
+
+    /**
+     * Draw the sources uniformly and without replacement from the given nodes.
+     */
+    public List<Integer> drawSources(List<Integer> nodes) {
+        if (isExact())
+            return nodes;
+
+        // partial Fisher-Yates shuffle of a copy of the node list
+        List<Integer> candidates = new ArrayList<>(nodes);
+        Random random = new Random(SEED);
+        int size = Math.min(sampleSize, candidates.size());
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(candidates.size() - i);
+            Integer tmp = candidates.get(i);
+            candidates.set(i, candidates.get(j));
+            candidates.set(j, tmp);
+        }
+        return new ArrayList<>(candidates.subList(0, size));
+    }
+
+    /**
+     * Scale the sampled scores up to the magnitude of the exact ones.
+     */
+    public <K> void rescale(Map<K, Double> scores, int nodeCount) {
+        if (isExact())
+            return;
+        double factor = (double) nodeCount / sampleSize;
+        scores.replaceAll((k, v) -> v * factor);
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Maximal deviation of the scores from the exact ones, relative to n * (n - 1).
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public double getConfidence() {
+        return isExact() ? 1.0d : CONFIDENCE;
+    }
+}
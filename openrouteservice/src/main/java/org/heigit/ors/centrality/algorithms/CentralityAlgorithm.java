@@ -13,5 +13,15 @@ public interface CentralityAlgorithm {
 
     Map<Integer, Double> computeNodeCentrality(List<Integer> nodes) throws Exception;
 
+    /**
+     * Sum up the node dependencies of the given sources only, sources must be a subset of nodes.
+     */
+    Map<Integer, Double> computeNodeCentrality(List<Integer> nodes, List<Integer> sources) throws Exception;
+
     Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodes) throws Exception;
+
+    /**
+     * Sum up the edge dependencies of the given sources only, sources must be a subset of nodes.
+     */
+    Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodes, List<Integer> sources) throws Exception;
 }
@@ -41,6 +41,10 @@ public class BrandesCentralityAlgorithm implements CentralityAlgorithm {
     // this implementation follows the code given in
     // "A Faster Algorithm for Betweenness Centrality" by Ulrik Brandes, 2001
     public Map<Integer, Double> computeNodeCentrality(List<Integer> nodesInBBox) throws Exception {
+        return computeNodeCentrality(nodesInBBox, nodesInBBox);
+    }
+
+    public Map<Integer, Double> computeNodeCentrality(List<Integer> nodesInBBox, List<Integer> sources) throws Exception {
         Map<Integer, Double> betweenness = new HashMap<>();
 
         // c_b[v] = 0 forall v in V
@@ -48,7 +52,7 @@ public class BrandesCentralityAlgorithm implements CentralityAlgorithm {
             betweenness.put(v,0.0d);
         }
 
-        for (int s : nodesInBBox) {
+        for (int s : sources) {
             Stack<Integer> S = new Stack<>();
             Map<Integer, List<Integer>> P = new HashMap<>();
             Map<Integer, Integer> sigma = new HashMap<>();
@@ -144,6 +148,10 @@ public class BrandesCentralityAlgorithm implements CentralityAlgorithm {
     }
 
     public Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodesInBBox) throws Exception {
+        return computeEdgeCentrality(nodesInBBox, nodesInBBox);
+    }
+
+    public Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodesInBBox, List<Integer> sources) throws Exception {
         Map<Pair<Integer, Integer>, Double> edgeBetweenness = new HashMap<>();
 
         //initialize betweenness for all edges
@@ -158,7 +166,7 @@ public class BrandesCentralityAlgorithm implements CentralityAlgorithm {
             }
         }
 
-        for (int s : nodesInBBox) {
+        for (int s : sources) {
             Stack<Integer> S = new Stack<>();
             Map<Integer, List<Integer>> P = new HashMap<>();
             Map<Integer, Integer> sigma = new HashMap<>();
@@ -0,0 +1,143 @@
+package org.heigit.ors.centrality.algorithms.brandes;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of the part of the graph that lies inside the centrality bbox. Nodes are remapped to dense local
+ * indices (in order of their first occurrence in the node list) and the outgoing edges of every node are stored
+ * in CSR form together with their precomputed weights, so that the single source searches never touch the
+ * graph storage or the weighting again.
+ */
+class BrandesLocalGraph {
+    private final int[] nodeIds;
+    private final IntIntHashMap localIndices;
+
+    // outgoing edges of local node v are stored at [adjStart[v], adjStart[v + 1])
+    private final int[] adjStart;
+    private final int[] adjTarget;
+    private final double[] adjWeight;
+    private final int[] adjPair;
+
+    // distinct (from, to) pairs of local nodes, in order of their first appearance during exploration
+    private final int[] pairFrom;
+    private final int[] pairTo;
+
+    BrandesLocalGraph(List<Integer> nodesInBBox, Weighting weighting, EdgeExplorer explorer) {
+        localIndices = new IntIntHashMap(nodesInBBox.size());
+        int[] ids = new int[nodesInBBox.size()];
+        int size = 0;
+        for (int v : nodesInBBox) {
+            if (!localIndices.containsKey(v)) {
+                localIndices.put(v, size);
+                ids[size++] = v;
+            }
+        }
+        nodeIds = size == ids.length ? ids : Arrays.copyOf(ids, size);
+
+        int capacity = Math.max(16, size * 3);
+        int[] targets = new int[capacity];
+        double[] weights = new double[capacity];
+        int[] pairs = new int[capacity];
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        LongIntHashMap pairIndices = new LongIntHashMap(capacity);
+        adjStart = new int[size + 1];
+
+        int edgeCount = 0;
+        int pairCount = 0;
+        for (int v = 0; v < size; v++) {
+            adjStart[v] = edgeCount;
+            EdgeIterator iter = explorer.setBaseNode(nodeIds[v]);
+            while (iter.next()) {
+                int w = localIndices.getOrDefault(iter.getAdjNode(), -1);
+                if (w < 0) {
+                    // Node not in bbox, skipping edge
+                    continue;
+                }
+
+                if (edgeCount == targets.length) {
+                    int newCapacity = targets.length * 2;
+                    targets = Arrays.copyOf(targets, newCapacity);
+                    weights = Arrays.copyOf(weights, newCapacity);
+                    pairs = Arrays.copyOf(pairs, newCapacity);
+                }
+
+                long key = ((long) v << 32) | w;
+                int pair = pairIndices.getOrDefault(key, -1);
+                if (pair < 0) {
+                    if (pairCount == from.length) {
+                        from = Arrays.copyOf(from, pairCount * 2);
+                        to = Arrays.copyOf(to, pairCount * 2);
+                    }
+                    pair = pairCount++;
+                    pairIndices.put(key, pair);
+                    from[pair] = v;
+                    to[pair] = w;
+                }
+
+                targets[edgeCount] = w;
+                weights[edgeCount] = weighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
+                pairs[edgeCount] = pair;
+                edgeCount++;
+            }
+        }
+        adjStart[size] = edgeCount;
+
+        adjTarget = Arrays.copyOf(targets, edgeCount);
+        adjWeight = Arrays.copyOf(weights, edgeCount);
+        adjPair = Arrays.copyOf(pairs, edgeCount);
+        pairFrom = Arrays.copyOf(from, pairCount);
+        pairTo = Arrays.copyOf(to, pairCount);
+    }
+
+    int size() {
+        return nodeIds.length;
+    }
+
+    int getNodeId(int local) {
+        return nodeIds[local];
+    }
+
+    int getLocalIndex(int nodeId) {
+        return localIndices.getOrDefault(nodeId, -1);
+    }
+
+    int getEdgesStart(int local) {
+        return adjStart[local];
+    }
+
+    int getEdgesEnd(int local) {
+        return adjStart[local + 1];
+    }
+
+    int getEdgeTarget(int edge) {
+        return adjTarget[edge];
+    }
+
+    double getEdgeWeight(int edge) {
+        return adjWeight[edge];
+    }
+
+    int getEdgePair(int edge) {
+        return adjPair[edge];
+    }
+
+    int getPairCount() {
+        return pairFrom.length;
+    }
+
+    int getPairFrom(int pair) {
+        return pairFrom[pair];
+    }
+
+    int getPairTo(int pair) {
+        return pairTo[pair];
+    }
+}
@@ -0,0 +1,247 @@
+package org.heigit.ors.centrality.algorithms.brandes;
+
+import java.util.Arrays;
+
+/**
+ * Reusable single source shortest path search and dependency accumulation of Brandes' algorithm on a
+ * {@link BrandesLocalGraph}. All per-node state lives in primitive arrays indexed by local node index, which are
+ * invalidated between sources by a round counter instead of being cleared.
+ *
+ * The search deliberately mirrors the order of operations of {@link BrandesCentralityAlgorithm} (including the tie
+ * breaking of {@link java.util.PriorityQueue}), so that both produce bit-identical scores.
+ *
+ * Instances are not thread-safe; use one per thread.
+ */
+class BrandesSearch {
+    private static final double EQUALITY_EPSILON = 0.000001d;
+
+    private final BrandesLocalGraph graph;
+
+    private final double[] seen;
+    private final int[] seenRound;
+    private final int[] settledRound;
+    private final int[] sigma;
+    private final double[] delta;
+    private final int[] stack;
+    private int stackSize;
+    private int round;
+    private int source;
+
+    // predecessor lists are built as linked lists during the search ...
+    private final int[] predHead;
+    private final int[] predTail;
+    private int[] predNext;
+    private int[] predNode;
+    private int[] predPair;
+    private int predCount;
+
+    // ... and compacted into CSR form ordered by stack position once the search is done
+    private final int[] predStart;
+    private int[] predCsrNode;
+    private int[] predCsrPair;
+
+    // binary min heap with the same sift operations as java.util.PriorityQueue
+    private double[] heapDist;
+    private int[] heapPred;
+    private int[] heapNode;
+    private int heapSize;
+
+    BrandesSearch(BrandesLocalGraph graph) {
+        this.graph = graph;
+        int size = graph.size();
+        seen = new double[size];
+        seenRound = new int[size];
+        settledRound = new int[size];
+        sigma = new int[size];
+        delta = new double[size];
+        stack = new int[size];
+        predHead = new int[size];
+        predTail = new int[size];
+        predStart = new int[size + 1];
+
+        int capacity = Math.max(16, size);
+        predNext = new int[capacity];
+        predNode = new int[capacity];
+        predPair = new int[capacity];
+        predCsrNode = new int[capacity];
+        predCsrPair = new int[capacity];
+        heapDist = new double[capacity];
+        heapPred = new int[capacity];
+        heapNode = new int[capacity];
+    }
+
+    /**
+     * Run the forward search from the given local source node.
+     */
+    void run(int source) {
+        this.source = source;
+        round++;
+        stackSize = 0;
+        predCount = 0;
+        heapSize = 0;
+
+        sigma[source] = 1;
+        seen[source] = 0.0d;
+        seenRound[source] = round;
+        predHead[source] = -1;
+        push(0.0d, source, source);
+
+        while (heapSize > 0) {
+            double dist = heapDist[0];
+            int pred = heapPred[0];
+            int v = heapNode[0];
+            poll();
+
+            if (settledRound[v] == round) {
+                continue;
+            }
+
+            sigma[v] += sigma[pred];
+            settledRound[v] = round;
+            stack[stackSize++] = v;
+
+            for (int edge = graph.getEdgesStart(v), end = graph.getEdgesEnd(v); edge < end; edge++) {
+                int w = graph.getEdgeTarget(edge);
+                if (settledRound[w] == round) {
+                    // This is only possible if weights are always bigger than 0, which should be given for real-world examples.
+                    continue;
+                }
+
+                double vwDist = dist + graph.getEdgeWeight(edge);
+
+                if (seenRound[w] == round && Math.abs(vwDist - seen[w]) < EQUALITY_EPSILON) {
+                    sigma[w] += sigma[v];
+                    addPredecessor(w, v, graph.getEdgePair(edge));
+                } else if (seenRound[w] != round || vwDist < seen[w]) {
+                    seen[w] = vwDist;
+                    seenRound[w] = round;
+                    push(vwDist, v, w);
+                    sigma[w] = 0;
+                    predHead[w] = -1;
+                    addPredecessor(w, v, graph.getEdgePair(edge));
+                }
+            }
+        }
+
+        compactPredecessors();
+    }
+
+    /**
+     * Accumulate the dependencies of the last searched source. The node dependencies are added to nodeScores and the
+     * edge dependencies to edgeScores (indexed by pair, see {@link BrandesLocalGraph#getPairFrom(int)}); either of
+     * them may be null.
+     */
+    void accumulate(double[] nodeScores, double[] edgeScores) {
+        for (int i = 0; i < stackSize; i++) {
+            delta[stack[i]] = 0.0d;
+        }
+
+        for (int i = stackSize - 1; i >= 0; i--) {
+            int w = stack[i];
+            double coefficient = (1 + delta[w]) / sigma[w];
+            for (int p = predStart[i], end = predStart[i + 1]; p < end; p++) {
+                int v = predCsrNode[p];
+                double dependency = sigma[v] * coefficient;
+                delta[v] += dependency;
+                if (edgeScores != null) {
+                    edgeScores[predCsrPair[p]] += dependency;
+                }
+            }
+            if (nodeScores != null && w != source) {
+                nodeScores[w] += delta[w];
+            }
+        }
+    }
+
+    private void addPredecessor(int w, int v, int pair) {
+        if (predCount == predNode.length) {
+            int newCapacity = predCount * 2;
+            predNext = Arrays.copyOf(predNext, newCapacity);
+            predNode = Arrays.copyOf(predNode, newCapacity);
+            predPair = Arrays.copyOf(predPair, newCapacity);
+        }
+        int entry = predCount++;
+        predNext[entry] = -1;
+        predNode[entry] = v;
+        predPair[entry] = pair;
+        if (predHead[w] == -1) {
+            predHead[w] = entry;
+        } else {
+            predNext[predTail[w]] = entry;
+        }
+        predTail[w] = entry;
+    }
+
+    private void compactPredecessors() {
+        if (predCsrNode.length < predCount) {
+            predCsrNode = new int[predNode.length];
+            predCsrPair = new int[predNode.length];
+        }
+        int count = 0;
+        for (int i = 0; i < stackSize; i++) {
+            predStart[i] = count;
+            for (int entry = predHead[stack[i]]; entry != -1; entry = predNext[entry]) {
+                predCsrNode[count] = predNode[entry];
+                predCsrPair[count] = predPair[entry];
+                count++;
+            }
+        }
+        predStart[stackSize] = count;
+    }
+
+    private void push(double dist, int pred, int node) {
+        if (heapSize == heapDist.length) {
+            int newCapacity = heapSize * 2;
+            heapDist = Arrays.copyOf(heapDist, newCapacity);
+            heapPred = Arrays.copyOf(heapPred, newCapacity);
+            heapNode = Arrays.copyOf(heapNode, newCapacity);
+        }
+        int k = heapSize++;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (Double.compare(dist, heapDist[parent]) >= 0) {
+                break;
+            }
+            move(parent, k);
+            k = parent;
+        }
+        set(k, dist, pred, node);
+    }
+
+    private void poll() {
+        int n = --heapSize;
+        if (n == 0) {
+            return;
+        }
+        double dist = heapDist[n];
+        int pred = heapPred[n];
+        int node = heapNode[n];
+        int k = 0;
+        int half = n >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int right = child + 1;
+            if (right < n && Double.compare(heapDist[child], heapDist[right]) > 0) {
+                child = right;
+            }
+            if (Double.compare(dist, heapDist[child]) <= 0) {
+                break;
+            }
+            move(child, k);
+            k = child;
+        }
+        set(k, dist, pred, node);
+    }
+
+    private void move(int from, int to) {
+        heapDist[to] = heapDist[from];
+        heapPred[to] = heapPred[from];
+        heapNode[to] = heapNode[from];
+    }
+
+    private void set(int k, double dist, int pred, int node) {
+        heapDist[k] = dist;
+        heapPred[k] = pred;
+        heapNode[k] = node;
+    }
+}
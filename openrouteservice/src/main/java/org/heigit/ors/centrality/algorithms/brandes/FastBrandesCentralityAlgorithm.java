@@ -0,0 +1,92 @@
+package org.heigit.ors.centrality.algorithms.brandes;
+
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeExplorer;
+import org.heigit.ors.centrality.algorithms.CentralityAlgorithm;
+import org.heigit.ors.common.Pair;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Array based implementation of Brandes' algorithm. The nodes in the bbox are remapped to dense local indices and
+ * all searches run on primitive arrays, which avoids the per-edge list lookups and boxing of
+ * {@link BrandesCentralityAlgorithm} while returning the very same scores.
+ */
+public class FastBrandesCentralityAlgorithm implements CentralityAlgorithm {
+    protected Graph graph;
+    protected Weighting weighting;
+    protected EdgeExplorer explorer;
+
+    public void init(Graph graph, Weighting weighting, EdgeExplorer explorer)
+    {
+        this.graph = graph;
+        this.weighting = weighting;
+        this.explorer = explorer;
+    }
+
+    public Map<Integer, Double> computeNodeCentrality(List<Integer> nodesInBBox) throws Exception {
+        return computeNodeCentrality(nodesInBBox, nodesInBBox);
+    }
+
+    public Map<Integer, Double> computeNodeCentrality(List<Integer> nodesInBBox, List<Integer> sources) throws Exception {
+        BrandesLocalGraph localGraph = new BrandesLocalGraph(nodesInBBox, weighting, explorer);
+        double[] betweenness = computeScores(localGraph, getSources(localGraph, sources), false);
+
+        Map<Integer, Double> result = new HashMap<>();
+        for (int v : nodesInBBox) {
+            result.put(v, betweenness[localGraph.getLocalIndex(v)]);
+        }
+        return result;
+    }
+
+    public Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodesInBBox) throws Exception {
+        return computeEdgeCentrality(nodesInBBox, nodesInBBox);
+    }
+
+    public Map<Pair<Integer, Integer>, Double> computeEdgeCentrality(List<Integer> nodesInBBox, List<Integer> sources) throws Exception {
+        BrandesLocalGraph localGraph = new BrandesLocalGraph(nodesInBBox, weighting, explorer);
+        double[] edgeBetweenness = computeScores(localGraph, getSources(localGraph, sources), true);
+
+        Map<Pair<Integer, Integer>, Double> result = new HashMap<>();
+        for (int pair = 0; pair < localGraph.getPairCount(); pair++) {
+            int from = localGraph.getNodeId(localGraph.getPairFrom(pair));
+            int to = localGraph.getNodeId(localGraph.getPairTo(pair));
+            result.put(new Pair<>(from, to), edgeBetweenness[pair]);
+        }
+        return result;
+    }
+
+    /**
+     * Run the searches from all given local sources and return the summed up dependencies, indexed by local node or,
+     * if edgeScores is set, by local pair.
+     */
+    double[] computeScores(BrandesLocalGraph localGraph, int[] sources, boolean edgeScores) {
+        return computeScores(localGraph, sources, 0, sources.length, edgeScores);
+    }
+
+    static double[] computeScores(BrandesLocalGraph localGraph, int[] sources, int from, int to, boolean edgeScores) {
+        double[] scores = new double[edgeScores ? localGraph.getPairCount() : localGraph.size()];
+        BrandesSearch search = new BrandesSearch(localGraph);
+        for (int i = from; i < to; i++) {
+            search.run(sources[i]);
+            if (edgeScores)
+                search.accumulate(null, scores);
+            else
+                search.accumulate(scores, null);
+        }
+        return scores;
+    }
+
+    private static int[] getSources(BrandesLocalGraph localGraph, List<Integer> sources) {
+        int[] localSources = new int[sources.size()];
+        for (int i = 0; i < localSources.length; i++) {
+            localSources[i] = localGraph.getLocalIndex(sources.get(i));
+            if (localSources[i] < 0)
+                throw new IllegalArgumentException("Source " + sources.get(i) + " is not contained in the nodes.");
+        }
+        return localSources;
+    }
+}
@@ -0,0 +1,68 @@
+package org.heigit.ors.centrality.algorithms.brandes;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Variant of {@link FastBrandesCentralityAlgorithm} which splits the sources across a fork-join pool. Every task runs
+ * its sources into its own score array and the arrays are summed up while joining. As the split only depends on the
+ * number of sources and the parallelism of the pool, the results are deterministic, but due to the different
+ * summation order they may differ from the sequential ones in the last bits.
+ *
+ * The pool is passed in from outside, so that its parallelism caps the number of threads used by all centrality
+ * requests sharing it.
+ */
+public class ParallelBrandesCentralityAlgorithm extends FastBrandesCentralityAlgorithm {
+    private static final int MIN_SOURCES_PER_TASK = 16;
+    // number of tasks per thread, more tasks than threads compensate for uneven search sizes
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelBrandesCentralityAlgorithm(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    double[] computeScores(BrandesLocalGraph localGraph, int[] sources, boolean edgeScores) {
+        int parallelism = pool.getParallelism();
+        if (parallelism < 2 || sources.length < 2 * MIN_SOURCES_PER_TASK)
+            return super.computeScores(localGraph, sources, edgeScores);
+
+        int sourcesPerTask = Math.max(MIN_SOURCES_PER_TASK, sources.length / (parallelism * TASKS_PER_THREAD));
+        return pool.invoke(new SourcesTask(localGraph, sources, 0, sources.length, sourcesPerTask, edgeScores));
+    }
+
+    private static class SourcesTask extends RecursiveTask<double[]> {
+        private final transient BrandesLocalGraph localGraph;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final int sourcesPerTask;
+        private final boolean edgeScores;
+
+        SourcesTask(BrandesLocalGraph localGraph, int[] sources, int from, int to, int sourcesPerTask, boolean edgeScores) {
+            this.localGraph = localGraph;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.sourcesPerTask = sourcesPerTask;
+            this.edgeScores = edgeScores;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= sourcesPerTask)
+                return FastBrandesCentralityAlgorithm.computeScores(localGraph, sources, from, to, edgeScores);
+
+            int mid = (from + to) >>> 1;
+            SourcesTask left = new SourcesTask(localGraph, sources, from, mid, sourcesPerTask, edgeScores);
+            left.fork();
+            double[] rightScores = new SourcesTask(localGraph, sources, mid, to, sourcesPerTask, edgeScores).compute();
+            double[] scores = left.join();
+            for (int i = 0; i < scores.length; i++)
+                scores[i] += rightScores[i];
+            return scores;
+        }
+    }
+}
@@ -21,9 +21,15 @@ import org.heigit.ors.isochrones.builders.concaveballs.PointItemVisitor;
 import org.opensphere.geometry.algorithm.ConcaveHull;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.getMaxCellNodesNumber;
+import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.getMaxThreadCount;
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.isSupercellsEnabled;
 
 /**
@@ -33,6 +39,7 @@ import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters
  * Super cells are again grouped into another set of super super cells.
  * Super cells contain a maximum amount of base cells given by the hierarchy level parameter.
  * Usually, there will be fewer base cells in a super cell, as some branches of the partitioning end earlier than others.
+ * The hulls are calculated in parallel and stored in a fixed order afterwards, so the storage is the same for every run.
  * <p>
  *
  * @author Hendrik Leuschner
@@ -51,6 +58,8 @@ public class Contour {
     protected GraphHopperStorage ghStorage;
     private IsochroneNodeStorage isochroneNodeStorage;
     private CellStorage cellStorage;
+    //Geometry factories are not shared between the threads calculating the hulls
+    private final ThreadLocal<GeometryFactory> geometryFactory = ThreadLocal.withInitial(GeometryFactory::new);
 
     public Contour(GraphHopperStorage ghStorage, NodeAccess nodeAccess, IsochroneNodeStorage isochroneNodeStorage, CellStorage cellStorage) {
         this.ghStorage = ghStorage;
@@ -98,15 +107,9 @@ public class Contour {
      * Create contour for each base cell and store it
      */
     private void handleBaseCells() {
-        for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
-            List<Coordinate> coordinates = createCoordinates(cellId.value);
-            LineString ring = createContour(coordinates, cellStorage.getNodesOfCell(cellId.value).size() < 1000);
-            if (ring == null || ring.getNumPoints() < 2) {
-                cellStorage.setCellContourOrder(cellId.value, new ArrayList<>(), new ArrayList<>());
-                continue;
-            }
-            expandAndSaveContour(cellId.value, ring);
-        }
+        createAndSaveContours(isochroneNodeStorage.getCellIds().toArray(),
+                this::createCoordinates,
+                cellId -> cellStorage.getNodeCountOfCell(cellId) < 1000);
     }
 
     /**
@@ -129,19 +132,51 @@ public class Contour {
             superCells.putAll(superSuperCells);
 
             //Calculate the concave hull for all super cells and super super cells
-            for (IntObjectCursor<IntHashSet> superCell : superCellsToBaseCells) {
-                List<Coordinate> superCellCoordinates = createSuperCellCoordinates(superCell.value);
-                LineString ring = createContour(superCellCoordinates, false);
-                if (ring == null || ring.getNumPoints() < 2) {
-                    cellStorage.setCellContourOrder(superCell.key, new ArrayList<>(), new ArrayList<>());
-                    continue;
-                }
-                expandAndSaveContour(superCell.key, ring);
-            }
+            //Both are built from the contours of base cells only, so they do not depend on each other
+            createAndSaveContours(superCellsToBaseCells.keys().toArray(),
+                    superCellId -> createSuperCellCoordinates(superCellsToBaseCells.get(superCellId)),
+                    superCellId -> false);
         }
         return superCells;
     }
 
+    /**
+     * Calculate the contours of the given cells in parallel and store them afterwards in the order of the cell ids.
+     * The storage is only read while the hulls are calculated, as writing the contours can grow it.
+     *
+     * @param cellIds            ids of the cells in the order in which their contours are stored
+     * @param coordinateSupplier creates the coordinates of the hull of a cell
+     * @param useHighDetail      whether the hull of a cell should be calculated in high detail
+     */
+    private void createAndSaveContours(int[] cellIds, IntFunction<List<Coordinate>> coordinateSupplier, IntPredicate useHighDetail) {
+        ExecutorService threadPool = Executors.newFixedThreadPool(Math.min(getMaxThreadCount(), Runtime.getRuntime().availableProcessors()));
+        List<Future<CellContour>> futures = new ArrayList<>(cellIds.length);
+        for (int cellId : cellIds)
+            futures.add(threadPool.submit(() -> {
+                LineString ring = createContour(coordinateSupplier.apply(cellId), useHighDetail.test(cellId));
+                if (ring == null || ring.getNumPoints() < 2)
+                    return new CellContour(cellId, new ArrayList<>(), new ArrayList<>());
+                return expandContour(cellId, ring);
+            }));
+        threadPool.shutdown();
+
+        List<CellContour> contours = new ArrayList<>(cellIds.length);
+        try {
+            for (Future<CellContour> future : futures)
+                contours.add(future.get());
+        } catch (InterruptedException e) {
+            threadPool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            threadPool.shutdownNow();
+            throw new IllegalStateException(e);
+        }
+
+        for (CellContour contour : contours)
+            cellStorage.setCellContourOrder(contour.cellId, contour.latitudes, contour.longitudes);
+    }
+
     /**
      * From the superCells Map get all the base cells for each super super cell
      *
@@ -200,7 +235,7 @@ public class Contour {
         for (Coordinate coordinate : coordinates)
             addPoint(visitor, points, qtree, searchEnv, treeSet, coordinate.x, coordinate.y, defaultSearchWidth, defaulPointWidth, true);
 
-        GeometryFactory geomFactory = new GeometryFactory();
+        GeometryFactory geomFactory = geometryFactory.get();
         int size = points.size();
         Geometry[] geometries = new Geometry[size];
         int g = 0;
@@ -320,8 +355,8 @@ public class Contour {
 
     private boolean isDisconnectedCell(IntSet cellIds, int cellId) {
         //If it has sister, check if their combined size is smaller than minimum cell size -> disconnected
-        return (cellIds.contains(cellId ^ 1) && cellStorage.getNodesOfCell(cellId).size()
-                + cellStorage.getNodesOfCell(cellId ^ 1).size()
+        return (cellIds.contains(cellId ^ 1) && cellStorage.getNodeCountOfCell(cellId)
+                + cellStorage.getNodeCountOfCell(cellId ^ 1)
                 < getMaxCellNodesNumber());
     }
 
@@ -416,8 +451,9 @@ public class Contour {
      *
      * @param cellId cellId of the contour
      * @param ring   LineString representing the contour in order
+     * @return the expanded contour to be stored
      */
-    private void expandAndSaveContour(int cellId, LineString ring) {
+    private CellContour expandContour(int cellId, LineString ring) {
         List<Double> hullLatitudes = new ArrayList<>(ring.getNumPoints());
         List<Double> hullLongitudes = new ArrayList<>(ring.getNumPoints());
         for (int i = 0; i < ring.getNumPoints(); i++) {
@@ -434,7 +470,7 @@ public class Contour {
                         MAX_EDGE_LENGTH);
             }
         }
-        cellStorage.setCellContourOrder(cellId, hullLatitudes, hullLongitudes);
+        return new CellContour(cellId, hullLatitudes, hullLongitudes);
     }
 
     public Contour setGhStorage(GraphHopperStorage ghStorage) {
@@ -508,4 +544,16 @@ public class Contour {
             existingCoordinates.add(new Coordinate(lon0 - BUFFER_SIZE, lat0 - BUFFER_SIZE));
         }
     }
+
+    private static final class CellContour {
+        private final int cellId;
+        private final List<Double> latitudes;
+        private final List<Double> longitudes;
+
+        CellContour(int cellId, List<Double> latitudes, List<Double> longitudes) {
+            this.cellId = cellId;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+        }
+    }
 }
@@ -21,6 +21,7 @@ import org.heigit.ors.routing.algorithms.DijkstraOneToManyAlgorithm;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -53,13 +54,28 @@ public class Eccentricity extends AbstractEccentricity {
     }
 
     public void calcEccentricities(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
+        calcEccentricities(Collections.singletonList(weighting), additionalEdgeFilter, flagEncoder);
+    }
+
+    /**
+     * Calculate the eccentricities of all border nodes for several weightings in one pass over the border nodes.
+     * The relevant contour nodes and the nodes of a cell are only determined once for all weightings.
+     *
+     * @param weightings           weightings for which to calculate the eccentricities
+     * @param additionalEdgeFilter edge filter applied in addition to the access of the flag encoder
+     * @param flagEncoder          flag encoder of the weightings
+     */
+    public void calcEccentricities(List<Weighting> weightings, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
         if (eccentricityStorages == null) {
             eccentricityStorages = new ArrayList<>();
         }
-        EccentricityStorage eccentricityStorage = getEccentricityStorage(weighting);
+        EccentricityStorage[] storages = new EccentricityStorage[weightings.size()];
+        for (int i = 0; i < storages.length; i++) {
+            storages[i] = getEccentricityStorage(weightings.get(i));
+            if (!storages[i].loadExisting())
+                storages[i].init();
+        }
         Graph graph = ghStorage.getBaseGraph();
-        if (!eccentricityStorage.loadExisting())
-            eccentricityStorage.init();
         ExecutorService threadPool = java.util.concurrent.Executors.newFixedThreadPool(Math.min(getMaxThreadCount(), Runtime.getRuntime().availableProcessors()));
 
         ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(threadPool);
@@ -79,36 +95,40 @@ public class Eccentricity extends AbstractEccentricity {
             final int node = borderNode;
             borderNodeCount++;
             completionService.submit(() -> {
+                int cellId = isochroneNodeStorage.getCellId(node);
+                IntHashSet cellNodes = cellStorage.getNodesOfCell(cellId);
+                int cellNodeCount = cellNodes.size();
                 //First run dijkstra only in cell and try to find _all_ nodes in the cell
                 EdgeFilterSequence edgeFilterSequence = new EdgeFilterSequence();
-                FixedCellEdgeFilter fixedCellEdgeFilter = new FixedCellEdgeFilter(isochroneNodeStorage, isochroneNodeStorage.getCellId(node), graph.getNodes());
+                FixedCellEdgeFilter fixedCellEdgeFilter = new FixedCellEdgeFilter(isochroneNodeStorage, cellId, graph.getNodes());
                 edgeFilterSequence.add(defaultEdgeFilter);
                 edgeFilterSequence.add(fixedCellEdgeFilter);
                 edgeFilterSequence.add(additionalEdgeFilter);
-                RangeDijkstra rangeDijkstra = new RangeDijkstra(graph, weighting);
-                rangeDijkstra.setMaxVisitedNodes(getMaxCellNodesNumber() * eccentricityDijkstraLimitFactor);
-                rangeDijkstra.setEdgeFilter(edgeFilterSequence);
-                rangeDijkstra.setCellNodes(cellStorage.getNodesOfCell(isochroneNodeStorage.getCellId(node)));
-                double eccentricity = rangeDijkstra.calcMaxWeight(node, relevantNodesSets.get(isochroneNodeStorage.getCellId(node)));
-                int cellNodeCount = cellStorage.getNodesOfCell(isochroneNodeStorage.getCellId(node)).size();
-                //Rerun outside of cell if not enough nodes were found in first run, but try to find almost all
-                //Sometimes nodes in a cell cannot be found, but we do not want to search the entire graph each time, so we limit the Dijkstra
-                if (((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount < acceptedFullyReachablePercentage) {
-                    rangeDijkstra = new RangeDijkstra(graph, weighting);
+                for (int i = 0; i < storages.length; i++) {
+                    Weighting weighting = weightings.get(i);
+                    RangeDijkstra rangeDijkstra = new RangeDijkstra(graph, weighting);
                     rangeDijkstra.setMaxVisitedNodes(getMaxCellNodesNumber() * eccentricityDijkstraLimitFactor);
                     rangeDijkstra.setEdgeFilter(edgeFilterSequence);
-                    rangeDijkstra.setCellNodes(cellStorage.getNodesOfCell(isochroneNodeStorage.getCellId(node)));
-                    edgeFilterSequence = new EdgeFilterSequence();
-                    edgeFilterSequence.add(defaultEdgeFilter);
-                    rangeDijkstra.setEdgeFilter(edgeFilterSequence);
-                    eccentricity = rangeDijkstra.calcMaxWeight(node, relevantNodesSets.get(isochroneNodeStorage.getCellId(node)));
-                }
+                    rangeDijkstra.setCellNodes(cellNodes);
+                    double eccentricity = rangeDijkstra.calcMaxWeight(node, relevantNodesSets.get(cellId));
+                    //Rerun outside of cell if not enough nodes were found in first run, but try to find almost all
+                    //Sometimes nodes in a cell cannot be found, but we do not want to search the entire graph each time, so we limit the Dijkstra
+                    if (((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount < acceptedFullyReachablePercentage) {
+                        rangeDijkstra = new RangeDijkstra(graph, weighting);
+                        rangeDijkstra.setMaxVisitedNodes(getMaxCellNodesNumber() * eccentricityDijkstraLimitFactor);
+                        rangeDijkstra.setCellNodes(cellNodes);
+                        EdgeFilterSequence outOfCellEdgeFilterSequence = new EdgeFilterSequence();
+                        outOfCellEdgeFilterSequence.add(defaultEdgeFilter);
+                        rangeDijkstra.setEdgeFilter(outOfCellEdgeFilterSequence);
+                        eccentricity = rangeDijkstra.calcMaxWeight(node, relevantNodesSets.get(cellId));
+                    }
 
-                //TODO Maybe implement a logic smarter than having some high percentage for acceptedFullyReachable
-                boolean isFullyReachable = ((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount >= acceptedFullyReachablePercentage;
-                eccentricityStorage.setFullyReachable(node, isFullyReachable);
+                    //TODO Maybe implement a logic smarter than having some high percentage for acceptedFullyReachable
+                    boolean isFullyReachable = ((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount >= acceptedFullyReachablePercentage;
+                    storages[i].setFullyReachable(node, isFullyReachable);
 
-                eccentricityStorage.setEccentricity(node, eccentricity);
+                    storages[i].setEccentricity(node, eccentricity);
+                }
             }, String.valueOf(node));
         }
 
@@ -123,17 +143,33 @@ public class Eccentricity extends AbstractEccentricity {
             throw new RuntimeException(e);
         }
 
-        eccentricityStorage.storeBorderNodeToPointerMap();
-        eccentricityStorage.flush();
+        for (EccentricityStorage eccentricityStorage : storages) {
+            eccentricityStorage.storeBorderNodeToPointerMap();
+            eccentricityStorage.flush();
+        }
     }
 
     public void calcBorderNodeDistances(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
+        calcBorderNodeDistances(Collections.singletonList(weighting), additionalEdgeFilter, flagEncoder);
+    }
+
+    /**
+     * Calculate the distances between the border nodes of each cell for several weightings in one pass over the cells.
+     *
+     * @param weightings           weightings for which to calculate the distances
+     * @param additionalEdgeFilter edge filter applied in addition to the access of the flag encoder
+     * @param flagEncoder          flag encoder of the weightings
+     */
+    public void calcBorderNodeDistances(List<Weighting> weightings, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
         if (borderNodeDistanceStorages == null) {
             borderNodeDistanceStorages = new ArrayList<>();
         }
-        BorderNodeDistanceStorage borderNodeDistanceStorage = getBorderNodeDistanceStorage(weighting);
-        if (!borderNodeDistanceStorage.loadExisting())
-            borderNodeDistanceStorage.init();
+        BorderNodeDistanceStorage[] storages = new BorderNodeDistanceStorage[weightings.size()];
+        for (int i = 0; i < storages.length; i++) {
+            storages[i] = getBorderNodeDistanceStorage(weightings.get(i));
+            if (!storages[i].loadExisting())
+                storages[i].init();
+        }
 
         ExecutorService threadPool = java.util.concurrent.Executors.newFixedThreadPool(Math.min(getMaxThreadCount(), Runtime.getRuntime().availableProcessors()));
         ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(threadPool);
@@ -142,7 +178,11 @@ public class Eccentricity extends AbstractEccentricity {
         for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
             final int currentCellId = cellId.value;
             cellCount++;
-            completionService.submit(() -> calculateBorderNodeDistances(borderNodeDistanceStorage, additionalEdgeFilter, currentCellId, weighting, flagEncoder), String.valueOf(currentCellId));
+            completionService.submit(() -> {
+                int[] cellBorderNodes = getBorderNodesOfCell(currentCellId, cellStorage, isochroneNodeStorage).toArray();
+                for (int i = 0; i < storages.length; i++)
+                    calculateBorderNodeDistances(storages[i], additionalEdgeFilter, cellBorderNodes, weightings.get(i), flagEncoder);
+            }, String.valueOf(currentCellId));
         }
 
         threadPool.shutdown();
@@ -155,12 +195,13 @@ public class Eccentricity extends AbstractEccentricity {
             threadPool.shutdownNow();
             throw new RuntimeException(e);
         }
-        borderNodeDistanceStorage.storeBorderNodeToPointerMap();
-        borderNodeDistanceStorage.flush();
+        for (BorderNodeDistanceStorage borderNodeDistanceStorage : storages) {
+            borderNodeDistanceStorage.storeBorderNodeToPointerMap();
+            borderNodeDistanceStorage.flush();
+        }
     }
 
-    private void calculateBorderNodeDistances(BorderNodeDistanceStorage borderNodeDistanceStorage, EdgeFilter additionalEdgeFilter, int cellId, Weighting weighting, FlagEncoder flagEncoder) {
-        int[] cellBorderNodes = getBorderNodesOfCell(cellId, cellStorage, isochroneNodeStorage).toArray();
+    private void calculateBorderNodeDistances(BorderNodeDistanceStorage borderNodeDistanceStorage, EdgeFilter additionalEdgeFilter, int[] cellBorderNodes, Weighting weighting, FlagEncoder flagEncoder) {
         EdgeFilterSequence edgeFilterSequence = new EdgeFilterSequence();
         EdgeFilter defaultEdgeFilter = DefaultEdgeFilter.outEdges(flagEncoder);
         edgeFilterSequence.add(defaultEdgeFilter);
@@ -194,10 +235,10 @@ public class Eccentricity extends AbstractEccentricity {
 
     private IntHashSet getBorderNodesOfCell(int cellId, CellStorage cellStorage, IsochroneNodeStorage isochroneNodeStorage) {
         IntHashSet borderNodes = new IntHashSet();
-        for (IntCursor node : cellStorage.getNodesOfCell(cellId)) {
-            if (isochroneNodeStorage.getBorderness(node.value))
-                borderNodes.add(node.value);
-        }
+        cellStorage.forEachNodeOfCell(cellId, node -> {
+            if (isochroneNodeStorage.getBorderness(node))
+                borderNodes.add(node);
+        });
         return borderNodes;
     }
 
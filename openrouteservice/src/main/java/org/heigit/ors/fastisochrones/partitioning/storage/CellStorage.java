@@ -20,6 +20,7 @@ package org.heigit.ors.fastisochrones.partitioning.storage;
 import com.carrotsearch.hppc.*;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.carrotsearch.hppc.procedures.IntProcedure;
 import com.graphhopper.storage.DataAccess;
 import com.graphhopper.storage.Directory;
 import com.graphhopper.storage.Storable;
@@ -28,6 +29,8 @@ import com.graphhopper.util.Helper;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.isSupercellsEnabled;
@@ -51,6 +54,8 @@ public class CellStorage implements Storable<CellStorage> {
     private IntLongMap cellIdToContourPointerMap;
     private IntIntMap cellIdToSuperCellMap = new IntIntHashMap();
     private IntObjectMap<IntHashSet> superCellIdToCellsMap = new IntObjectHashMap<>();
+    // contours decoded by queries, at most one per cell and supercell
+    private final Map<Integer, double[]> contourCache = new ConcurrentHashMap<>();
 
     /**
      * Instantiates a new Cell storage.
@@ -165,6 +170,42 @@ public class CellStorage implements Storable<CellStorage> {
         return nodeIds;
     }
 
+    /**
+     * Passes the nodes of a cell to the procedure, straight from the storage.
+     *
+     * @param cellId    the cell id
+     * @param procedure the procedure applied to each node
+     */
+    public void forEachNodeOfCell(int cellId, IntProcedure procedure) {
+        if (cellIdToNodesPointerMap.isEmpty())
+            throw new IllegalStateException("CellStorage not filled yet. Was calcCellNodesMap run?");
+        long nodePointer = cellIdToNodesPointerMap.get(cellId);
+        int currentNode = cells.getInt(nodePointer);
+        while (currentNode != -1) {
+            procedure.apply(currentNode);
+            nodePointer = nodePointer + (long) byteCount;
+            currentNode = cells.getInt(nodePointer);
+        }
+    }
+
+    /**
+     * Get the number of nodes of a cell without collecting them.
+     *
+     * @param cellId the cell id
+     * @return the number of nodes
+     */
+    public int getNodeCountOfCell(int cellId) {
+        if (cellIdToNodesPointerMap.isEmpty())
+            throw new IllegalStateException("CellStorage not filled yet. Was calcCellNodesMap run?");
+        long nodePointer = cellIdToNodesPointerMap.get(cellId);
+        int count = 0;
+        while (cells.getInt(nodePointer) != -1) {
+            count++;
+            nodePointer = nodePointer + (long) byteCount;
+        }
+        return count;
+    }
+
     /**
      * Sets cell contour order.
      *
@@ -176,6 +217,7 @@ public class CellStorage implements Storable<CellStorage> {
         if (latitudes.size() != longitudes.size())
             throw new IllegalStateException("lat and lon must be same size");
         cellIdToContourPointerMap.put(cellId, cellContourPointer);
+        contourCache.remove(cellId);
         cells.ensureCapacity(cellContourPointer + (long) 8 * (latitudes.size() + 1));
         for (int i = 0; i < latitudes.size(); i++) {
             cells.setInt(cellContourPointer, Helper.degreeToInt(latitudes.get(i)));
@@ -216,6 +258,41 @@ public class CellStorage implements Storable<CellStorage> {
         return order;
     }
 
+    /**
+     * Get the contour of a cell as packed coordinates (lat0, lon0, lat1, lon1, ...). The contour is decoded once and
+     * then kept in memory, so the returned array is shared and must not be modified.
+     *
+     * @param cellId the cell id
+     * @return the coordinates
+     */
+    public double[] getCellContour(int cellId) {
+        double[] contour = contourCache.get(cellId);
+        if (contour == null) {
+            contour = decodeCellContour(cellId);
+            contourCache.put(cellId, contour);
+        }
+        return contour;
+    }
+
+    private double[] decodeCellContour(int cellId) {
+        if (cellIdToContourPointerMap.isEmpty())
+            throw new IllegalStateException("Cell contours not stored yet.");
+        long startPointer = cellIdToContourPointerMap.get(cellId);
+        long nodePointer = startPointer;
+        int size = 0;
+        while (cells.getInt(nodePointer + byteCount) != Integer.MAX_VALUE) {
+            size += 2;
+            nodePointer = nodePointer + 2L * byteCount;
+        }
+        double[] contour = new double[size];
+        nodePointer = startPointer;
+        for (int i = 0; i < size; i++) {
+            contour[i] = Helper.intToDegree(cells.getInt(nodePointer));
+            nodePointer = nodePointer + (long) byteCount;
+        }
+        return contour;
+    }
+
     /**
      * Get cells of super cell int hash set.
      *
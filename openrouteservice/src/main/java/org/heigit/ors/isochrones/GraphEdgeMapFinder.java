@@ -45,11 +45,8 @@ public class GraphEdgeMapFinder {
 	    FlagEncoder encoder = searchCntx.getEncoder();
 		GraphHopperStorage graph = gh.getGraphHopperStorage();
 
-		ORSEdgeFilterFactory edgeFilterFactory = new ORSEdgeFilterFactory();
-		EdgeFilter edgeFilter = edgeFilterFactory.createEdgeFilter(searchCntx.getProperties(), encoder, graph);
-		
-		Coordinate loc = parameters.getLocation();
-		QueryResult res = gh.getLocationIndex().findClosest(loc.y, loc.x, edgeFilter);
+		EdgeFilter edgeFilter = createEdgeFilter(searchCntx);
+		QueryResult res = findClosest(searchCntx, parameters.getLocation(), edgeFilter);
 		List<QueryResult> queryResults = new ArrayList<>(1);
 		queryResults.add(res);
 		QueryGraph queryGraph = new QueryGraph(graph);
@@ -73,4 +70,20 @@ public class GraphEdgeMapFinder {
 		IntObjectMap<SPTEntry> edgeMap = dijkstraAlg.getMap();
        return new AccessibilityMap(edgeMap, dijkstraAlg.getCurrentEdge(), snappedPosition);
 	}
+
+	/**
+	 * Snaps the origin of an isochrone the way {@link #findEdgeMap} does.
+	 */
+	public static QueryResult findClosest(RouteSearchContext searchCntx, Coordinate loc) {
+		return findClosest(searchCntx, loc, createEdgeFilter(searchCntx));
+	}
+
+	private static QueryResult findClosest(RouteSearchContext searchCntx, Coordinate loc, EdgeFilter edgeFilter) {
+		return searchCntx.getGraphHopper().getLocationIndex().findClosest(loc.y, loc.x, edgeFilter);
+	}
+
+	private static EdgeFilter createEdgeFilter(RouteSearchContext searchCntx) {
+		ORSEdgeFilterFactory edgeFilterFactory = new ORSEdgeFilterFactory();
+		return edgeFilterFactory.createEdgeFilter(searchCntx.getProperties(), searchCntx.getEncoder(), searchCntx.getGraphHopper().getGraphHopperStorage());
+	}
 }
@@ -40,6 +40,13 @@ public class Isochrone {
         this.meanRadius = meanRadius;
     }
 
+    /**
+     * @return an isochrone with the same geometry, but without the area and attributes calculated for a request
+     */
+    public Isochrone copy() {
+        return new Isochrone(geometry, value, meanRadius);
+    }
+
     public Geometry getGeometry() {
         return geometry;
     }
@@ -0,0 +1,166 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones;
+
+import com.graphhopper.storage.index.QueryResult;
+import org.heigit.ors.routing.RouteSearchParameters;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the isochrones of recently requested origins, so that isochrones which are requested again and again
+ * for the same stops do not have to be searched and built anew.
+ *
+ * The isochrones are cached by the snapping of their origin together with all parameters they depend on. Route
+ * parameters which cannot be compared between requests, such as avoid polygons or profile parameters, bypass the
+ * cache. Entries are evicted once the cache is full (least recently used first) or they have expired. The cache
+ * belongs to the graph of a routing profile and is cleared when that is replaced by an update.
+ */
+public class IsochroneCache {
+    private final long timeToLive;
+    private final Map<Key, Entry> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity   the maximum number of cached isochrone maps
+     * @param timeToLive the time in milliseconds after which an entry expires or 0 if entries do not expire
+     */
+    public IsochroneCache(final int capacity, long timeToLive) {
+        this.timeToLive = timeToLive;
+        this.cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return a key for the isochrones around the snapped origin or null if the parameters cannot be compared
+     */
+    public static Object createKey(QueryResult snappedOrigin, IsochroneSearchParameters parameters, String graphDate) {
+        RouteSearchParameters routeParameters = parameters.getRouteParameters();
+        if (routeParameters.hasAvoidAreas() || routeParameters.getProfileParameters() != null || !snappedOrigin.isValid())
+            return null;
+
+        return new Key(snappedOrigin.getClosestNode(), snappedOrigin.getClosestEdge().getEdge(), snappedOrigin.getWayIndex(),
+                snappedOrigin.getSnappedPosition(), snappedOrigin.getSnappedPoint().lat, snappedOrigin.getSnappedPoint().lon,
+                parameters.getReverseDirection(), parameters.getRangeType(), parameters.getRanges(), parameters.getSmoothingFactor(),
+                parameters.getCalcMethod(), routeParameters.getProfileType(), routeParameters.getWeightingMethod(),
+                routeParameters.getConsiderTurnRestrictions(), routeParameters.getAvoidFeatureTypes(), routeParameters.getVehicleType(),
+                routeParameters.getAvoidCountries(), routeParameters.getAvoidBorders(), routeParameters.hasMaximumSpeed(),
+                routeParameters.getMaximumSpeed(), routeParameters.getDeparture(), routeParameters.getArrival(), graphDate);
+    }
+
+    /**
+     * @return a copy of the cached isochrones for the given request or null if they are not cached
+     */
+    public IsochroneMap get(Object key, int travellerId) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry != null && entry.isExpired(timeToLive)) {
+                cache.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.isochroneMap, travellerId);
+    }
+
+    public void put(Object key, IsochroneMap isochroneMap) {
+        // the isochrones of the result are modified by adding statistics, so the cache keeps its own copies
+        Entry entry = new Entry(copy(isochroneMap, isochroneMap.getTravellerId()));
+        synchronized (cache) {
+            cache.put((Key) key, entry);
+        }
+    }
+
+    private static IsochroneMap copy(IsochroneMap isochroneMap, int travellerId) {
+        IsochroneMap result = new IsochroneMap(travellerId, isochroneMap.getCenter());
+        result.setGraphDate(isochroneMap.getGraphDate());
+        for (Isochrone isochrone : isochroneMap.getIsochrones())
+            result.addIsochrone(isochrone.copy());
+        return result;
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static final class Key {
+        private final Object[] values;
+
+        Key(Object... values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            return Arrays.deepEquals(values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(values);
+        }
+    }
+
+    private static final class Entry {
+        private final IsochroneMap isochroneMap;
+        private final long created = System.currentTimeMillis();
+
+        Entry(IsochroneMap isochroneMap) {
+            this.isochroneMap = isochroneMap;
+        }
+
+        boolean isExpired(long timeToLive) {
+            return timeToLive > 0 && System.currentTimeMillis() - created > timeToLive;
+        }
+    }
+}
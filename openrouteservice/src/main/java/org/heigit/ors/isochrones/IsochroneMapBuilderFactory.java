@@ -23,17 +23,38 @@ import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
 
 public class IsochroneMapBuilderFactory {
     private RouteSearchContext searchContext;
+    private IsochroneCache isochroneCache;
 
     public IsochroneMapBuilderFactory(RouteSearchContext searchContext) {
         this.searchContext = searchContext;
     }
 
+    public IsochroneMapBuilderFactory(RouteSearchContext searchContext, IsochroneCache isochroneCache) {
+        this(searchContext);
+        this.isochroneCache = isochroneCache;
+    }
+
 
     public IsochroneMap buildMap(IsochroneSearchParameters parameters) throws Exception {
         IsochroneMapBuilder isochroneBuilder = createIsochroneMapBuilder(parameters);
 
+        // only the concave balls builder snaps the origin the way the cache does
+        Object cacheKey = null;
+        if (isochroneCache != null && isochroneBuilder instanceof ConcaveBallsIsochroneMapBuilder) {
+            String graphDate = searchContext.getGraphHopper().getGraphHopperStorage().getProperties().get("datareader.import.date");
+            cacheKey = IsochroneCache.createKey(GraphEdgeMapFinder.findClosest(searchContext, parameters.getLocation()), parameters, graphDate);
+            if (cacheKey != null) {
+                IsochroneMap isochroneMap = isochroneCache.get(cacheKey, parameters.getTravellerId());
+                if (isochroneMap != null)
+                    return isochroneMap;
+            }
+        }
+
         isochroneBuilder.initialize(searchContext);
-        return isochroneBuilder.compute(parameters);
+        IsochroneMap isochroneMap = isochroneBuilder.compute(parameters);
+        if (cacheKey != null)
+            isochroneCache.put(cacheKey, isochroneMap);
+        return isochroneMap;
     }
     
     private IsochroneMapBuilder createIsochroneMapBuilder(IsochroneSearchParameters parameters) throws IllegalArgumentException{
@@ -37,7 +37,6 @@ import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FootFlagEncode
 import org.heigit.ors.util.DebugUtility;
 import org.heigit.ors.util.GeomUtility;
 import org.apache.log4j.Logger;
-import org.opensphere.geometry.algorithm.ConcaveHull;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +50,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 	private double visitorThreshold = 0.0013;
 	private Envelope searchEnv = new Envelope();
 	private GeometryFactory geometryFactory;
+	private ConcaveHullBuilder concaveHullBuilder;
 	private PointItemVisitor visitor = null;
 	private List<Coordinate> prevIsoPoints = null;
     private TreeSet<Coordinate> treeSet;
@@ -60,6 +60,8 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 
 	public void initialize(RouteSearchContext searchContext) {
 		geometryFactory = new GeometryFactory();
+		// shared by all ranges of the request, so that its buffers are only allocated once
+		concaveHullBuilder = new ConcaveHullBuilder(geometryFactory);
 		this.searchContext = searchContext;
 	}
 
@@ -132,6 +134,9 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 			LOGGER.debug("Mark dead ends: " + sw.getSeconds());
 		}
 
+		// sorted once, so that every range only visits the edges of its own cost band
+		EdgeCostIndex costIndex = new EdgeCostIndex(edgeMap.getMap());
+
 		int nRanges = parameters.getRanges().length;
 
 		double metersPerSecond = maxSpeed / 3.6;
@@ -165,11 +170,11 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 				isochronesDifference = metersPerSecond * isochronesDifference;
 			}
 
-			GeometryCollection points = buildIsochrone(edgeMap, isoPoints, loc.x, loc.y, isoValue, prevCost, isochronesDifference, 0.85);
+			List<Coordinate> points = buildIsochrone(edgeMap, costIndex, isoPoints, loc.x, loc.y, isoValue, prevCost, isochronesDifference, 0.85);
 
 			if (DebugUtility.isDebug()) {
 				sw.stop();
-				LOGGER.debug(i + " Find points: " + sw.getSeconds() + " " + points.getNumGeometries());
+				LOGGER.debug(i + " Find points: " + sw.getSeconds() + " " + points.size());
 
 				sw = new StopWatch();
 				sw.start();
@@ -220,12 +225,11 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		return maxLength;
 	}
 
-	private void addIsochrone(IsochroneMap isochroneMap, GeometryCollection points, double isoValue, double maxRadius, double meanRadius, float smoothingFactor) {
+	private void addIsochrone(IsochroneMap isochroneMap, List<Coordinate> points, double isoValue, double maxRadius, double meanRadius, float smoothingFactor) {
 		if (points.isEmpty())
 			return;
 
-		ConcaveHull ch = new ConcaveHull(points, convertSmoothingFactorToDistance(smoothingFactor, maxRadius), false);
-		Geometry geom = ch.getConcaveHull();
+		Geometry geom = concaveHullBuilder.build(points, convertSmoothingFactorToDistance(smoothingFactor, maxRadius));
 
 		if (geom instanceof GeometryCollection) {
 			GeometryCollection geomColl = (GeometryCollection)geom;
@@ -319,7 +323,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		} 
 	}
 
-	private GeometryCollection buildIsochrone(AccessibilityMap edgeMap, List<Coordinate> points, double lon, double lat,
+	private List<Coordinate> buildIsochrone(AccessibilityMap edgeMap, EdgeCostIndex costIndex, List<Coordinate> points, double lon, double lat,
 			double isolineCost, double prevCost, double isochronesDifference, double detailedGeomFactor) {
 		IntObjectMap<SPTEntry> map = edgeMap.getMap();
 
@@ -361,8 +365,12 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 		int nodeId;
 		int edgeId;
 
-		for (IntObjectCursor<SPTEntry> entry : map) {
-			SPTEntry goalEdge = entry.value;
+		// edges of previous ranges are only needed when these are close to each other, see below
+		int[] candidates = costIndex.getCandidates();
+		int numCandidates = costIndex.findEdges(isochronesDifference > 1000 ? prevCost : Double.NEGATIVE_INFINITY, isolineCost);
+
+		for (int k = 0; k < numCandidates; k++) {
+			SPTEntry goalEdge = costIndex.getEntry(candidates[k]);
 			edgeId = goalEdge.originalEdge;
 			nodeId = goalEdge.adjNode;
 
@@ -479,15 +487,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
 			}
 		}
 
-		
-		Geometry[] geometries = new Geometry[points.size()];
-
-		for (int i = 0;i < points.size();++i) {
-			Coordinate c = points.get(i);
-			geometries[i] = geometryFactory.createPoint(c);
-		}
-
-		return new GeometryCollection(geometries, geometryFactory);
+		return points;
 	}
 
 	private void copyConvexHullPoints(Polygon poly) {
@@ -0,0 +1,624 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.opensphere.geometry.algorithm.ConcaveHull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the same concave hull as {@link ConcaveHull} (the algorithm of Duckham et al.), but on primitive arrays
+ * instead of maps of edge, triangle and vertex objects.
+ *
+ * The Delaunay triangulation is stored as half-edges: half-edge {@code e} belongs to triangle {@code e / 3}, starts
+ * at vertex {@code triangles[e]} and its opposite half-edge is {@code halfedges[e]} ({@code -1} on the convex hull).
+ * The triangulation follows the sweep-hull algorithm of Delaunator (https://github.com/mapbox/delaunator). The border
+ * edges longer than the threshold are kept in a binary max-heap, so that the longest one is removed first.
+ *
+ * All arrays are kept between the calls of {@link #build(List, double)}, so an instance should be reused for all
+ * ranges of a request. An instance is not thread safe.
+ */
+public class ConcaveHullBuilder {
+    private static final double EPSILON = Math.pow(2, -52);
+
+    private final GeometryFactory geometryFactory;
+    private final int[] edgeStack = new int[512];
+
+    // input points
+    private double[] coords = new double[0];
+    private int numPoints;
+
+    // triangulation
+    private int[] triangles = new int[0];
+    private int[] halfedges = new int[0];
+    private int trianglesLen;
+
+    // sweep hull of the triangulation
+    private int[] hullPrev = new int[0];
+    private int[] hullNext = new int[0];
+    private int[] hullTri = new int[0];
+    private int[] hullHash = new int[0];
+    private int hashSize;
+    private int hullStart;
+    private int[] ids = new int[0];
+    private double[] dists = new double[0];
+    private double centerX;
+    private double centerY;
+
+    // concave hull
+    private boolean[] removedTriangles = new boolean[0];
+    private boolean[] borderVertices = new boolean[0];
+    private int[] heap = new int[0];
+    private double[] heapLengths = new double[0];
+    private int heapSize;
+    private int[] nextBorderVertex = new int[0];
+
+    public ConcaveHullBuilder(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * @param points    the points to enclose, duplicates are ignored
+     * @param threshold the length (in coordinate units) below which border edges are not removed anymore
+     * @return the concave hull, which is a {@link com.vividsolutions.jts.geom.Polygon} for at least three points which
+     *         are not collinear
+     */
+    public Geometry build(List<Coordinate> points, double threshold) {
+        if (points.size() < 3)
+            return buildConvexHull(points);
+
+        init(points);
+        triangulate();
+        if (trianglesLen == 0)
+            return buildConvexHull(points);
+
+        removeLongBorderEdges(threshold);
+        Coordinate[] ring = traceBorder();
+        if (ring == null)
+            return buildConvexHull(points);
+        return geometryFactory.createPolygon(geometryFactory.createLinearRing(ring), null);
+    }
+
+    /**
+     * Points which cannot be triangulated are enclosed by their convex hull, which is a point or a line.
+     */
+    private Geometry buildConvexHull(List<Coordinate> points) {
+        return geometryFactory.createMultiPoint(points.toArray(new Coordinate[0])).convexHull();
+    }
+
+    private void init(List<Coordinate> points) {
+        numPoints = points.size();
+        if (coords.length < numPoints * 2)
+            coords = new double[numPoints * 2];
+        for (int i = 0; i < numPoints; i++) {
+            Coordinate c = points.get(i);
+            coords[2 * i] = c.x;
+            coords[2 * i + 1] = c.y;
+        }
+
+        int maxHalfedges = Math.max(2 * numPoints - 5, 0) * 3;
+        if (triangles.length < maxHalfedges) {
+            triangles = new int[maxHalfedges];
+            halfedges = new int[maxHalfedges];
+            heap = new int[maxHalfedges];
+            heapLengths = new double[maxHalfedges];
+            removedTriangles = new boolean[maxHalfedges / 3];
+        }
+        if (hullPrev.length < numPoints) {
+            hullPrev = new int[numPoints];
+            hullNext = new int[numPoints];
+            hullTri = new int[numPoints];
+            ids = new int[numPoints];
+            dists = new double[numPoints];
+            borderVertices = new boolean[numPoints];
+            nextBorderVertex = new int[numPoints];
+        }
+        hashSize = (int) Math.ceil(Math.sqrt(numPoints));
+        if (hullHash.length < hashSize)
+            hullHash = new int[hashSize];
+    }
+
+    private void triangulate() {
+        trianglesLen = 0;
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numPoints; i++) {
+            double x = coords[2 * i];
+            double y = coords[2 * i + 1];
+            if (x < minX) minX = x;
+            if (y < minY) minY = y;
+            if (x > maxX) maxX = x;
+            if (y > maxY) maxY = y;
+            ids[i] = i;
+        }
+        double cx = (minX + maxX) / 2;
+        double cy = (minY + maxY) / 2;
+
+        // seed point close to the center
+        int i0 = 0;
+        double minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numPoints; i++) {
+            double d = dist(cx, cy, coords[2 * i], coords[2 * i + 1]);
+            if (d < minDist) {
+                i0 = i;
+                minDist = d;
+            }
+        }
+        double i0x = coords[2 * i0];
+        double i0y = coords[2 * i0 + 1];
+
+        // point closest to the seed
+        int i1 = -1;
+        minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numPoints; i++) {
+            if (i == i0)
+                continue;
+            double d = dist(i0x, i0y, coords[2 * i], coords[2 * i + 1]);
+            if (d < minDist && d > 0) {
+                i1 = i;
+                minDist = d;
+            }
+        }
+        if (i1 == -1)
+            return;
+        double i1x = coords[2 * i1];
+        double i1y = coords[2 * i1 + 1];
+
+        // third point which forms the smallest circumcircle with the first two
+        int i2 = -1;
+        double minRadius = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numPoints; i++) {
+            if (i == i0 || i == i1)
+                continue;
+            double r = circumradius(i0x, i0y, i1x, i1y, coords[2 * i], coords[2 * i + 1]);
+            if (r < minRadius) {
+                i2 = i;
+                minRadius = r;
+            }
+        }
+        // all points are collinear
+        if (i2 == -1)
+            return;
+        double i2x = coords[2 * i2];
+        double i2y = coords[2 * i2 + 1];
+
+        if (orient(i0x, i0y, i1x, i1y, i2x, i2y)) {
+            int i = i1;
+            double x = i1x;
+            double y = i1y;
+            i1 = i2;
+            i1x = i2x;
+            i1y = i2y;
+            i2 = i;
+            i2x = x;
+            i2y = y;
+        }
+
+        circumcenter(i0x, i0y, i1x, i1y, i2x, i2y);
+        for (int i = 0; i < numPoints; i++)
+            dists[i] = dist(coords[2 * i], coords[2 * i + 1], centerX, centerY);
+        quicksort(0, numPoints - 1);
+
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        Arrays.fill(hullHash, 0, hashSize, -1);
+        hullHash[hashKey(i0x, i0y)] = i0;
+        hullHash[hashKey(i1x, i1y)] = i1;
+        hullHash[hashKey(i2x, i2y)] = i2;
+
+        addTriangle(i0, i1, i2, -1, -1, -1);
+
+        double xp = 0;
+        double yp = 0;
+        for (int k = 0; k < numPoints; k++) {
+            int i = ids[k];
+            double x = coords[2 * i];
+            double y = coords[2 * i + 1];
+
+            // skip (near) duplicates and the seed points
+            if (k > 0 && Math.abs(x - xp) <= EPSILON && Math.abs(y - yp) <= EPSILON)
+                continue;
+            xp = x;
+            yp = y;
+            if (i == i0 || i == i1 || i == i2)
+                continue;
+
+            // find a visible edge on the convex hull using the edge hash
+            int start = 0;
+            for (int j = 0, key = hashKey(x, y); j < hashSize; j++) {
+                start = hullHash[(key + j) % hashSize];
+                if (start != -1 && start != hullNext[start])
+                    break;
+            }
+            start = hullPrev[start];
+            int e = start;
+            int q = hullNext[e];
+            while (!orient(x, y, coords[2 * e], coords[2 * e + 1], coords[2 * q], coords[2 * q + 1])) {
+                e = q;
+                if (e == start) {
+                    e = -1;
+                    break;
+                }
+                q = hullNext[e];
+            }
+            // likely a near-duplicate point
+            if (e == -1)
+                continue;
+
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t;
+
+            // walk forward through the hull, adding more triangles
+            int n = hullNext[e];
+            q = hullNext[n];
+            while (orient(x, y, coords[2 * n], coords[2 * n + 1], coords[2 * q], coords[2 * q + 1])) {
+                t = addTriangle(n, i, q, hullTri[i], -1, hullTri[n]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[n] = n;
+                n = q;
+                q = hullNext[n];
+            }
+
+            // walk backward from the other side
+            if (e == start) {
+                q = hullPrev[e];
+                while (orient(x, y, coords[2 * q], coords[2 * q + 1], coords[2 * e], coords[2 * e + 1])) {
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e;
+                    e = q;
+                    q = hullPrev[e];
+                }
+            }
+
+            hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[n] = i;
+            hullNext[i] = n;
+
+            hullHash[hashKey(x, y)] = i;
+            hullHash[hashKey(coords[2 * e], coords[2 * e + 1])] = e;
+        }
+    }
+
+    /**
+     * Flips the triangles around half-edge {@code a} until they satisfy the Delaunay condition.
+     */
+    private int legalize(int a) {
+        int i = 0;
+        int ar;
+
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+
+            if (b == -1) {
+                if (i == 0)
+                    break;
+                a = edgeStack[--i];
+                continue;
+            }
+
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+
+            int p0 = triangles[ar];
+            int pr = triangles[a];
+            int pl = triangles[al];
+            int p1 = triangles[bl];
+
+            boolean illegal = inCircle(coords[2 * p0], coords[2 * p0 + 1], coords[2 * pr], coords[2 * pr + 1],
+                    coords[2 * pl], coords[2 * pl + 1], coords[2 * p1], coords[2 * p1 + 1]);
+
+            if (illegal) {
+                triangles[a] = p1;
+                triangles[b] = p0;
+
+                int hbl = halfedges[bl];
+                // edge swapped on the other side of the hull, fix the half-edge reference
+                if (hbl == -1) {
+                    int e = hullStart;
+                    do {
+                        if (hullTri[e] == bl) {
+                            hullTri[e] = a;
+                            break;
+                        }
+                        e = hullPrev[e];
+                    } while (e != hullStart);
+                }
+                link(a, hbl);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                int br = b0 + (b + 1) % 3;
+                // the stack can only overflow on extremely degenerate input
+                if (i < edgeStack.length)
+                    edgeStack[i++] = br;
+            } else {
+                if (i == 0)
+                    break;
+                a = edgeStack[--i];
+            }
+        }
+        return ar;
+    }
+
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if (b != -1)
+            halfedges[b] = a;
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLen;
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLen += 3;
+        return t;
+    }
+
+    /**
+     * Removes the triangles of the longest border edges as long as these are longer than the threshold, the polygon
+     * stays simple and no triangle gets disconnected.
+     */
+    private void removeLongBorderEdges(double threshold) {
+        Arrays.fill(removedTriangles, 0, trianglesLen / 3, false);
+        Arrays.fill(borderVertices, 0, numPoints, false);
+        heapSize = 0;
+
+        for (int e = 0; e < trianglesLen; e++) {
+            if (halfedges[e] == -1) {
+                borderVertices[triangles[e]] = true;
+                addBorderEdge(e, threshold);
+            }
+        }
+
+        while (heapSize > 0) {
+            int e = pollLongestEdge();
+            int t0 = e - e % 3;
+            int e1 = t0 + (e + 1) % 3;
+            int e2 = t0 + (e + 2) % 3;
+            int n1 = halfedges[e1];
+            int n2 = halfedges[e2];
+
+            // a triangle with a single neighbour would be disconnected from the rest
+            if (n1 == -1 || n2 == -1 || removedTriangles[n1 / 3] || removedTriangles[n2 / 3])
+                continue;
+            // a triangle whose vertices are all on the border would make the polygon non-simple
+            int opposite = triangles[e2];
+            if (borderVertices[opposite])
+                continue;
+
+            removedTriangles[e / 3] = true;
+            borderVertices[opposite] = true;
+            addBorderEdge(n1, threshold);
+            addBorderEdge(n2, threshold);
+        }
+    }
+
+    private void addBorderEdge(int e, double threshold) {
+        double length = edgeLength(e);
+        if (length <= threshold)
+            return;
+
+        // sift up
+        int pos = heapSize++;
+        while (pos > 0) {
+            int parent = (pos - 1) >> 1;
+            if (heapLengths[parent] >= length)
+                break;
+            heap[pos] = heap[parent];
+            heapLengths[pos] = heapLengths[parent];
+            pos = parent;
+        }
+        heap[pos] = e;
+        heapLengths[pos] = length;
+    }
+
+    private int pollLongestEdge() {
+        int longest = heap[0];
+        int e = heap[--heapSize];
+        double length = heapLengths[heapSize];
+
+        // sift down
+        int pos = 0;
+        int half = heapSize >> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < heapSize && heapLengths[child + 1] > heapLengths[child])
+                child++;
+            if (length >= heapLengths[child])
+                break;
+            heap[pos] = heap[child];
+            heapLengths[pos] = heapLengths[child];
+            pos = child;
+        }
+        heap[pos] = e;
+        heapLengths[pos] = length;
+        return longest;
+    }
+
+    private double edgeLength(int e) {
+        int p = triangles[e];
+        int q = triangles[e - e % 3 + (e + 1) % 3];
+        return Math.sqrt(dist(coords[2 * p], coords[2 * p + 1], coords[2 * q], coords[2 * q + 1]));
+    }
+
+    /**
+     * @return the closed counter-clockwise ring of the border edges or null if these do not form a single ring
+     */
+    private Coordinate[] traceBorder() {
+        Arrays.fill(nextBorderVertex, 0, numPoints, -1);
+        int numBorderEdges = 0;
+        int start = -1;
+        for (int e = 0; e < trianglesLen; e++) {
+            if (removedTriangles[e / 3])
+                continue;
+            int twin = halfedges[e];
+            if (twin == -1 || removedTriangles[twin / 3]) {
+                start = triangles[e];
+                nextBorderVertex[start] = triangles[e - e % 3 + (e + 1) % 3];
+                numBorderEdges++;
+            }
+        }
+        if (start == -1)
+            return null;
+
+        // the triangles are clockwise, so the border is traced backwards
+        Coordinate[] ring = new Coordinate[numBorderEdges + 1];
+        int v = start;
+        for (int i = numBorderEdges; i > 0; i--) {
+            if (v == -1)
+                return null;
+            ring[i] = new Coordinate(coords[2 * v], coords[2 * v + 1]);
+            v = nextBorderVertex[v];
+        }
+        if (v != start)
+            return null;
+        ring[0] = new Coordinate(ring[numBorderEdges]);
+        return ring;
+    }
+
+    private int hashKey(double x, double y) {
+        return (int) Math.floor(pseudoAngle(x - centerX, y - centerY) * hashSize) % hashSize;
+    }
+
+    private static double pseudoAngle(double dx, double dy) {
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        return (dy > 0 ? 3 - p : 1 + p) / 4;
+    }
+
+    private static double dist(double ax, double ay, double bx, double by) {
+        double dx = ax - bx;
+        double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+        return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+    }
+
+    private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+        double dx = ax - px;
+        double dy = ay - py;
+        double ex = bx - px;
+        double ey = by - py;
+        double fx = cx - px;
+        double fy = cy - py;
+
+        double ap = dx * dx + dy * dy;
+        double bp = ex * ex + ey * ey;
+        double cp = fx * fx + fy * fy;
+
+        return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+    }
+
+    private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double ex = cx - ax;
+        double ey = cy - ay;
+
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+
+        double x = (ey * bl - dy * cl) * d;
+        double y = (dx * cl - ex * bl) * d;
+        return x * x + y * y;
+    }
+
+    private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double ex = cx - ax;
+        double ey = cy - ay;
+
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+
+        centerX = ax + (ey * bl - dy * cl) * d;
+        centerY = ay + (dx * cl - ex * bl) * d;
+    }
+
+    /**
+     * Sorts the point ids by their distance to the center of the seed triangle.
+     */
+    private void quicksort(int left, int right) {
+        if (right - left <= 20) {
+            for (int i = left + 1; i <= right; i++) {
+                int temp = ids[i];
+                double tempDist = dists[temp];
+                int j = i - 1;
+                while (j >= left && dists[ids[j]] > tempDist)
+                    ids[j + 1] = ids[j--];
+                ids[j + 1] = temp;
+            }
+        } else {
+            int median = (left + right) >> 1;
+            int i = left + 1;
+            int j = right;
+            swap(median, i);
+            if (dists[ids[left]] > dists[ids[right]]) swap(left, right);
+            if (dists[ids[i]] > dists[ids[right]]) swap(i, right);
+            if (dists[ids[left]] > dists[ids[i]]) swap(left, i);
+
+            int temp = ids[i];
+            double tempDist = dists[temp];
+            while (true) {
+                do i++; while (dists[ids[i]] < tempDist);
+                do j--; while (dists[ids[j]] > tempDist);
+                if (j < i)
+                    break;
+                swap(i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+
+            if (right - i + 1 >= j - left) {
+                quicksort(i, right);
+                quicksort(left, j - 1);
+            } else {
+                quicksort(left, j - 1);
+                quicksort(i, right);
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = ids[i];
+        ids[i] = ids[j];
+        ids[j] = tmp;
+    }
+}
@@ -0,0 +1,159 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.graphhopper.storage.SPTEntry;
+
+import java.util.Arrays;
+
+/**
+ * Orders the edges of an accessibility map once by the costs at their start and at their end, so that every range of
+ * a request only visits the edges of its own cost band instead of scanning the whole map again.
+ *
+ * The edges of a band are returned in the iteration order of the map, which the neighbour checks of the isochrone
+ * points depend on.
+ */
+class EdgeCostIndex {
+    private final SPTEntry[] entries;
+    private final float[] minCosts;
+    private final float[] maxCosts;
+    private final float[] sortedMinCosts;
+    private final int[] byMinCost;
+    private final float[] sortedMaxCosts;
+    private final int[] byMaxCost;
+    private final int[] candidates;
+
+    EdgeCostIndex(IntObjectMap<SPTEntry> map) {
+        SPTEntry[] tmpEntries = new SPTEntry[map.size()];
+        int size = 0;
+        for (IntObjectCursor<SPTEntry> entry : map) {
+            SPTEntry edge = entry.value;
+            if (edge.originalEdge != -1 && edge.parent != null)
+                tmpEntries[size++] = edge;
+        }
+        entries = Arrays.copyOf(tmpEntries, size);
+
+        minCosts = new float[size];
+        maxCosts = new float[size];
+        for (int i = 0; i < size; i++) {
+            minCosts[i] = (float) entries[i].parent.weight;
+            maxCosts[i] = (float) entries[i].weight;
+        }
+
+        sortedMinCosts = new float[size];
+        byMinCost = new int[size];
+        sort(minCosts, sortedMinCosts, byMinCost);
+        sortedMaxCosts = new float[size];
+        byMaxCost = new int[size];
+        sort(maxCosts, sortedMaxCosts, byMaxCost);
+
+        candidates = new int[size];
+    }
+
+    /**
+     * Sorts the indices of the entries by their cost, with the cost in the upper and the index in the lower half of
+     * a long.
+     */
+    private static void sort(float[] costs, float[] sortedCosts, int[] order) {
+        long[] keys = new long[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            int bits = Float.floatToIntBits(costs[i]);
+            bits ^= (bits >> 31) & 0x7fffffff;
+            keys[i] = ((long) bits << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+            sortedCosts[i] = costs[order[i]];
+        }
+    }
+
+    /**
+     * Collects the edges which start at {@code fromCost} or later and lie completely within a range or cross its
+     * isoline.
+     *
+     * @param fromCost    the cost below which edges are left out as they belong to the previous range, or
+     *                    {@link Double#NEGATIVE_INFINITY} to include these
+     * @param isolineCost the cost of the range
+     * @return the number of edges, whose indices are in the first elements of {@link #getCandidates()}
+     */
+    int findEdges(double fromCost, double isolineCost) {
+        int numCandidates = 0;
+
+        // edges ending within the range
+        int to = upperBound(sortedMaxCosts, isolineCost);
+        for (int i = lowerBound(sortedMaxCosts, fromCost); i < to; i++) {
+            int index = byMaxCost[i];
+            if (minCosts[index] >= fromCost)
+                candidates[numCandidates++] = index;
+        }
+
+        // edges starting within the range and ending outside of it
+        to = lowerBound(sortedMinCosts, isolineCost);
+        for (int i = lowerBound(sortedMinCosts, fromCost); i < to; i++) {
+            int index = byMinCost[i];
+            if (maxCosts[index] > isolineCost)
+                candidates[numCandidates++] = index;
+        }
+
+        Arrays.sort(candidates, 0, numCandidates);
+        return numCandidates;
+    }
+
+    int[] getCandidates() {
+        return candidates;
+    }
+
+    SPTEntry getEntry(int index) {
+        return entries[index];
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return the index of the first cost which is not smaller than the given one
+     */
+    private static int lowerBound(float[] sortedCosts, double cost) {
+        int low = 0;
+        int high = sortedCosts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCosts[mid] < cost)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first cost which is larger than the given one
+     */
+    private static int upperBound(float[] sortedCosts, double cost) {
+        int low = 0;
+        int high = sortedCosts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCosts[mid] <= cost)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
@@ -15,6 +15,7 @@ package org.heigit.ors.isochrones.builders.fast;
 
 import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntCursor;
 import com.carrotsearch.hppc.cursors.IntObjectCursor;
 import com.graphhopper.coll.GHIntObjectHashMap;
 import com.graphhopper.routing.QueryGraph;
@@ -691,7 +692,7 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
         Set<Integer> reachableSuperCells = new HashSet<>();
         for (int cellId : fullyReachableCells) {
             int superCell = cellStorage.getSuperCellOfCell(cellId);
-            if (superCell != -1 && fullyReachableCells.containsAll(cellStorage.getCellsOfSuperCellAsList(superCell)))
+            if (superCell != -1 && containsAllCellsOfSuperCell(fullyReachableCells, superCell))
                 reachableSuperCells.add(superCell);
             else {
                 reachableCellsAndSuperCells.add(cellId);
@@ -699,7 +700,7 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
         }
         for (int cellId : reachableSuperCells) {
             int superCell = cellStorage.getSuperCellOfCell(cellId);
-            if (superCell != -1 && reachableSuperCells.containsAll(cellStorage.getCellsOfSuperCellAsList(superCell))) {
+            if (superCell != -1 && containsAllCellsOfSuperCell(reachableSuperCells, superCell)) {
                 reachableCellsAndSuperCells.add(superCell);
             } else {
                 reachableCellsAndSuperCells.add(cellId);
@@ -708,14 +709,20 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
         return reachableCellsAndSuperCells;
     }
 
+    private boolean containsAllCellsOfSuperCell(Set<Integer> cellIds, int superCell) {
+        for (IntCursor cellId : cellStorage.getCellsOfSuperCell(superCell)) {
+            if (!cellIds.contains(cellId.value))
+                return false;
+        }
+        return true;
+    }
+
     private void addCellPolygon(int cellId, Set<Geometry> isochronePolygons) {
-        List<Double> coordinates = cellStorage.getCellContourOrder(cellId);
-        if (coordinates.size() % 2 != 0)
-            throw new IllegalArgumentException("Coordinate list must contain equal number of lats and lons but has odd numbered size.");
-        Coordinate[] cArray = new Coordinate[coordinates.size() / 2];
-        //Convert list of doubles (lat0,lon0,lat1,lon1,...) to array of coordinates
+        double[] coordinates = cellStorage.getCellContour(cellId);
+        Coordinate[] cArray = new Coordinate[coordinates.length / 2];
+        //Convert packed doubles (lat0,lon0,lat1,lon1,...) to array of coordinates
         for (int n = cArray.length - 1; n >= 0; n--) {
-            cArray[cArray.length - 1 - n] = new Coordinate(coordinates.get(2 * n + 1).floatValue(), coordinates.get(2 * n).floatValue());
+            cArray[cArray.length - 1 - n] = new Coordinate((float) coordinates[2 * n + 1], (float) coordinates[2 * n]);
         }
         Polygon polygon = geomFactory.createPolygon(cArray);
         if (polygon.isValid() && !polygon.isEmpty()) {
@@ -22,10 +22,12 @@ package org.heigit.ors.kafka;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ORSKafkaConsumer {
     private List<ORSKafkaConsumerRunner> runners = new ArrayList<>();
     private static int enabledRunners = 0;
+    private static final List<ORSKafkaConsumerMetrics> runnerMetrics = new CopyOnWriteArrayList<>();
 
     public static int getEnabledRunners() {
         return enabledRunners;
@@ -35,10 +37,18 @@ public class ORSKafkaConsumer {
         return enabledRunners > 0;
     }
 
+    /**
+     * Metrics summed up over all runners.
+     */
+    public static ORSKafkaConsumerMetrics getMetrics() {
+        return ORSKafkaConsumerMetrics.aggregate(runnerMetrics);
+    }
+
     public ORSKafkaConsumer(List<ORSKafkaConsumerConfiguration> configs) {
         for (ORSKafkaConsumerConfiguration c : configs) {
             ORSKafkaConsumerRunner runner = new ORSKafkaConsumerRunner(c);
             runners.add(runner);
+            runnerMetrics.add(runner.getMetrics());
             enabledRunners++;
         }
     }
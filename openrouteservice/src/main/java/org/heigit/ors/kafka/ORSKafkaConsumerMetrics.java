@@ -0,0 +1,158 @@
+/*
+ *  Licensed to GIScience Research Group, Heidelberg University (GIScience)
+ *
+ *   http://giscience.uni-hd.de
+ *   http://heigit.org
+ *
+ *  under one or more contributor license agreements. See the NOTICE file
+ *  distributed with this work for additional information regarding copyright
+ *  ownership. The GIScience licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in compliance
+ *  with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.heigit.ors.kafka;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a Kafka consumer runner. The counters are updated by the runner threads and may be read from any thread,
+ * e.g. to report them in the status endpoint.
+ */
+public class ORSKafkaConsumerMetrics {
+    private final LongAdder received = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long pendingBatches;
+    private volatile double lag;
+    private volatile double throughput;
+    private volatile boolean paused;
+
+    /**
+     * Sum up the metrics of several runners.
+     */
+    public static ORSKafkaConsumerMetrics aggregate(Collection<ORSKafkaConsumerMetrics> metrics) {
+        ORSKafkaConsumerMetrics result = new ORSKafkaConsumerMetrics();
+        for (ORSKafkaConsumerMetrics m : metrics) {
+            result.received.add(m.getReceived());
+            result.processed.add(m.getProcessed());
+            result.failed.add(m.getFailed());
+            result.coalesced.add(m.getCoalesced());
+            result.batches.add(m.getBatches());
+            result.pendingBatches += m.pendingBatches;
+            result.lag += m.lag;
+            result.throughput += m.throughput;
+            result.paused |= m.paused;
+        }
+        return result;
+    }
+
+    void addReceived(long count) {
+        received.add(count);
+    }
+
+    void addProcessed(long count) {
+        processed.add(count);
+    }
+
+    void addFailed(long count) {
+        failed.add(count);
+    }
+
+    void addCoalesced(long count) {
+        coalesced.add(count);
+    }
+
+    void addBatch() {
+        batches.increment();
+    }
+
+    void setPendingBatches(long pendingBatches) {
+        this.pendingBatches = pendingBatches;
+    }
+
+    void setLag(double lag) {
+        this.lag = lag;
+    }
+
+    void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Number of records received from the cluster.
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * Number of updates which have been applied.
+     */
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    /**
+     * Number of records which could not be decoded or applied.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Number of records which were superseded by a later update of the same edge within their batch.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of applied batches.
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Number of batches which have been decoded but not yet applied.
+     */
+    public long getPendingBatches() {
+        return pendingBatches;
+    }
+
+    /**
+     * Maximum lag in records of the assigned partitions, as reported by the consumer.
+     */
+    public double getLag() {
+        return lag;
+    }
+
+    /**
+     * Records consumed per second, as reported by the consumer.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Whether the consumption is paused because the apply stage falls behind.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+}
@@ -20,7 +20,14 @@
  */
 package org.heigit.ors.kafka;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.LongDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.log4j.Logger;
@@ -28,45 +35,264 @@ import org.heigit.ors.routing.RoutingProfileManager;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Collections;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Consumes speed updates of one topic and passes them to a {@link ORSKafkaUpdateHandler} in batches.
+ *
+ * Every poll batch is decoded in parallel and updates of the same edge and direction are coalesced, so that only the
+ * latest one is applied. The batches are applied one after another on a separate thread, while the consumer thread
+ * keeps polling. If more than {@link #MAX_PENDING_BATCHES} batches wait to be applied, the assigned partitions are
+ * paused until the apply stage has caught up. Offsets are only committed once their batch has been applied.
+ */
 public class ORSKafkaConsumerRunner implements Runnable {
-    private boolean active;
+    private volatile boolean active;
     private final String profile;
     private final Consumer<Long, String> consumer;
+    private final ORSKafkaUpdateHandler handler;
+    private final ORSKafkaConsumerMetrics metrics = new ORSKafkaConsumerMetrics();
     private final long pollTimeout;
+    private final ExecutorService applyExecutor;
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    private final Map<TopicPartition, OffsetAndMetadata> appliedOffsets = new HashMap<>();
+    private boolean paused;
+    private long lastMetricsUpdate;
     private static final long POLL_TIMEOUT_DEFAULT = 1000;
+    static final int MAX_PENDING_BATCHES = 4;
+    private static final int RESUME_PENDING_BATCHES = 1;
+    private static final int MIN_RECORDS_PER_DECODE_TASK = 256;
+    private static final long METRICS_UPDATE_INTERVAL = 1000;
+    private static final ObjectReader READER = new ObjectMapper().readerFor(ORSKafkaConsumerMessageSpeedUpdate.class);
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreadFactory("ORS-Kafka-Decode"));
     private static final Logger LOGGER = Logger.getLogger(ORSKafkaConsumerRunner.class);
 
     public ORSKafkaConsumerRunner(ORSKafkaConsumerConfiguration config) {
-        Properties props = new Properties();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getCluster());
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "ORSKafkaConsumer");
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class.getName());
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        consumer = new KafkaConsumer<>(props);
+        this(config, RoutingProfileManager.getInstance()::updateProfile, new Properties());
+    }
+
+    ORSKafkaConsumerRunner(ORSKafkaConsumerConfiguration config, ORSKafkaUpdateHandler handler, Properties overrides) {
+        this(config, handler, createConsumer(config, overrides));
+    }
+
+    ORSKafkaConsumerRunner(ORSKafkaConsumerConfiguration config, ORSKafkaUpdateHandler handler, Consumer<Long, String> consumer) {
+        this.consumer = consumer;
         consumer.subscribe(Collections.singletonList(config.getTopic()));
         this.profile = config.getProfile();
+        this.handler = handler;
         this.pollTimeout = config.hasTimeout() ? config.getTimeout() : POLL_TIMEOUT_DEFAULT;
+        this.applyExecutor = Executors.newSingleThreadExecutor(daemonThreadFactory("ORS-Kafka-Apply-" + profile));
         this.active = true;
         LOGGER.debug(String.format("Created Kafka consumer thread listening to %s (%s), passing to %s", config.getCluster(), config.getTopic(), config.getProfile()));
     }
 
-    private void updateProfile(ConsumerRecord<Long, String> consumerRecord) {
-         RoutingProfileManager.getInstance().updateProfile(profile, consumerRecord.value());
+    private static Consumer<Long, String> createConsumer(ORSKafkaConsumerConfiguration config, Properties overrides) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getCluster());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "ORSKafkaConsumer");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        // offsets are committed once the updates have been applied
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.putAll(overrides);
+        return new KafkaConsumer<>(props);
+    }
+
+    public ORSKafkaConsumerMetrics getMetrics() {
+        return metrics;
     }
 
     public void run() {
-        while (active) {
-            final ConsumerRecords<Long, String> consumerRecords = consumer.poll(Duration.ofMillis(pollTimeout));
-            consumerRecords.forEach(this::updateProfile);
-            consumer.commitAsync();
+        try {
+            while (active) {
+                final ConsumerRecords<Long, String> consumerRecords = consumer.poll(Duration.ofMillis(pollTimeout));
+                if (!consumerRecords.isEmpty())
+                    submitBatch(consumerRecords);
+                updateFlowControl();
+                commitAppliedOffsets(false);
+                updateConsumerMetrics();
+            }
+            applyExecutor.shutdown();
+            if (!applyExecutor.awaitTermination(pollTimeout, TimeUnit.MILLISECONDS))
+                LOGGER.warn("Kafka consumer stopped before all updates could be applied");
+            commitAppliedOffsets(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.error(e);
+        } finally {
+            applyExecutor.shutdownNow();
+            consumer.close();
         }
-        consumer.close();
     }
 
     public void stop() {
         active = false;
     }
+
+    private void submitBatch(ConsumerRecords<Long, String> consumerRecords) throws InterruptedException {
+        List<ConsumerRecord<Long, String>> records = new ArrayList<>(consumerRecords.count());
+        consumerRecords.forEach(records::add);
+        metrics.addReceived(records.size());
+
+        ORSKafkaConsumerMessageSpeedUpdate[] messages = decode(records);
+        Collection<ORSKafkaConsumerMessageSpeedUpdate> updates = coalesce(messages);
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : consumerRecords.partitions()) {
+            List<ConsumerRecord<Long, String>> partitionRecords = consumerRecords.records(partition);
+            offsets.put(partition, new OffsetAndMetadata(partitionRecords.get(partitionRecords.size() - 1).offset() + 1));
+        }
+
+        pendingBatches.incrementAndGet();
+        applyExecutor.execute(() -> {
+            try {
+                int failed = handler.updateProfile(profile, updates);
+                metrics.addProcessed((long) updates.size() - failed);
+                metrics.addFailed(failed);
+            } catch (Exception e) {
+                LOGGER.error(e);
+                metrics.addFailed(updates.size());
+            } finally {
+                metrics.addBatch();
+                synchronized (appliedOffsets) {
+                    appliedOffsets.putAll(offsets);
+                }
+                pendingBatches.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Decode the records in parallel, records which cannot be decoded are left null.
+     */
+    private ORSKafkaConsumerMessageSpeedUpdate[] decode(List<ConsumerRecord<Long, String>> records) throws InterruptedException {
+        ORSKafkaConsumerMessageSpeedUpdate[] messages = new ORSKafkaConsumerMessageSpeedUpdate[records.size()];
+        int tasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), records.size() / MIN_RECORDS_PER_DECODE_TASK));
+        List<Callable<Integer>> decodeTasks = new ArrayList<>(tasks);
+        for (int task = 0; task < tasks; task++) {
+            int from = (int) ((long) records.size() * task / tasks);
+            int to = (int) ((long) records.size() * (task + 1) / tasks);
+            decodeTasks.add(() -> decode(records, messages, from, to));
+        }
+
+        int failed = 0;
+        if (tasks == 1) {
+            failed = decode(records, messages, 0, records.size());
+        } else {
+            for (Future<Integer> future : DECODE_EXECUTOR.invokeAll(decodeTasks)) {
+                try {
+                    failed += future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        metrics.addFailed(failed);
+        return messages;
+    }
+
+    private static int decode(List<ConsumerRecord<Long, String>> records, ORSKafkaConsumerMessageSpeedUpdate[] messages, int from, int to) {
+        int failed = 0;
+        for (int i = from; i < to; i++) {
+            try {
+                messages[i] = READER.readValue(records.get(i).value());
+            } catch (IOException e) {
+                LOGGER.error(e);
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Keep only the last received update of every edge and direction.
+     */
+    private Collection<ORSKafkaConsumerMessageSpeedUpdate> coalesce(ORSKafkaConsumerMessageSpeedUpdate[] messages) {
+        LongObjectHashMap<ORSKafkaConsumerMessageSpeedUpdate> latest = new LongObjectHashMap<>(messages.length);
+        int decoded = 0;
+        for (ORSKafkaConsumerMessageSpeedUpdate msg : messages) {
+            if (msg == null)
+                continue;
+            decoded++;
+            latest.put(((long) msg.getEdgeId() << 1) | (msg.isReverse() ? 1 : 0), msg);
+        }
+        metrics.addCoalesced((long) decoded - latest.size());
+
+        List<ORSKafkaConsumerMessageSpeedUpdate> updates = new ArrayList<>(latest.size());
+        for (ObjectCursor<ORSKafkaConsumerMessageSpeedUpdate> cursor : latest.values())
+            updates.add(cursor.value);
+        return updates;
+    }
+
+    /**
+     * Pause the assigned partitions while the apply stage falls behind, resume them once it has caught up.
+     */
+    private void updateFlowControl() {
+        int pending = pendingBatches.get();
+        if (pending >= MAX_PENDING_BATCHES) {
+            // partitions assigned by a rebalance are not paused yet, so pause all of them again
+            consumer.pause(consumer.assignment());
+            if (!paused)
+                LOGGER.debug(String.format("Kafka consumer for %s paused, %d batches pending", profile, pending));
+            paused = true;
+        } else if (paused && pending <= RESUME_PENDING_BATCHES) {
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+        metrics.setPaused(paused);
+        metrics.setPendingBatches(pending);
+    }
+
+    private void commitAppliedOffsets(boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets;
+        synchronized (appliedOffsets) {
+            if (appliedOffsets.isEmpty())
+                return;
+            offsets = new HashMap<>(appliedOffsets);
+            appliedOffsets.clear();
+        }
+        if (sync) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null)
+                    LOGGER.warn(String.format("Failed to commit Kafka offsets: %s", e.getMessage()));
+            });
+        }
+    }
+
+    private void updateConsumerMetrics() {
+        long now = System.currentTimeMillis();
+        if (now - lastMetricsUpdate < METRICS_UPDATE_INTERVAL)
+            return;
+        lastMetricsUpdate = now;
+        for (Map.Entry<MetricName, ? extends Metric> entry : consumer.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if (!"consumer-fetch-manager-metrics".equals(name.group()) || name.tags().containsKey("topic") || name.tags().containsKey("partition"))
+                continue;
+            if ("records-lag-max".equals(name.name()))
+                metrics.setLag(toDouble(entry.getValue().metricValue()));
+            else if ("records-consumed-rate".equals(name.name()))
+                metrics.setThroughput(toDouble(entry.getValue().metricValue()));
+        }
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? 0 : d;
+        }
+        return 0;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ *  Licensed to GIScience Research Group, Heidelberg University (GIScience)
+ *
+ *   http://giscience.uni-hd.de
+ *   http://heigit.org
+ *
+ *  under one or more contributor license agreements. See the NOTICE file
+ *  distributed with this work for additional information regarding copyright
+ *  ownership. The GIScience licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in compliance
+ *  with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.heigit.ors.kafka;
+
+import java.util.Collection;
+
+/**
+ * Target of the speed updates received by a {@link ORSKafkaConsumerRunner}.
+ */
+public interface ORSKafkaUpdateHandler {
+    /**
+     * Apply a batch of speed updates. The batch contains at most one update per edge and direction.
+     *
+     * @param profile target profile according to configuration
+     * @param updates updates to apply
+     * @return number of updates which could not be applied
+     */
+    int updateProfile(String profile, Collection<ORSKafkaConsumerMessageSpeedUpdate> updates);
+}
@@ -27,6 +27,7 @@ public class MatrixRequest extends ServiceRequest {
 	private DistanceUnit units = DistanceUnit.METERS;
 	private boolean resolveLocations = false;
 	private boolean flexibleMode = false;
+	private boolean liveTraffic = false;
 	private String algorithm;
 
 	public Coordinate[] getSources()
@@ -104,6 +105,14 @@ public class MatrixRequest extends ServiceRequest {
 		this.flexibleMode = flexibleMode;
 	}
 
+	public boolean getLiveTraffic() {
+		return liveTraffic;
+	}
+
+	public void setLiveTraffic(boolean liveTraffic) {
+		this.liveTraffic = liveTraffic;
+	}
+
 	public String getAlgorithm() {
 		return algorithm;
 	}
@@ -212,7 +212,7 @@ public class PathMetricsExtractor {
 	}
 
 	private long getSPTEntryHash(SPTEntry entry) {
-		return (long)entry.adjNode + entry.edge;
+		return ((long)entry.adjNode << 32) | (entry.edge & 0xFFFFFFFFL);
 	}
 
 	private void extractEdgeValues(CHEdgeIteratorState iterState, boolean reverse) {
@@ -16,15 +16,40 @@ package org.heigit.ors.matrix.algorithms;
 import com.graphhopper.GraphHopper;
 import org.heigit.ors.matrix.MatrixRequest;
 import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.dijkstra.ParallelDijkstraMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
+import org.heigit.ors.services.matrix.MatrixServiceSettings;
+
+import java.util.concurrent.ForkJoinPool;
 
 public class MatrixAlgorithmFactory {
+	// shared by all requests, so that maximum_threads caps the threads of all running Dijkstra matrices
+	private static ForkJoinPool dijkstraPool;
+
 	private MatrixAlgorithmFactory() {}
 
 	public static MatrixAlgorithm createAlgorithm(MatrixRequest req, GraphHopper gh) {
 		if (!req.getFlexibleMode() && gh.isCHEnabled())
 			return new RPHASTMatrixAlgorithm();
+		else if (MatrixServiceSettings.getMaximumThreads() > 1)
+			return new ParallelDijkstraMatrixAlgorithm(getDijkstraPool());
 		else
 			return new DijkstraMatrixAlgorithm();
 	}
+
+	private static synchronized ForkJoinPool getDijkstraPool() {
+		if (dijkstraPool == null)
+			dijkstraPool = new ForkJoinPool(MatrixServiceSettings.getMaximumThreads());
+		return dijkstraPool;
+	}
+
+	/**
+	 * Stop the threads of the parallel Dijkstra matrices, a new pool is created by the next request.
+	 */
+	public static synchronized void shutdown() {
+		if (dijkstraPool != null) {
+			dijkstraPool.shutdownNow();
+			dijkstraPool = null;
+		}
+	}
 }
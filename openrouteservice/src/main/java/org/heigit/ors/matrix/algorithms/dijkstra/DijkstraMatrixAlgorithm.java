@@ -59,29 +59,7 @@ public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
 			for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) 
 				pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
 		} else {
-			DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
-			algorithm.prepare(srcData.getNodeIds(),  dstData.getNodeIds());
-			algorithm.setMaxVisitedNodes(MatrixServiceSettings.getMaximumVisitedNodes());
-			
-			int sourceId = -1;
-
-			for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) {
-				sourceId = srcData.getNodeId(srcIndex);
-
-				if (sourceId == -1) {
-					pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
-				} else {
-					algorithm.reset();
-					SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
-
-					if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
-						throw new Exception("Search exceeds the limit of visited nodes.");
-
-					if (targets != null) {
-						pathMetricsExtractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
-					}
-				}
-			}
+			computeRows(srcData, dstData, times, distances, weights);
 		}
 
 		if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
@@ -93,4 +71,41 @@ public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
 
 		return mtxResult;
 	}
+
+	/**
+	 * Fill the rows of all sources into the given tables.
+	 */
+	protected void computeRows(MatrixLocations srcData, MatrixLocations dstData, float[] times, float[] distances, float[] weights) throws Exception {
+		computeRows(srcData, dstData, 0, srcData.size(), weighting, pathMetricsExtractor, times, distances, weights);
+	}
+
+	/**
+	 * Fill the rows of the sources in [fromIndex, toIndex) into the given tables. Only these rows are written, so that
+	 * calls with disjoint ranges can run concurrently as long as each uses its own weighting and extractor.
+	 */
+	protected void computeRows(MatrixLocations srcData, MatrixLocations dstData, int fromIndex, int toIndex, Weighting weighting, PathMetricsExtractor extractor, float[] times, float[] distances, float[] weights) throws Exception {
+		DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
+		algorithm.prepare(srcData.getNodeIds(),  dstData.getNodeIds());
+		algorithm.setMaxVisitedNodes(MatrixServiceSettings.getMaximumVisitedNodes());
+
+		int sourceId = -1;
+
+		for (int srcIndex = fromIndex; srcIndex < toIndex; srcIndex++) {
+			sourceId = srcData.getNodeId(srcIndex);
+
+			if (sourceId == -1) {
+				extractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
+			} else {
+				algorithm.reset();
+				SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
+
+				if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
+					throw new Exception("Search exceeds the limit of visited nodes.");
+
+				if (targets != null) {
+					extractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
+				}
+			}
+		}
+	}
 }
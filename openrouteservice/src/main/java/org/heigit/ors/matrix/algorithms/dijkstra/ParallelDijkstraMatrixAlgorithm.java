@@ -0,0 +1,99 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.matrix.algorithms.dijkstra;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.PathMetricsExtractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Variant of {@link DijkstraMatrixAlgorithm} which partitions the sources into contiguous slices and runs them on a
+ * shared pool. Every slice has its own one-to-many search, weighting and metrics extractor and writes only the rows of
+ * its sources, so the tables are filled without any synchronization.
+ *
+ * Several weightings keep a read buffer for the graph extensions and are not thread-safe, so the weightings of the
+ * slices are created through {@link #setWeightingFactory(Supplier)}. Without a factory the request weighting is shared.
+ */
+public class ParallelDijkstraMatrixAlgorithm extends DijkstraMatrixAlgorithm {
+	// more slices than threads compensate for searches of different size
+	private static final int SLICES_PER_THREAD = 4;
+
+	private final ForkJoinPool pool;
+	private Supplier<Weighting> weightingFactory;
+	private int metrics;
+	private DistanceUnit units;
+
+	public ParallelDijkstraMatrixAlgorithm(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public void setWeightingFactory(Supplier<Weighting> weightingFactory) {
+		this.weightingFactory = weightingFactory;
+	}
+
+	@Override
+	public void init(MatrixRequest req, GraphHopper gh, Graph graph, FlagEncoder encoder, Weighting weighting) {
+		super.init(req, gh, graph, encoder, weighting);
+
+		metrics = req.getMetrics();
+		units = req.getUnits();
+	}
+
+	@Override
+	protected void computeRows(MatrixLocations srcData, MatrixLocations dstData, float[] times, float[] distances, float[] weights) throws Exception {
+		int sourceCount = srcData.size();
+		int slices = Math.min(sourceCount, pool.getParallelism() * SLICES_PER_THREAD);
+		if (pool.getParallelism() < 2 || slices < 2) {
+			super.computeRows(srcData, dstData, times, distances, weights);
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>(slices);
+		for (int slice = 0; slice < slices; slice++) {
+			int fromIndex = (int) ((long) sourceCount * slice / slices);
+			int toIndex = (int) ((long) sourceCount * (slice + 1) / slices);
+			// weightings are created on the request thread, the factories are not meant to be called concurrently
+			Weighting sliceWeighting = weightingFactory == null ? weighting : weightingFactory.get();
+			PathMetricsExtractor extractor = new PathMetricsExtractor(metrics, graph, encoder, sliceWeighting, units);
+			tasks.add(() -> {
+				computeRows(srcData, dstData, fromIndex, toIndex, sliceWeighting, extractor, times, distances, weights);
+				return null;
+			});
+		}
+
+		for (Future<Void> future : pool.invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof Exception)
+					throw (Exception) ex.getCause();
+				throw ex;
+			}
+		}
+	}
+}
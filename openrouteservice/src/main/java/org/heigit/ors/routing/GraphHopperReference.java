@@ -0,0 +1,93 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import org.apache.log4j.Logger;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted holder of the graph of a {@link RoutingProfile}. The profile owns one reference for as long as
+ * the graph is the current one, every request acquires another one for its duration. Once the profile has retired the
+ * graph and the last request has released it, the graph is closed.
+ *
+ * Use it with try-with-resources: {@code try (GraphHopperReference ref = acquire()) { ... ref.get() ... }}
+ */
+final class GraphHopperReference implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(GraphHopperReference.class);
+
+    private final ORSGraphHopper graphHopper;
+    // starts with the reference of the owning profile
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile Runnable onClosed;
+
+    GraphHopperReference(ORSGraphHopper graphHopper) {
+        this.graphHopper = graphHopper;
+    }
+
+    ORSGraphHopper get() {
+        return graphHopper;
+    }
+
+    /**
+     * Acquire a reference for a request.
+     *
+     * @return false if the graph has been closed already, in which case the reference must not be used
+     */
+    boolean retain() {
+        while (true) {
+            int count = references.get();
+            if (count == 0)
+                return false;
+            if (references.compareAndSet(count, count + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Release the reference of a request.
+     */
+    @Override
+    public void close() {
+        int count = references.decrementAndGet();
+        if (count == 0) {
+            graphHopper.close();
+            Runnable action = onClosed;
+            if (action != null) {
+                try {
+                    action.run();
+                } catch (Exception ex) {
+                    LOGGER.error(ex);
+                }
+            }
+        } else if (count < 0) {
+            throw new IllegalStateException("Graph reference released more often than acquired.");
+        }
+    }
+
+    /**
+     * Release the reference of the owning profile, the graph is closed as soon as no request uses it anymore.
+     *
+     * @param onClosed Optional action which is run after the graph has been closed
+     */
+    void retire(Runnable onClosed) {
+        this.onClosed = onClosed;
+        close();
+    }
+
+    int getReferences() {
+        return references.get();
+    }
+}
@@ -71,6 +71,7 @@ public class RouteSearchParameters {
     private boolean optimized = true;
     private int extraInfo;
     private boolean suppressWarnings = false;
+    private boolean liveTraffic = false;
 
     private int[] avoidCountries = null;
     private BordersExtractor.Avoid avoidBorders = BordersExtractor.Avoid.NONE;
@@ -214,6 +215,14 @@ public class RouteSearchParameters {
         this.suppressWarnings = suppressWarnings;
     }
 
+    public boolean getLiveTraffic() {
+        return liveTraffic;
+    }
+
+    public void setLiveTraffic(boolean liveTraffic) {
+        this.liveTraffic = liveTraffic;
+    }
+
     public String getOptions() {
         return options;
     }
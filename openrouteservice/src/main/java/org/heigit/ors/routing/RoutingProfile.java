@@ -31,9 +31,11 @@ import org.apache.log4j.Logger;
 import org.heigit.ors.api.requests.routing.RouteRequest;
 import org.heigit.ors.centrality.CentralityRequest;
 import org.heigit.ors.centrality.CentralityResult;
+import org.heigit.ors.centrality.CentralitySampling;
 import org.heigit.ors.centrality.CentralityWarning;
 import org.heigit.ors.centrality.algorithms.CentralityAlgorithm;
-import org.heigit.ors.centrality.algorithms.brandes.BrandesCentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.FastBrandesCentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.ParallelBrandesCentralityAlgorithm;
 import org.heigit.ors.common.Pair;
 import org.heigit.ors.exceptions.InternalServerException;
 import org.heigit.ors.exceptions.StatusCodeException;
@@ -47,6 +49,7 @@ import org.heigit.ors.mapmatching.hmm.HiddenMarkovMapMatcher;
 import org.heigit.ors.matrix.*;
 import org.heigit.ors.matrix.algorithms.MatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.MatrixAlgorithmFactory;
+import org.heigit.ors.matrix.algorithms.dijkstra.ParallelDijkstraMatrixAlgorithm;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.graphhopper.extensions.*;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
@@ -66,11 +69,15 @@ import org.heigit.ors.util.StringUtility;
 import org.heigit.ors.util.TimeUtility;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class generates {@link RoutingProfile} classes and is used by mostly all service classes e.g.
@@ -102,6 +109,7 @@ public class RoutingProfile {
     private static final String KEY_THREADS = "threads";
     private static final String KEY_WEIGHTINGS = "weightings";
     private static final String KEY_LMSETS = "lmsets";
+    private static final String KEY_LMTHREADS = "lmthreads";
     private static final String KEY_MAXCELLNODES = "maxcellnodes";
     private static final String KEY_METHODS_LM = "methods.lm";
     private static final String KEY_LANDMARKS = "landmarks";
@@ -116,11 +124,13 @@ public class RoutingProfile {
     private static int profileIdentifier = 0;
     private static final Object lockObj = new Object();
 
-    private ORSGraphHopper mGraphHopper;
+    private final AtomicReference<GraphHopperReference> mGraphHopper;
+    private final Object mUpdateLock = new Object();
     private Integer[] mRoutePrefs;
-    private Integer mUseCounter;
-    private boolean mUpdateRun;
     private MapMatcher mMapMatcher;
+    private GraphHopper mMapMatcherGraph;
+    private ForkJoinPool mCentralityPool;
+    private IsochroneCache mIsochroneCache;
 
     private RouteProfileConfiguration config;
     private String astarApproximation;
@@ -128,9 +138,8 @@ public class RoutingProfile {
 
     public RoutingProfile(String osmFile, RouteProfileConfiguration rpc, RoutingProfileLoadContext loadCntx) throws Exception {
         mRoutePrefs = rpc.getProfilesTypes();
-        mUseCounter = 0;
 
-        mGraphHopper = initGraphHopper(osmFile, rpc, loadCntx);
+        mGraphHopper = new AtomicReference<>(new GraphHopperReference(initGraphHopper(osmFile, rpc, loadCntx)));
 
         config = rpc;
 
@@ -141,6 +150,9 @@ public class RoutingProfile {
             if (optsExecute.hasPath("methods.astar.epsilon"))
                 astarEpsilon = Double.parseDouble(optsExecute.getString("methods.astar.epsilon"));
         }
+
+        if (IsochronesServiceSettings.getCacheSize() > 0)
+            mIsochroneCache = new IsochroneCache(IsochronesServiceSettings.getCacheSize(), IsochronesServiceSettings.getCacheTimeToLive() * 1000L);
     }
 
     public static ORSGraphHopper initGraphHopper(String osmFile, RouteProfileConfiguration config, RoutingProfileLoadContext loadCntx) throws Exception {
@@ -159,34 +171,49 @@ public class RoutingProfile {
         }
 
         GraphProcessContext gpc = new GraphProcessContext(config);
+        ORSPathProcessorFactory pathProcessorFactory = new ORSPathProcessorFactory();
 
-        ORSGraphHopper gh = new ORSGraphHopper(gpc);
+        // register before the graph is built, so that a shared pass over the OSM file waits for this profile
+        SharedOSMInputFile.Participant sharedOSMInput = null;
+        SharedOSMInputFile sharedOSMInputFile = loadCntx.getSharedOSMInputFile();
+        if (sharedOSMInputFile != null && sharedOSMInputFile.getFile().equals(new File(osmFile).getAbsoluteFile()))
+            sharedOSMInput = sharedOSMInputFile.register();
 
-        ORSDefaultFlagEncoderFactory flagEncoderFactory = new ORSDefaultFlagEncoderFactory();
-        gh.setFlagEncoderFactory(flagEncoderFactory);
+        ORSGraphHopper gh;
+        try {
+            gh = new ORSGraphHopper(gpc);
 
-        ORSEdgeFilterFactory edgeFilterFactory = new ORSEdgeFilterFactory();
-        gh.setEdgeFilterFactory(edgeFilterFactory);
+            ORSDefaultFlagEncoderFactory flagEncoderFactory = new ORSDefaultFlagEncoderFactory();
+            gh.setFlagEncoderFactory(flagEncoderFactory);
 
-        ORSPathProcessorFactory pathProcessorFactory = new ORSPathProcessorFactory();
-        gh.setPathProcessorFactory(pathProcessorFactory);
+            ORSEdgeFilterFactory edgeFilterFactory = new ORSEdgeFilterFactory();
+            gh.setEdgeFilterFactory(edgeFilterFactory);
 
-        gh.init(args);
+            gh.setPathProcessorFactory(pathProcessorFactory);
 
-        // MARQ24: make sure that we only use ONE instance of the ElevationProvider across the multiple vehicle profiles
-        // so the caching for elevation data will/can be reused across different vehicles. [the loadCntx is a single
-        // Object that will shared across the (potential) multiple running instances]
-        if(loadCntx.getElevationProvider() != null) {
-            if (args.has("graph.elevation.provider")) {
-                gh.setElevationProvider(loadCntx.getElevationProvider());
+            gh.init(args);
+
+            // MARQ24: make sure that we only use ONE instance of the ElevationProvider across the multiple vehicle profiles
+            // so the caching for elevation data will/can be reused across different vehicles. [the loadCntx is a single
+            // Object that will shared across the (potential) multiple running instances]
+            if(loadCntx.getElevationProvider() != null) {
+                if (args.has("graph.elevation.provider")) {
+                    gh.setElevationProvider(loadCntx.getElevationProvider());
+                }
+            }else {
+                loadCntx.setElevationProvider(gh.getElevationProvider());
             }
-        }else {
-            loadCntx.setElevationProvider(gh.getElevationProvider());
-        }
-        gh.setGraphStorageFactory(new ORSGraphStorageFactory(gpc.getStorageBuilders()));
-        gh.setWeightingFactory(new ORSWeightingFactory());
+            gh.setGraphStorageFactory(new ORSGraphStorageFactory(gpc.getStorageBuilders()));
+            gh.setWeightingFactory(new ORSWeightingFactory(gh.getSpeedOverlay()));
 
-        gh.importOrLoad();
+            gh.setSharedOSMInput(sharedOSMInput);
+
+            gh.importOrLoad();
+        } finally {
+            // the graph has been read or loaded, further passes over the file do not wait for this profile
+            if (sharedOSMInput != null)
+                sharedOSMInput.leave();
+        }
 
         // store CountryBordersReader for later use
         for (GraphStorageBuilder builder : gpc.getStorageBuilders()) {
@@ -225,7 +252,7 @@ public class RoutingProfile {
     }
 
     public long getCapacity() {
-        GraphHopperStorage graph = mGraphHopper.getGraphHopperStorage();
+        GraphHopperStorage graph = getGraphhopper().getGraphHopperStorage();
         return graph.getCapacity() + GraphStorageUtils.getCapacity(graph.getExtension());
     }
 
@@ -344,6 +371,8 @@ public class RoutingProfile {
                             args.put("prepare.corelm.lmsets", StringUtility.trimQuotes(coreOpts.getString(KEY_LMSETS)));
                         if (coreOpts.hasPath(KEY_LANDMARKS))
                             args.put("prepare.corelm.landmarks", coreOpts.getInt(KEY_LANDMARKS));
+                        if (coreOpts.hasPath(KEY_LMTHREADS))
+                            args.put("prepare.corelm.threads", coreOpts.getInt(KEY_LMTHREADS));
                     }
                 }
             }
@@ -394,24 +423,43 @@ public class RoutingProfile {
 
         args.put("index.high_resolution", config.getLocationIndexResolution());
         args.put("index.max_region_search", config.getLocationIndexSearchIterations());
+        args.put("index.location_cache_size", config.getLocationCacheSize());
 
         return args;
     }
 
+    /**
+     * The current graph of the profile. It may be swapped by an update at any time, requests which use it for longer
+     * have to acquire it with {@link #acquireGH()} instead.
+     */
     public ORSGraphHopper getGraphhopper() {
-        return mGraphHopper;
+        return mGraphHopper.get().get();
     }
 
     public BBox getBounds() {
-        return mGraphHopper.getGraphHopperStorage().getBounds();
+        return getGraphhopper().getGraphHopperStorage().getBounds();
     }
 
     public StorableProperties getGraphProperties() {
-        return mGraphHopper.getGraphHopperStorage().getProperties();
+        return getGraphhopper().getGraphHopperStorage().getProperties();
+    }
+
+    /**
+     * @return the cache of snapped locations of the current graph or null if it is disabled
+     */
+    public CachedLocationIndex getLocationCache() {
+        return getGraphhopper().getLocationCache();
+    }
+
+    /**
+     * @return the cache of isochrone maps or null if it is disabled
+     */
+    public IsochroneCache getIsochroneCache() {
+        return mIsochroneCache;
     }
 
     public String getGraphLocation() {
-        return mGraphHopper == null ? null : mGraphHopper.getGraphHopperStorage().getDirectory().toString();
+        return getGraphhopper().getGraphHopperStorage().getDirectory().toString();
     }
 
     public RouteProfileConfiguration getConfiguration() {
@@ -433,81 +481,105 @@ public class RoutingProfile {
 
 
     public boolean isCHEnabled() {
-        return mGraphHopper != null && mGraphHopper.isCHEnabled();
+        return getGraphhopper().isCHEnabled();
     }
 
     public void close() {
-        mGraphHopper.close();
-    }
-
-    private synchronized boolean isGHUsed() {
-        return mUseCounter > 0;
+        // the graph is closed once the requests still using it have finished
+        mGraphHopper.get().retire(null);
+        synchronized (this) {
+            if (mCentralityPool != null)
+                mCentralityPool.shutdown();
+        }
     }
 
-    private synchronized void beginUseGH() {
-        mUseCounter++;
+    /**
+     * Pool shared by all centrality requests on this profile, its parallelism caps the number of threads they use.
+     */
+    private synchronized ForkJoinPool getCentralityPool() {
+        if (mCentralityPool == null)
+            mCentralityPool = new ForkJoinPool(config.getMaximumCentralityThreads());
+        return mCentralityPool;
     }
 
-    private synchronized void endUseGH() {
-        mUseCounter--;
+    /**
+     * Acquire the current graph for the duration of a request. The graph stays open until the returned reference is
+     * closed, even if it is swapped by an update in the meantime.
+     */
+    private GraphHopperReference acquireGH() {
+        while (true) {
+            GraphHopperReference ref = mGraphHopper.get();
+            if (ref.retain())
+                return ref;
+            // only a retired graph can be closed, so either it has been swapped in the meantime or the profile is closed
+            if (ref == mGraphHopper.get())
+                throw new IllegalStateException("The routing profile has been closed.");
+        }
     }
 
+    /**
+     * Replace the graph of the profile by the given one without interrupting requests.
+     *
+     * The graph files take the place of the ones of the current graph, which is held in memory and keeps serving
+     * requests while the new graph is loaded. Once loaded, the new graph replaces the current one atomically. The
+     * previous graph and its files are released as soon as the last request using it has finished.
+     *
+     * @param gh Graph which has been built in a temporary location
+     */
     public void updateGH(GraphHopper gh) throws Exception {
         if (gh == null)
             throw new Exception("GraphHopper instance is null.");
 
-        try {
-            mUpdateRun = true;
-            while (true) {
-                if (!isGHUsed()) {
-                    GraphHopper ghOld = mGraphHopper;
+        synchronized (mUpdateLock) {
+            ORSGraphHopper ghOld = getGraphhopper();
 
-                    ghOld.close();
-                    ghOld.clean();
+            // the graph files have been written already, the instance is not needed anymore
+            gh.close();
 
-                    gh.close();
-                    // gh.clean(); // do not remove on-disk files, we need to
-                    // copy them as follows
+            File dstDir = new File(ghOld.getGraphHopperLocation());
+            File srcDir = new File(gh.getGraphHopperLocation());
+            File newDir = new File(dstDir.getPath() + ".new");
+            File oldDir = new File(dstDir.getPath() + ".old");
 
-                    RuntimeUtility.clearMemory(LOGGER);
+            // remainders of an interrupted update
+            FileUtils.deleteDirectory(newDir);
+            FileUtils.deleteDirectory(oldDir);
 
-                    // Change the content of the graph folder
-                    String oldLocation = ghOld.getGraphHopperLocation();
-                    File dstDir = new File(oldLocation);
-                    File srcDir = new File(gh.getGraphHopperLocation());
-                    FileUtils.copyDirectory(srcDir, dstDir, true);
-                    FileUtils.deleteDirectory(srcDir);
+            // the working directory may be located on a different file system, so copy instead of moving
+            FileUtils.copyDirectory(srcDir, newDir, true);
+            FileUtils.deleteDirectory(srcDir);
+            // the current graph is held in memory, so its files can be moved away while it is in use
+            Files.move(dstDir.toPath(), oldDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
 
-                    RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
-
-                    mGraphHopper = initGraphHopper(ghOld.getDataReaderFile(), config, loadCntx);
-
-                    loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
-
-                    break;
-                }
-
-                Thread.sleep(2000);
+            ORSGraphHopper ghNew;
+            RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+            try {
+                Files.move(newDir.toPath(), dstDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                ghNew = initGraphHopper(ghOld.getDataReaderFile(), config, loadCntx);
+            } catch (Exception ex) {
+                // keep serving and persisting the current graph
+                FileUtils.deleteDirectory(dstDir);
+                Files.move(oldDir.toPath(), dstDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                throw ex;
+            } finally {
+                loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
             }
-        } catch (Exception ex) {
-            LOGGER.error(ex.getMessage());
-        }
-
-        mUpdateRun = false;
-    }
-
-    private void waitForUpdateCompletion() throws Exception {
-        if (mUpdateRun) {
-            long startTime = System.currentTimeMillis();
 
-            while (mUpdateRun) {
-                long curTime = System.currentTimeMillis();
-                if (curTime - startTime > 600000) {
-                    throw new Exception("The route profile is currently being updated.");
+            GraphHopperReference refOld = mGraphHopper.getAndSet(new GraphHopperReference(ghNew));
+            // the graph date is part of the keys, so isochrones of the previous graph would not be requested anymore
+            if (mIsochroneCache != null)
+                mIsochroneCache.clear();
+            refOld.retire(() -> {
+                try {
+                    FileUtils.deleteDirectory(oldDir);
+                } catch (IOException ex) {
+                    LOGGER.warn("Unable to remove the previous graph at " + oldDir + ": " + ex.getMessage());
                 }
+                RuntimeUtility.clearMemory(LOGGER);
+            });
 
-                Thread.sleep(1000);
-            }
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info(String.format("Graph of profiles '%s' has been replaced, %d requests still use the previous one.", config.getProfiles(), Math.max(0, refOld.getReferences())));
         }
     }
 
@@ -552,19 +624,13 @@ public class RoutingProfile {
 
 
         IsochroneMap result = null;
-        waitForUpdateCompletion();
-
-        beginUseGH();
 
-        try {
-            RouteSearchContext searchCntx = createSearchContext(parameters.getRouteParameters());
+        try (GraphHopperReference ghRef = acquireGH()) {
+            RouteSearchContext searchCntx = createSearchContext(ghRef.get(), parameters.getRouteParameters());
 
-            IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx);
+            IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx, mIsochroneCache);
             result = isochroneMapBuilderFactory.buildMap(parameters);
-
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
             if (DebugUtility.isDebug()) {
                 LOGGER.error(ex);
             }
@@ -612,12 +678,21 @@ public class RoutingProfile {
     }
 
     public MatrixResult computeMatrix(MatrixRequest req) throws Exception {
+        try (GraphHopperReference ghRef = acquireGH()) {
+            return computeMatrix(req, ghRef.get());
+        }
+    }
+
+    private MatrixResult computeMatrix(MatrixRequest req, ORSGraphHopper gh) throws Exception {
         MatrixResult mtxResult = null;
 
-        GraphHopper gh = getGraphhopper();
         String encoderName = RoutingProfileType.getEncoderName(req.getProfileType());
         FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
 
+        // live speeds cannot be applied to the precomputed CH weights
+        if (req.getLiveTraffic() && !gh.getSpeedOverlay().isEmpty())
+            req.setFlexibleMode(true);
+
         MatrixAlgorithm alg = MatrixAlgorithmFactory.createAlgorithm(req, gh);
 
         if (alg == null)
@@ -632,13 +707,19 @@ public class RoutingProfile {
                 hintsMap.setVehicle(encoderName);
                 graph = gh.getGraphHopperStorage().getCHGraph(((PrepareContractionHierarchies) gh.getAlgorithmFactory(hintsMap)).getCHProfile());
             }
-            else
+            else {
                 graph = gh.getGraphHopperStorage().getBaseGraph();
+                if (req.getLiveTraffic())
+                    setLiveTraffic(gh, hintsMap);
+            }
 
-            MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getLocationIndex(), DefaultEdgeFilter.allEdges(flagEncoder), req.getResolveLocations());
+            MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getSnappingIndex(), DefaultEdgeFilter.allEdges(flagEncoder), req.getResolveLocations());
             MatrixSearchContext mtxSearchCntx = builder.create(graph, req.getSources(), req.getDestinations(), MatrixServiceSettings.getMaximumSearchRadius());
 
-            Weighting weighting = new ORSWeightingFactory().createWeighting(hintsMap, flagEncoder, gh.getGraphHopperStorage());
+            Weighting weighting = new ORSWeightingFactory(gh.getSpeedOverlay()).createWeighting(hintsMap, flagEncoder, gh.getGraphHopperStorage());
+
+            if (alg instanceof ParallelDijkstraMatrixAlgorithm)
+                ((ParallelDijkstraMatrixAlgorithm) alg).setWeightingFactory(() -> new ORSWeightingFactory(gh.getSpeedOverlay()).createWeighting(hintsMap, flagEncoder, gh.getGraphHopperStorage()));
 
             alg.init(req, gh, mtxSearchCntx.getGraph(), flagEncoder, weighting);
 
@@ -653,9 +734,14 @@ public class RoutingProfile {
     }
 
     public CentralityResult computeCentrality(CentralityRequest req) throws Exception {
+        try (GraphHopperReference ghRef = acquireGH()) {
+            return computeCentrality(req, ghRef.get());
+        }
+    }
+
+    private CentralityResult computeCentrality(CentralityRequest req, GraphHopper gh) throws Exception {
         CentralityResult res = new CentralityResult();
 
-        GraphHopper gh = getGraphhopper();
         String encoderName = RoutingProfileType.getEncoderName(req.getProfileType());
         FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
         Graph graph = gh.getGraphHopperStorage().getBaseGraph();
@@ -688,7 +774,9 @@ public class RoutingProfile {
             return res;
         }
 
-        CentralityAlgorithm alg = new BrandesCentralityAlgorithm();
+        CentralityAlgorithm alg = config.getMaximumCentralityThreads() > 1
+                ? new ParallelBrandesCentralityAlgorithm(getCentralityPool())
+                : new FastBrandesCentralityAlgorithm();
         alg.init(graph, weighting, explorer);
 
         // transform node ids to coordinates,
@@ -697,18 +785,44 @@ public class RoutingProfile {
             res.addLocation(v, coord);
         }
 
-        if (req.getMode().equals("nodes")) {
-            Map<Integer, Double> nodeBetweenness = alg.computeNodeCentrality(nodesInBBox);
+        boolean nodeMode = req.getMode().equals("nodes");
+
+        // for approximate centrality, only a sample of the nodes is used as sources
+        List<Integer> sources = nodesInBBox;
+        CentralitySampling sampling = null;
+        if (req.isApproximate()) {
+            int scoreCount = nodeMode ? nodesInBBox.size() : countOutEdges(explorer, nodesInBBox);
+            sampling = CentralitySampling.create(req, nodesInBBox.size(), scoreCount);
+            sources = sampling.drawSources(nodesInBBox);
+            res.setSampling(sampling);
+        }
+
+        if (nodeMode) {
+            Map<Integer, Double> nodeBetweenness = alg.computeNodeCentrality(nodesInBBox, sources);
+            if (sampling != null)
+                sampling.rescale(nodeBetweenness, nodesInBBox.size());
             res.setNodeCentralityScores(nodeBetweenness);
         } else {
-            Map<Pair<Integer, Integer>, Double> edgeBetweenness = alg.computeEdgeCentrality(nodesInBBox);
+            Map<Pair<Integer, Integer>, Double> edgeBetweenness = alg.computeEdgeCentrality(nodesInBBox, sources);
+            if (sampling != null)
+                sampling.rescale(edgeBetweenness, nodesInBBox.size());
             res.setEdgeCentralityScores(edgeBetweenness);
         }
 
         return res;
     }
 
-    private RouteSearchContext createSearchContext(RouteSearchParameters searchParams) throws Exception {
+    private static int countOutEdges(EdgeExplorer explorer, List<Integer> nodes) {
+        int count = 0;
+        for (int v : nodes) {
+            EdgeIterator iter = explorer.setBaseNode(v);
+            while (iter.next())
+                count++;
+        }
+        return count;
+    }
+
+    private RouteSearchContext createSearchContext(ORSGraphHopper gh, RouteSearchParameters searchParams) throws Exception {
         ORSPMap props = new ORSPMap();
 
         int profileType = searchParams.getProfileType();
@@ -717,12 +831,12 @@ public class RoutingProfile {
         if ("UNKNOWN".equals(encoderName))
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "unknown vehicle profile.");
 
-        if (!mGraphHopper.getEncodingManager().hasEncoder(encoderName)) {
+        if (!gh.getEncodingManager().hasEncoder(encoderName)) {
             throw new IllegalArgumentException("Vehicle " + encoderName + " unsupported. " + "Supported are: "
-                    + mGraphHopper.getEncodingManager());
+                    + gh.getEncodingManager());
         }
 
-        FlagEncoder flagEncoder = mGraphHopper.getEncodingManager().getEncoder(encoderName);
+        FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
         ProfileParameters profileParams = searchParams.getProfileParameters();
 
         /*
@@ -745,6 +859,7 @@ public class RoutingProfile {
         if (searchParams.hasAvoidAreas()) {
             props.put("avoid_areas", true);
             props.putObj("avoid_areas", searchParams.getAvoidAreas());
+            props.putObj("avoid_areas_index", gh.getLocationIndex());
         }
 
         /* Heavy vehicle filter */
@@ -787,7 +902,7 @@ public class RoutingProfile {
             }
         }
 
-        RouteSearchContext searchCntx = new RouteSearchContext(mGraphHopper, flagEncoder);
+        RouteSearchContext searchCntx = new RouteSearchContext(gh, flagEncoder);
         searchCntx.setProperties(props);
 
         return searchCntx;
@@ -795,30 +910,17 @@ public class RoutingProfile {
 
     public RouteSegmentInfo[] getMatchedSegments(Coordinate[] locations, double searchRadius, boolean bothDirections)
             throws Exception {
-        RouteSegmentInfo[] rsi = null;
-
-        waitForUpdateCompletion();
-
-        beginUseGH();
-
-        try {
-            rsi = getMatchedSegmentsInternal(locations, searchRadius, null, bothDirections);
-
-            endUseGH();
-        } catch (Exception ex) {
-            endUseGH();
-
-            throw ex;
+        try (GraphHopperReference ghRef = acquireGH()) {
+            return getMatchedSegmentsInternal(ghRef.get(), locations, searchRadius, null, bothDirections);
         }
-
-        return rsi;
     }
 
-    private RouteSegmentInfo[] getMatchedSegmentsInternal(Coordinate[] locations,
+    private RouteSegmentInfo[] getMatchedSegmentsInternal(GraphHopper gh, Coordinate[] locations,
                                                           double searchRadius, EdgeFilter edgeFilter, boolean bothDirections) {
-        if (mMapMatcher == null) {
+        if (mMapMatcher == null || mMapMatcherGraph != gh) {
             mMapMatcher = new HiddenMarkovMapMatcher();
-            mMapMatcher.setGraphHopper(mGraphHopper);
+            mMapMatcher.setGraphHopper(gh);
+            mMapMatcherGraph = gh;
         }
 
         mMapMatcher.setSearchRadius(searchRadius);
@@ -830,14 +932,11 @@ public class RoutingProfile {
     public GHResponse computeRoundTripRoute(double lat0, double lon0, WayPointBearing bearing, RouteSearchParameters searchParams, Boolean geometrySimplify) throws Exception {
         GHResponse resp;
 
-        waitForUpdateCompletion();
-
-        beginUseGH();
-
-        try {
+        try (GraphHopperReference ghRef = acquireGH()) {
+            ORSGraphHopper gh = ghRef.get();
             int profileType = searchParams.getProfileType();
             int weightingMethod = searchParams.getWeightingMethod();
-            RouteSearchContext searchCntx = createSearchContext(searchParams);
+            RouteSearchContext searchCntx = createSearchContext(gh, searchParams);
 
             List<GHPoint> points = new ArrayList<>();
             points.add(new GHPoint(lat0, lon0));
@@ -870,8 +969,11 @@ public class RoutingProfile {
             else
                 throw new IllegalArgumentException("Unsupported weighting " + weightingMethod + " for profile + " + profileType);
 
+            if (searchParams.getLiveTraffic())
+                setLiveTraffic(gh, req.getHints());
+
             //Roundtrip not possible with preprocessed edges.
-            setSpeedups(req, false, false, true);
+            setSpeedups(gh, req, false, false, true);
 
             if (astarEpsilon != null)
                 req.getHints().put("astarbi.epsilon", astarEpsilon);
@@ -880,14 +982,9 @@ public class RoutingProfile {
             //Overwrite algorithm selected in setSpeedups
             req.setAlgorithm(Parameters.Algorithms.ROUND_TRIP);
 
-            mGraphHopper.setSimplifyResponse(geometrySimplify);
-            resp = mGraphHopper.route(req);
-
-            endUseGH();
-
+            gh.setSimplifyResponse(geometrySimplify);
+            resp = gh.route(req);
         } catch (Exception ex) {
-            endUseGH();
-
             LOGGER.error(ex);
 
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Unable to compute a route");
@@ -901,14 +998,11 @@ public class RoutingProfile {
 
         GHResponse resp = null;
 
-        waitForUpdateCompletion();
-
-        beginUseGH();
-
-        try {
+        try (GraphHopperReference ghRef = acquireGH()) {
+            ORSGraphHopper gh = ghRef.get();
             int profileType = searchParams.getProfileType();
             int weightingMethod = searchParams.getWeightingMethod();
-            RouteSearchContext searchCntx = createSearchContext(searchParams);
+            RouteSearchContext searchCntx = createSearchContext(gh, searchParams);
 
             int flexibleMode = searchParams.getFlexibleMode() ? KEY_FLEX_PREPROCESSED : KEY_FLEX_STATIC;
             boolean optimized = searchParams.getOptimized();
@@ -938,21 +1032,24 @@ public class RoutingProfile {
                 if (requiresTimeDependentWeighting(searchParams, searchCntx))
                     flexibleMode = KEY_FLEX_PREPROCESSED;
                 flexibleMode = getFlexibilityMode(flexibleMode, searchParams, profileType);
+                //live speeds are only taken into account by searches which evaluate the weighting of every edge
+                if (searchParams.getLiveTraffic() && setLiveTraffic(gh, req.getHints()))
+                    flexibleMode = KEY_FLEX_FULLY;
             }
             else
                 throw new IllegalArgumentException("Unsupported weighting " + weightingMethod + " for profile + " + profileType);
 
             if (flexibleMode == KEY_FLEX_STATIC)
                 //Speedup order: useCH, useCore, useALT
-                setSpeedups(req, true, true, true);
+                setSpeedups(gh, req, true, true, true);
 
             if (flexibleMode == KEY_FLEX_PREPROCESSED) {
-                setSpeedups(req, false, optimized, true);
+                setSpeedups(gh, req, false, optimized, true);
             }
 
             //cannot use CH or CoreALT with requests where the weighting of non-predefined edges might change
             if(flexibleMode == KEY_FLEX_FULLY)
-                setSpeedups(req, false, false, true);
+                setSpeedups(gh, req, false, false, true);
 
             if (searchParams.isTimeDependent()) {
                 if (searchParams.hasDeparture())
@@ -978,10 +1075,10 @@ public class RoutingProfile {
             }
 
             if (directedSegment) {
-                resp = mGraphHopper.constructFreeHandRoute(req);
+                resp = gh.constructFreeHandRoute(req);
             } else {
-                mGraphHopper.setSimplifyResponse(geometrySimplify);
-                resp = mGraphHopper.route(req);
+                gh.setSimplifyResponse(geometrySimplify);
+                resp = gh.route(req);
             }
             if (DebugUtility.isDebug() && !directedSegment) {
                 LOGGER.info("visited_nodes.average - " + resp.getHints().get("visited_nodes.average", ""));
@@ -989,10 +1086,7 @@ public class RoutingProfile {
             if (DebugUtility.isDebug() && directedSegment) {
                 LOGGER.info("skipped segment - " + resp.getHints().get("skipped_segment", ""));
             }
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
-
             LOGGER.error(ex);
 
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Unable to compute a route");
@@ -1058,22 +1152,55 @@ public class RoutingProfile {
         if (hasTimeDependentSpeed)
             map.put(ORSParameters.Weighting.TIME_DEPENDENT_SPEED, true);
     }
+    /**
+     * Enable the live speeds of the graph for a request which asked for them, if there are any which have not expired.
+     *
+     * @param gh Graph used by the request
+     * @param map Hints map for setting up the request
+     * @return Whether live speeds are used
+     */
+    private static boolean setLiveTraffic(ORSGraphHopper gh, HintsMap map) {
+        if (gh.getSpeedOverlay().isEmpty())
+            return false;
+        map.put(ORSParameters.Weighting.LIVE_TRAFFIC, true);
+        return true;
+    }
+
+    /**
+     * Set the live speed of an edge, which is used until it expires.
+     *
+     * @param edgeId      Id of the edge in the base graph
+     * @param reverse     Whether the speed applies against the storage direction of the edge
+     * @param speed       Speed in km/h
+     * @param durationMin Validity of the speed in minutes
+     * @return false if the edge does not exist in the graph
+     */
+    public boolean updateEdgeSpeed(int edgeId, boolean reverse, int speed, int durationMin) {
+        // the edge ids refer to the current graph, speeds are not carried over to a graph replacing it
+        ORSGraphHopper gh = getGraphhopper();
+        if (edgeId < 0 || edgeId >= gh.getGraphHopperStorage().getEdges() || speed < 0 || durationMin < 0)
+            return false;
+        gh.getSpeedOverlay().setSpeed(edgeId, reverse, speed, durationMin);
+        return true;
+    }
+
     /**
      * Set the speedup techniques used for calculating the route.
      * Reults in usage of CH, Core or ALT/AStar, if they are enabled.
      *
+     * @param gh Graph used by the request
      * @param req Request whose hints will be set
      * @param useCH Should CH be enabled
      * @param useCore Should Core be enabled
      * @param useALT Should ALT be enabled
      */
-    private void setSpeedups(GHRequest req, boolean useCH, boolean useCore, boolean useALT){
+    private static void setSpeedups(ORSGraphHopper gh, GHRequest req, boolean useCH, boolean useCore, boolean useALT){
         String weighting = req.getWeighting();
 
         //Priority: CH->Core->ALT
-        useCH = useCH && mGraphHopper.isCHAvailable(weighting);
-        useCore = useCore && !useCH && mGraphHopper.isCoreAvailable(weighting);
-        useALT = useALT && !useCH && !useCore && mGraphHopper.isLMAvailable(weighting);
+        useCH = useCH && gh.isCHAvailable(weighting);
+        useCore = useCore && !useCH && gh.isCoreAvailable(weighting);
+        useALT = useALT && !useCH && !useCore && gh.isLMAvailable(weighting);
 
         req.getHints().put(KEY_CH_DISABLE, !useCH);
         req.getHints().put(KEY_CORE_DISABLE, !useCore);
@@ -1109,15 +1236,11 @@ public class RoutingProfile {
      */
     public IsochroneMap buildIsochrone(IsochroneSearchParameters parameters) throws Exception {
         IsochroneMap result = null;
-        waitForUpdateCompletion();
-        beginUseGH();
-        try {
-            RouteSearchContext searchCntx = createSearchContext(parameters.getRouteParameters());
-            IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx);
+        try (GraphHopperReference ghRef = acquireGH()) {
+            RouteSearchContext searchCntx = createSearchContext(ghRef.get(), parameters.getRouteParameters());
+            IsochroneMapBuilderFactory isochroneMapBuilderFactory = new IsochroneMapBuilderFactory(searchCntx, mIsochroneCache);
             result = isochroneMapBuilderFactory.buildMap(parameters);
-            endUseGH();
         } catch (Exception ex) {
-            endUseGH();
             if (DebugUtility.isDebug()) {
                 LOGGER.error(ex);
             }
@@ -1178,6 +1301,6 @@ public class RoutingProfile {
     }
 
     public int hashCode() {
-        return mGraphHopper.getGraphHopperStorage().getDirectory().getLocation().hashCode();
+        return getGraphhopper().getGraphHopperStorage().getDirectory().getLocation().hashCode();
     }
 }
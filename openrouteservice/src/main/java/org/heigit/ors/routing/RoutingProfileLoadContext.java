@@ -14,10 +14,12 @@
 package org.heigit.ors.routing;
 
 import com.graphhopper.reader.dem.ElevationProvider;
+import org.heigit.ors.routing.graphhopper.extensions.SharedOSMInputFile;
 
 public class RoutingProfileLoadContext {
 	// add here any other shared resources
 	private ElevationProvider elevationProvider = null;
+	private SharedOSMInputFile sharedOSMInputFile = null;
 	
 	public ElevationProvider getElevationProvider(){
 		return elevationProvider;
@@ -29,6 +31,14 @@ public class RoutingProfileLoadContext {
 		}
 	}
 
+	public SharedOSMInputFile getSharedOSMInputFile() {
+		return sharedOSMInputFile;
+	}
+
+	public void setSharedOSMInputFile(SharedOSMInputFile sharedOSMInputFile) {
+		this.sharedOSMInputFile = sharedOSMInputFile;
+	}
+
 	public void releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed() {
 		if (elevationProvider != null){
 			elevationProvider.release();
@@ -13,8 +13,6 @@
  */
 package org.heigit.ors.routing;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graphhopper.GHResponse;
 import com.graphhopper.util.DistanceCalc;
 import com.graphhopper.util.Helper;
@@ -28,15 +26,19 @@ import org.heigit.ors.centrality.CentralityRequest;
 import org.heigit.ors.centrality.CentralityResult;
 import org.heigit.ors.exceptions.*;
 import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneMapCollection;
 import org.heigit.ors.isochrones.IsochroneSearchParameters;
 import org.heigit.ors.kafka.ORSKafkaConsumerMessageSpeedUpdate;
 import org.heigit.ors.mapmatching.MapMatchingRequest;
 import org.heigit.ors.matrix.MatrixErrorCodes;
 import org.heigit.ors.matrix.MatrixRequest;
 import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.MatrixAlgorithmFactory;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.configuration.RoutingManagerConfiguration;
+import org.heigit.ors.routing.graphhopper.extensions.SharedOSMInputFile;
 import org.heigit.ors.routing.pathprocessors.ExtraInfoProcessor;
+import org.heigit.ors.services.isochrones.IsochronesServiceSettings;
 import org.heigit.ors.services.routing.RoutingServiceSettings;
 import org.heigit.ors.util.FormatUtility;
 import org.heigit.ors.util.RuntimeUtility;
@@ -47,9 +49,12 @@ import java.io.File;
 import java.io.FileWriter;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class RoutingProfileManager {
     private static final Logger LOGGER = Logger.getLogger(RoutingProfileManager.class.getName());
@@ -58,10 +63,9 @@ public class RoutingProfileManager {
     private RoutingProfilesCollection routeProfiles;
     private RoutingProfilesUpdater profileUpdater;
     private static RoutingProfileManager mInstance;
+    // shared by all requests, so that maximum_threads caps the threads of all running isochrone computations
+    private static ForkJoinPool isochronesPool;
     private boolean initComplete = false;
-    private final ObjectMapper mapper = new ObjectMapper();
-    private long kafkaMessagesProcessed = 0;
-    private long kafkaMessagesFailed = 0;
     public static final boolean KAFKA_DEBUG = false;
 
     public static synchronized RoutingProfileManager getInstance() {
@@ -81,7 +85,7 @@ public class RoutingProfileManager {
             routeProfiles = new RoutingProfilesCollection();
             int nRouteInstances = rmc.getProfiles().length;
 
-            RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+            RoutingProfileLoadContext loadCntx = createLoadContext();
             ExecutorService executor = Executors.newFixedThreadPool(RoutingServiceSettings.getInitializationThreads());
             ExecutorCompletionService<RoutingProfile> compService = new ExecutorCompletionService<>(executor);
 
@@ -148,7 +152,7 @@ public class RoutingProfileManager {
                     routeProfiles = new RoutingProfilesCollection();
                     int nRouteInstances = rmc.getProfiles().length;
 
-                    RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+                    RoutingProfileLoadContext loadCntx = createLoadContext();
                     ExecutorService executor = Executors.newFixedThreadPool(RoutingServiceSettings.getInitializationThreads());
                     ExecutorCompletionService<RoutingProfile> compService = new ExecutorCompletionService<>(executor);
 
@@ -209,11 +213,20 @@ public class RoutingProfileManager {
             routeProfiles.printStatistics(LOGGER);
     }
 
+    private RoutingProfileLoadContext createLoadContext() {
+        RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+        if (RoutingServiceSettings.getSharedOSMImport())
+            loadCntx.setSharedOSMInputFile(new SharedOSMInputFile(new File(RoutingServiceSettings.getSourceFile())));
+        return loadCntx;
+    }
+
     public void destroy() {
         if (profileUpdater != null)
             profileUpdater.destroy();
 
         routeProfiles.destroy();
+        MatrixAlgorithmFactory.shutdown();
+        shutdownIsochronesPool();
     }
 
     public RoutingProfilesCollection getProfiles() {
@@ -634,6 +647,83 @@ public class RoutingProfileManager {
         return rp.buildIsochrone(parameters);
     }
 
+    /**
+     * Builds the isochrones of all locations of a request. The locations are computed in parallel if allowed by the
+     * maximum_threads and maximum_threads_per_request settings of the isochrones service.
+     *
+     * @param parameters The search parameters of every location
+     * @return the isochrone maps in the order of the parameters
+     */
+    public IsochroneMapCollection buildIsochrones(List<IsochroneSearchParameters> parameters) throws Exception {
+        int threads = Math.min(parameters.size(), Math.min(IsochronesServiceSettings.getMaximumThreadsPerRequest(), IsochronesServiceSettings.getMaximumThreads()));
+        return buildIsochrones(parameters, this::buildIsochrone, threads, threads < 2 ? null : getIsochronesPool());
+    }
+
+    interface IsochroneBuilder {
+        IsochroneMap build(IsochroneSearchParameters parameters) throws Exception;
+    }
+
+    /**
+     * Builds the isochrones of all locations with at most the given number of locations computed at once.
+     *
+     * @param threads The maximum number of locations computed at once, below 2 the locations are computed in order
+     * @param pool    The pool running the workers if computed in parallel
+     * @return the isochrone maps in the order of the parameters
+     * @throws Exception the first exception thrown by a location, after which no further locations are started
+     */
+    static IsochroneMapCollection buildIsochrones(List<IsochroneSearchParameters> parameters, IsochroneBuilder builder, int threads, ForkJoinPool pool) throws Exception {
+        IsochroneMap[] maps = new IsochroneMap[parameters.size()];
+
+        if (threads < 2) {
+            for (int i = 0; i < maps.length; i++)
+                maps[i] = builder.build(parameters.get(i));
+        } else {
+            // every worker takes the next location until all are done, so that no more than threads locations are computed at once
+            AtomicInteger nextLocation = new AtomicInteger();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Callable<Void>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.add(() -> {
+                    int i;
+                    while (failure.get() == null && (i = nextLocation.getAndIncrement()) < maps.length) {
+                        try {
+                            maps[i] = builder.build(parameters.get(i));
+                        } catch (Throwable ex) {
+                            failure.compareAndSet(null, ex);
+                            throw ex;
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            pool.invokeAll(workers);
+            Throwable ex = failure.get();
+            if (ex instanceof Exception)
+                throw (Exception) ex;
+            if (ex instanceof Error)
+                throw (Error) ex;
+        }
+
+        IsochroneMapCollection isoMaps = new IsochroneMapCollection();
+        for (IsochroneMap map : maps)
+            isoMaps.add(map);
+        return isoMaps;
+    }
+
+    private static synchronized ForkJoinPool getIsochronesPool() {
+        if (isochronesPool == null)
+            isochronesPool = new ForkJoinPool(IsochronesServiceSettings.getMaximumThreads());
+        return isochronesPool;
+    }
+
+    private static synchronized void shutdownIsochronesPool() {
+        if (isochronesPool != null) {
+            isochronesPool.shutdownNow();
+            isochronesPool = null;
+        }
+    }
+
     public MatrixResult computeMatrix(MatrixRequest req) throws Exception {
         RoutingProfile rp = routeProfiles.getRouteProfile(req.getProfileType(), !req.getFlexibleMode());
 
@@ -666,41 +756,60 @@ public class RoutingProfileManager {
         return RoutingProfileManager.getInstance().initComplete;
     }
 
-    public long getKafkaMessagesProcessed() {
-        return this.kafkaMessagesProcessed;
-    }
-
-    public long getKafkaMessagesFailed() {
-        return this.kafkaMessagesFailed;
-    }
-
     /**
-     * Process message received via ORSKafkaConsumer.
+     * Process a batch of speed updates received via ORSKafkaConsumer.
      *
      * @param profile target profile according to configuration
-     * @param value   message value passed from KafkaConsumer
+     * @param updates speed updates passed from KafkaConsumer, at most one per edge and direction
+     * @return number of updates which could not be applied
      */
-    public void updateProfile(String profile, String value) {
+    public int updateProfile(String profile, Collection<ORSKafkaConsumerMessageSpeedUpdate> updates) {
+        if (KAFKA_DEBUG) {
+            for (ORSKafkaConsumerMessageSpeedUpdate msg : updates)
+                LOGGER.debug(String.format("kafka message for speed update received: %s (%s) => %s, duration: %s", msg.getEdgeId(), msg.isReverse(), msg.getSpeed(), msg.getDurationMin()));
+        }
+
         switch (profile) {
             case "driving-car":
             case "driving-hgv":
-                // profile specific processing
-                break;
-            case "test":
-                try {
-                    ORSKafkaConsumerMessageSpeedUpdate msg = mapper.readValue(value, ORSKafkaConsumerMessageSpeedUpdate.class);
-                    if (KAFKA_DEBUG)
-                        LOGGER.debug(String.format("kafka message for speed update received: %s (%s) => %s, duration: %s", msg.getEdgeId(), msg.isReverse(), msg.getSpeed(), msg.getDurationMin()));
-                    this.kafkaMessagesProcessed++;
-                } catch (JsonProcessingException e) {
-                    LOGGER.error(e);
-                    this.kafkaMessagesFailed++;
+                List<RoutingProfile> profiles = getRouteProfiles(RoutingProfileType.getFromString(profile));
+                if (profiles.isEmpty()) {
+                    LOGGER.error(String.format("kafka message received for profile %s which is not loaded", profile));
+                    return updates.size();
+                }
+                int failed = 0;
+                for (ORSKafkaConsumerMessageSpeedUpdate msg : updates) {
+                    boolean updated = true;
+                    for (RoutingProfile rp : profiles)
+                        updated &= rp.updateEdgeSpeed(msg.getEdgeId(), msg.isReverse(), msg.getSpeed(), msg.getDurationMin());
+                    if (!updated) {
+                        LOGGER.error(String.format("kafka speed update for invalid edge %s in profile %s", msg.getEdgeId(), profile));
+                        failed++;
+                    }
                 }
-                break;
+                return failed;
+            case "test":
+                return 0;
             default:
                 LOGGER.error(String.format("kafka message received for unknown profile %s", profile));
-                this.kafkaMessagesFailed++;
-                break;
+                return updates.size();
+        }
+    }
+
+    /**
+     * Get all loaded graphs of the given profile type, with and without CH.
+     */
+    private List<RoutingProfile> getRouteProfiles(int profileType) {
+        List<RoutingProfile> profiles = new ArrayList<>();
+        try {
+            for (boolean chEnabled : new boolean[] {true, false}) {
+                RoutingProfile rp = routeProfiles.getRouteProfile(profileType, chEnabled);
+                if (rp != null && !profiles.contains(rp))
+                    profiles.add(rp);
+            }
+        } catch (Exception ex) {
+            LOGGER.error(ex);
         }
+        return profiles;
     }
 }
@@ -61,6 +61,10 @@ public class RouteProfileConfiguration {
 
 	private double maximumSpeedLowerBound = 80;
 
+	private int maximumCentralityThreads = 1;
+
+	private int locationCacheSize = 0;
+
 	public RouteProfileConfiguration() {
 		extStorages = new HashMap<>();
 		graphBuilders = new HashMap<>();
@@ -101,6 +105,10 @@ public class RouteProfileConfiguration {
 		extent = rpc.extent;
 
 		maximumSpeedLowerBound = rpc.maximumSpeedLowerBound;
+
+		maximumCentralityThreads = rpc.maximumCentralityThreads;
+
+		locationCacheSize = rpc.locationCacheSize;
 	}
 
 	public Integer[] getProfilesTypes() {
@@ -398,4 +406,20 @@ public class RouteProfileConfiguration {
 	public double getMaximumSpeedLowerBound(){
 		return maximumSpeedLowerBound;
 	}
+
+	public void setMaximumCentralityThreads(int maximumCentralityThreads) {
+		this.maximumCentralityThreads = maximumCentralityThreads;
+	}
+
+	public int getMaximumCentralityThreads() {
+		return maximumCentralityThreads;
+	}
+
+	public void setLocationCacheSize(int locationCacheSize) {
+		this.locationCacheSize = locationCacheSize;
+	}
+
+	public int getLocationCacheSize() {
+		return locationCacheSize;
+	}
 }
\ No newline at end of file
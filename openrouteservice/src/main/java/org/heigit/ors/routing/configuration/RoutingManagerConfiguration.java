@@ -230,6 +230,12 @@ public class RoutingManagerConfiguration  {
 					case "maximum_speed_lower_bound":
 						profile.setMaximumSpeedLowerBound(Double.parseDouble(paramItem.getValue().toString()));
 						break;
+					case "maximum_centrality_threads":
+						profile.setMaximumCentralityThreads(Integer.parseInt(paramItem.getValue().toString()));
+						break;
+					case "location_cache_size":
+						profile.setLocationCacheSize(Integer.parseInt(paramItem.getValue().toString()));
+						break;
 					default:
 					}
 				}
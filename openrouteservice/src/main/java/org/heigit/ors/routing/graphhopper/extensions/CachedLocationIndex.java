@@ -0,0 +1,271 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.DistanceCalc;
+import com.graphhopper.util.Helper;
+import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.GHPoint3D;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Location index which remembers the snapped locations of recently requested coordinates, so that repeatedly requested
+ * locations such as depots do not have to be looked up in the underlying index again.
+ *
+ * The coordinates are quantized to {@link #PRECISION} degrees (about 0.1 m) and cached together with the edge filter.
+ * Only filters which merely check the access of an encoder can be compared between requests, lookups with any other
+ * filter bypass the cache. The search radius is not part of the key, as it is checked by the callers on the query
+ * distance of the result.
+ *
+ * As {@link com.graphhopper.routing.QueryGraph#lookup(List)} modifies the results, every lookup returns a new
+ * {@link QueryResult} created from the cached entry. The cache belongs to a single graph, so it is dropped together
+ * with the graph when that is replaced by an update.
+ */
+public class CachedLocationIndex implements LocationIndex {
+    public static final double PRECISION = 1e-6;
+
+    private final LocationIndex index;
+    private final Graph graph;
+    private final DistanceCalc distCalc = Helper.DIST_PLANE;
+    private final Map<Key, Entry> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachedLocationIndex(LocationIndex index, Graph graph, final int capacity) {
+        this.index = index;
+        this.graph = graph;
+        this.cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public QueryResult findClosest(double lat, double lon, EdgeFilter edgeFilter) {
+        Object filterKey = getFilterKey(edgeFilter);
+        if (filterKey == null)
+            return index.findClosest(lat, lon, edgeFilter);
+
+        Key key = new Key(Math.round(lat / PRECISION), Math.round(lon / PRECISION), filterKey);
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.createQueryResult(lat, lon);
+        }
+
+        misses.incrementAndGet();
+        QueryResult qr = index.findClosest(lat, lon, edgeFilter);
+        entry = new Entry(lat, lon, qr);
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+        return qr;
+    }
+
+    /**
+     * @return a key which is equal for filters accepting the same edges or null if this cannot be decided
+     */
+    static Object getFilterKey(EdgeFilter edgeFilter) {
+        if (edgeFilter == EdgeFilter.ALL_EDGES || edgeFilter instanceof DefaultEdgeFilter)
+            return edgeFilter;
+        if (edgeFilter instanceof EdgeFilterSequence) {
+            List<EdgeFilter> filters = ((EdgeFilterSequence) edgeFilter).getFilters();
+            List<Object> keys = new ArrayList<>(filters.size());
+            for (EdgeFilter filter : filters) {
+                Object filterKey = getFilterKey(filter);
+                if (filterKey == null)
+                    return null;
+                keys.add(filterKey);
+            }
+            return keys;
+        }
+        return null;
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public LocationIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public LocationIndex setResolution(int resolution) {
+        index.setResolution(resolution);
+        return this;
+    }
+
+    @Override
+    public LocationIndex prepareIndex() {
+        index.prepareIndex();
+        return this;
+    }
+
+    @Override
+    public LocationIndex setApproximation(boolean approxDist) {
+        index.setApproximation(approxDist);
+        return this;
+    }
+
+    @Override
+    public void setSegmentSize(int bytes) {
+        index.setSegmentSize(bytes);
+    }
+
+    @Override
+    public void query(BBox queryBBox, Visitor function) {
+        index.query(queryBBox, function);
+    }
+
+    @Override
+    public boolean loadExisting() {
+        return index.loadExisting();
+    }
+
+    @Override
+    public LocationIndex create(long byteCount) {
+        index.create(byteCount);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        index.flush();
+    }
+
+    @Override
+    public void close() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        index.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return index.isClosed();
+    }
+
+    @Override
+    public long getCapacity() {
+        return index.getCapacity();
+    }
+
+    private static final class Key {
+        private final long lat;
+        private final long lon;
+        private final Object filter;
+
+        Key(long lat, long lon, Object filter) {
+            this.lat = lat;
+            this.lon = lon;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return lat == other.lat && lon == other.lon && filter.equals(other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(lat);
+            result = 31 * result + Long.hashCode(lon);
+            return 31 * result + filter.hashCode();
+        }
+    }
+
+    /**
+     * The snapping of a looked up coordinate, without the query graph dependent state of a {@link QueryResult}.
+     */
+    private final class Entry {
+        private final double lat;
+        private final double lon;
+        private final int closestNode;
+        private final int edge;
+        private final int adjNode;
+        private final int wayIndex;
+        private final QueryResult.Position snappedPosition;
+        private final double queryDistance;
+
+        Entry(double lat, double lon, QueryResult qr) {
+            this.lat = lat;
+            this.lon = lon;
+            this.closestNode = qr.getClosestNode();
+            this.edge = qr.isValid() ? qr.getClosestEdge().getEdge() : -1;
+            this.adjNode = qr.isValid() ? qr.getClosestEdge().getAdjNode() : -1;
+            this.wayIndex = qr.getWayIndex();
+            this.snappedPosition = qr.getSnappedPosition();
+            this.queryDistance = qr.getQueryDistance();
+        }
+
+        QueryResult createQueryResult(double queryLat, double queryLon) {
+            QueryResult qr = new QueryResult(queryLat, queryLon);
+            if (closestNode == QueryResult.INVALID_NODE)
+                return qr;
+
+            qr.setClosestNode(closestNode);
+            qr.setClosestEdge(graph.getEdgeIteratorState(edge, adjNode));
+            qr.setWayIndex(wayIndex);
+            qr.setSnappedPosition(snappedPosition);
+            // for a coordinate of the same cell the snapped point is projected anew from the query point
+            qr.calcSnappedPoint(distCalc);
+            if (queryLat == lat && queryLon == lon) {
+                qr.setQueryDistance(queryDistance);
+            } else {
+                GHPoint3D snapped = qr.getSnappedPoint();
+                qr.setQueryDistance(distCalc.calcDist(queryLat, queryLon, snapped.lat, snapped.lon));
+            }
+            return qr;
+        }
+    }
+}
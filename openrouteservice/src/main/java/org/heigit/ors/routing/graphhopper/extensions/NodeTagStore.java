@@ -0,0 +1,203 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import com.graphhopper.storage.DAType;
+import com.graphhopper.storage.DataAccess;
+import com.graphhopper.storage.Directory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store for the tags of OSM nodes which are needed while processing the ways of an import.
+ * <p>
+ * Tag keys and values are replaced by ids of small dictionaries, the tags of a node are stored as a count followed by
+ * one int per tag holding the key id in the upper {@link #KEY_BITS} bits and the value id in the remaining bits. The
+ * node ids and the offsets of their tags are kept in a separate index, which is searched binary. As OSM files list
+ * their nodes ordered by id, the index is sorted already when the ways are read. Otherwise it is sorted on the first
+ * lookup, keeping the tags stored last for a node like a map would.
+ * <p>
+ * All data is kept in {@link DataAccess} objects of the given directory, so depending on its type it is kept in heap
+ * segments, off-heap or in memory-mapped files. The data is removed from the directory by {@link #clear()}.
+ */
+public class NodeTagStore {
+    private static final int KEY_BITS = 8;
+    private static final int VALUE_BITS = 32 - KEY_BITS;
+    private static final int MAX_KEYS = 1 << KEY_BITS;
+    private static final int MAX_VALUES = 1 << VALUE_BITS;
+    private static final int INDEX_ENTRY_BYTES = 12;
+
+    private final Directory dir;
+    private DataAccess index;
+    private DataAccess tags;
+
+    private final Map<String, Integer> keyIds = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    private int size;
+    private long tagsPointer;
+    private long lastId = Long.MIN_VALUE;
+    private boolean sorted = true;
+
+    public NodeTagStore(Directory dir) {
+        this(dir, dir.getDefaultType());
+    }
+
+    public NodeTagStore(Directory dir, DAType type) {
+        this.dir = dir;
+        this.index = dir.find("tmp_node_tags_index", type).create(1000);
+        this.tags = dir.find("tmp_node_tags", type).create(1000);
+    }
+
+    /**
+     * Store the tags of a node. Nodes without tags are not stored.
+     */
+    public void put(long osmId, Map<String, String> nodeTags) {
+        if (nodeTags.isEmpty())
+            return;
+
+        long indexPointer = (long) size * INDEX_ENTRY_BYTES;
+        index.ensureCapacity(indexPointer + INDEX_ENTRY_BYTES);
+        index.setInt(indexPointer, (int) (osmId >>> 32));
+        index.setInt(indexPointer + 4, (int) osmId);
+        index.setInt(indexPointer + 8, (int) (tagsPointer >>> 2));
+
+        tags.ensureCapacity(tagsPointer + 4L * (nodeTags.size() + 1));
+        tags.setInt(tagsPointer, nodeTags.size());
+        tagsPointer += 4;
+        for (Map.Entry<String, String> tag : nodeTags.entrySet()) {
+            int keyId = getId(tag.getKey(), keyIds, keys, MAX_KEYS);
+            int valueId = getId(tag.getValue(), valueIds, values, MAX_VALUES);
+            tags.setInt(tagsPointer, keyId << VALUE_BITS | valueId);
+            tagsPointer += 4;
+        }
+
+        if (osmId <= lastId)
+            sorted = false;
+        lastId = osmId;
+        size++;
+    }
+
+    private static int getId(String string, Map<String, Integer> ids, List<String> strings, int maxIds) {
+        Integer id = ids.get(string);
+        if (id == null) {
+            if (strings.size() == maxIds)
+                throw new IllegalStateException("Too many distinct node tag keys or values, at most " + maxIds + " are supported.");
+            id = strings.size();
+            ids.put(string, id);
+            strings.add(string);
+        }
+        return id;
+    }
+
+    /**
+     * @return the tags of the node or null if no tags are stored for it
+     */
+    public HashMap<String, String> get(long osmId) {
+        if (!sorted)
+            sortIndex();
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = getId(mid);
+            if (midId < osmId) {
+                low = mid + 1;
+            } else if (midId > osmId) {
+                high = mid - 1;
+            } else {
+                return getTags(mid);
+            }
+        }
+        return null;
+    }
+
+    private long getId(int entry) {
+        long indexPointer = (long) entry * INDEX_ENTRY_BYTES;
+        return (long) index.getInt(indexPointer) << 32 | (index.getInt(indexPointer + 4) & 0xFFFFFFFFL);
+    }
+
+    private HashMap<String, String> getTags(int entry) {
+        long pointer = (index.getInt((long) entry * INDEX_ENTRY_BYTES + 8) & 0xFFFFFFFFL) << 2;
+        int count = tags.getInt(pointer);
+        HashMap<String, String> nodeTags = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            pointer += 4;
+            int tag = tags.getInt(pointer);
+            nodeTags.put(keys.get(tag >>> VALUE_BITS), values.get(tag & (MAX_VALUES - 1)));
+        }
+        return nodeTags;
+    }
+
+    /**
+     * Reorder the index by node id. Of nodes stored more than once only the last stored tags are kept.
+     */
+    private void sortIndex() {
+        long[] ids = new long[size];
+        int[] pointers = new int[size];
+        for (int entry = 0; entry < size; entry++) {
+            ids[entry] = getId(entry);
+            pointers[entry] = index.getInt((long) entry * INDEX_ENTRY_BYTES + 8);
+        }
+        int[] order = IndirectSort.mergesort(0, size, (a, b) -> Long.compare(ids[a], ids[b]));
+
+        int sortedSize = 0;
+        for (int entry : order) {
+            if (sortedSize > 0 && ids[entry] == lastId)
+                sortedSize--;
+            lastId = ids[entry];
+            long indexPointer = (long) sortedSize * INDEX_ENTRY_BYTES;
+            index.setInt(indexPointer, (int) (lastId >>> 32));
+            index.setInt(indexPointer + 4, (int) lastId);
+            index.setInt(indexPointer + 8, pointers[entry]);
+            sortedSize++;
+        }
+        size = sortedSize;
+        sorted = true;
+    }
+
+    /**
+     * @return the number of nodes with stored tags
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes used by the stored tags and their index
+     */
+    public long getCapacity() {
+        return index.getCapacity() + tags.getCapacity();
+    }
+
+    /**
+     * Remove all stored tags together with their data from the directory.
+     */
+    public void clear() {
+        dir.remove(index);
+        dir.remove(tags);
+        keyIds.clear();
+        keys.clear();
+        valueIds.clear();
+        values.clear();
+        size = 0;
+    }
+}
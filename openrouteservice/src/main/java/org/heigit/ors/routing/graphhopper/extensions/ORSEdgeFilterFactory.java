@@ -18,6 +18,7 @@ import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.routing.util.EdgeFilterFactory;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.util.PMap;
 import com.vividsolutions.jts.geom.Polygon;
 import org.heigit.ors.routing.RouteSearchParameters;
@@ -46,7 +47,11 @@ public class ORSEdgeFilterFactory implements EdgeFilterFactory {
 
             /* Avoid areas */
             if (params.hasObj("avoid_areas")) {
-                edgeFilters.add(new AvoidAreasEdgeFilter((Polygon[]) params.getObj("avoid_areas")));
+                Polygon[] avoidAreas = (Polygon[]) params.getObj("avoid_areas");
+                if (params.hasObj("avoid_areas_index"))
+                    edgeFilters.add(new AvoidAreasEdgeFilter(avoidAreas, gs, (LocationIndex) params.getObj("avoid_areas_index")));
+                else
+                    edgeFilters.add(new AvoidAreasEdgeFilter(avoidAreas));
             }
     
             /* Heavy vehicle filter */
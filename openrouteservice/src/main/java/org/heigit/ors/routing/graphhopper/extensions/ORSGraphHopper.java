@@ -33,6 +33,7 @@ import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.CHProfile;
 import com.graphhopper.storage.ConditionalEdges;
 import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.QueryResult;
 import com.graphhopper.util.*;
 import com.graphhopper.util.exceptions.ConnectionNotFoundException;
@@ -60,6 +61,7 @@ import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCore;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.AvoidFeaturesEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
 import org.heigit.ors.routing.graphhopper.extensions.storages.BordersGraphStorage;
+import org.heigit.ors.routing.graphhopper.extensions.storages.EdgeSpeedOverlay;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSPMap;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.MaximumSpeedCalculator;
@@ -93,9 +95,14 @@ public class ORSGraphHopper extends GraphHopper {
 	private final CoreAlgoFactoryDecorator coreFactoryDecorator =  new CoreAlgoFactoryDecorator();
 	private final CoreLMAlgoFactoryDecorator coreLMFactoryDecorator = new CoreLMAlgoFactoryDecorator();
 	private final FastIsochroneFactory fastIsochroneFactory = new FastIsochroneFactory();
+	private final EdgeSpeedOverlay speedOverlay = new EdgeSpeedOverlay();
 
 	private double maximumSpeedLowerBound;
 
+	private int locationCacheSize = 0;
+	private CachedLocationIndex cachedLocationIndex;
+	private SharedOSMInputFile.Participant sharedOSMInput;
+
 	public ORSGraphHopper(GraphProcessContext procCntx) {
 		processContext = procCntx;
 		forDesktop();
@@ -120,6 +127,7 @@ public class ORSGraphHopper extends GraphHopper {
 		fastIsochroneFactory.init(args);
 		minNetworkSize = args.getInt("prepare.min_network_size", minNetworkSize);
 		minOneWayNetworkSize = args.getInt("prepare.min_one_way_network_size", minOneWayNetworkSize);
+		locationCacheSize = args.getInt("index.location_cache_size", locationCacheSize);
 		return ret;
 	}
 
@@ -144,9 +152,18 @@ public class ORSGraphHopper extends GraphHopper {
 		super.cleanUp();
 	}
 
+	/**
+	 * Let the OSM reader of this instance read the file together with the readers of other profiles
+	 */
+	public void setSharedOSMInput(SharedOSMInputFile.Participant sharedOSMInput) {
+		this.sharedOSMInput = sharedOSMInput;
+	}
+
 	@Override
 	protected DataReader createReader(GraphHopperStorage tmpGraph) {
-		return initDataReader(new ORSOSMReader(tmpGraph, processContext));
+		ORSOSMReader reader = new ORSOSMReader(tmpGraph, processContext);
+		reader.setSharedOSMInput(sharedOSMInput);
+		return initDataReader(reader);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -154,6 +171,9 @@ public class ORSGraphHopper extends GraphHopper {
 	public GraphHopper importOrLoad() {
 		GraphHopper gh = super.importOrLoad();
 
+		if (locationCacheSize > 0)
+			cachedLocationIndex = new CachedLocationIndex(getLocationIndex(), getGraphHopperStorage(), locationCacheSize);
+
 		if ((tmcEdges != null) && (osmId2EdgeIds !=null)) {
 			java.nio.file.Path path = Paths.get(gh.getGraphHopperLocation(), "edges_ors_traffic");
 
@@ -244,11 +264,11 @@ public class ORSGraphHopper extends GraphHopper {
 
 			RoutingTemplate routingTemplate;
 			if (ROUND_TRIP.equalsIgnoreCase(algoStr))
-				routingTemplate = new RoundTripRoutingTemplate(request, ghRsp, getLocationIndex(), getEncodingManager(), getMaxRoundTripRetries());
+				routingTemplate = new RoundTripRoutingTemplate(request, ghRsp, getSnappingIndex(), getEncodingManager(), getMaxRoundTripRetries());
 			else if (ALT_ROUTE.equalsIgnoreCase(algoStr))
-				routingTemplate = new AlternativeRoutingTemplate(request, ghRsp, getLocationIndex(), getEncodingManager());
+				routingTemplate = new AlternativeRoutingTemplate(request, ghRsp, getSnappingIndex(), getEncodingManager());
 			else
-				routingTemplate = new ViaRoutingTemplate(request, ghRsp, getLocationIndex(), getEncodingManager());
+				routingTemplate = new ViaRoutingTemplate(request, ghRsp, getSnappingIndex(), getEncodingManager());
 
 			EdgeFilter edgeFilter = edgeFilterFactory.createEdgeFilter(request.getAdditionalHints(), encoder, getGraphHopperStorage());
 			routingTemplate.setEdgeFilter(edgeFilter);
@@ -649,10 +669,11 @@ public class ORSGraphHopper extends GraphHopper {
 					}
 				}
 
-				for (CHProfile chProfile : chProfiles) {
-					for (FlagEncoder encoder : super.getEncodingManager().fetchEdgeEncoders()) {
-						calculateCellProperties(chProfile.getWeighting(), partitioningEdgeFilter, encoder, fastIsochroneFactory.getIsochroneNodeStorage(), fastIsochroneFactory.getCellStorage());
-					}
+				List<Weighting> weightings = new ArrayList<>(chProfiles.size());
+				for (CHProfile chProfile : chProfiles)
+					weightings.add(chProfile.getWeighting());
+				for (FlagEncoder encoder : super.getEncodingManager().fetchEdgeEncoders()) {
+					calculateCellProperties(weightings, partitioningEdgeFilter, encoder, fastIsochroneFactory.getIsochroneNodeStorage(), fastIsochroneFactory.getCellStorage());
 				}
 			}
 		}
@@ -786,6 +807,34 @@ public class ORSGraphHopper extends GraphHopper {
 	}
 
 
+	/**
+	 * Live speeds on top of the graph, see {@link org.heigit.ors.routing.graphhopper.extensions.weighting.TrafficSpeedCalculator}
+	 */
+	public final EdgeSpeedOverlay getSpeedOverlay() {
+		return speedOverlay;
+	}
+
+	/**
+	 * Index used to snap the locations of requests, which caches the snapped locations if enabled by
+	 * index.location_cache_size.
+	 */
+	public LocationIndex getSnappingIndex() {
+		return cachedLocationIndex != null ? cachedLocationIndex : getLocationIndex();
+	}
+
+	/**
+	 * @return the cache of snapped locations or null if it is disabled
+	 */
+	public CachedLocationIndex getLocationCache() {
+		return cachedLocationIndex;
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		speedOverlay.close();
+	}
+
 	/**
 	 * Partitioning
 	 */
@@ -814,12 +863,20 @@ public class ORSGraphHopper extends GraphHopper {
 		contour.calculateContour();
 	}
 
-	private void calculateCellProperties(Weighting weighting, EdgeFilter edgeFilter, FlagEncoder flagEncoder, IsochroneNodeStorage isochroneNodeStorage, CellStorage cellStorage){
+	/**
+	 * Calculate the cell properties of all weightings which have not been stored yet in a single pass over the cells.
+	 */
+	private void calculateCellProperties(List<Weighting> weightings, EdgeFilter edgeFilter, FlagEncoder flagEncoder, IsochroneNodeStorage isochroneNodeStorage, CellStorage cellStorage){
 		if (eccentricity == null)
 			eccentricity = new Eccentricity(getGraphHopperStorage(), getLocationIndex(), isochroneNodeStorage, cellStorage);
-		if(!eccentricity.loadExisting(weighting)) {
-			eccentricity.calcEccentricities(weighting, edgeFilter, flagEncoder);
-			eccentricity.calcBorderNodeDistances(weighting, edgeFilter, flagEncoder);
+		List<Weighting> missingWeightings = new ArrayList<>(weightings.size());
+		for (Weighting weighting : weightings) {
+			if (!eccentricity.loadExisting(weighting))
+				missingWeightings.add(weighting);
+		}
+		if (!missingWeightings.isEmpty()) {
+			eccentricity.calcEccentricities(missingWeightings, edgeFilter, flagEncoder);
+			eccentricity.calcBorderNodeDistances(missingWeightings, edgeFilter, flagEncoder);
 		}
 	}
 
@@ -16,10 +16,13 @@ package org.heigit.ors.routing.graphhopper.extensions;
 import com.carrotsearch.hppc.LongArrayList;
 import com.graphhopper.reader.ReaderNode;
 import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMInput;
 import com.graphhopper.reader.osm.OSMReader;
+import com.graphhopper.storage.DAType;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.IntsRef;
 import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.Helper;
 import com.graphhopper.util.shapes.GHPoint;
 import com.vividsolutions.jts.geom.Coordinate;
 import org.apache.log4j.Logger;
@@ -31,6 +34,9 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.builders.GraphStor
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.RoadAccessRestrictionsGraphStorageBuilder;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.WheelchairGraphStorageBuilder;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.util.*;
 import java.util.Map.Entry;
@@ -43,7 +49,7 @@ public class ORSOSMReader extends OSMReader {
 	private boolean processNodeTags;
 	private OSMDataReaderContext readerCntx;
 
-	private HashMap<Long, HashMap<String, String>> nodeTags = new HashMap<>();
+	private NodeTagStore nodeTags;
 
 	private boolean processGeom = false;
 	private boolean processSimpleGeom = false;
@@ -56,6 +62,9 @@ public class ORSOSMReader extends OSMReader {
 
 	private HashSet<String> extraTagKeys;
 
+	private SharedOSMInputFile.Participant sharedOSMInput;
+	private int workerThreads = 2;
+
 	public ORSOSMReader(GraphHopperStorage storage, GraphProcessContext procCntx) {
 		super(storage);
 
@@ -98,6 +107,45 @@ public class ORSOSMReader extends OSMReader {
 				extraTagKeys.add("motorcycle");
 			}
 		}
+
+		if (processNodeTags) {
+			String nodeTagsDataAccess = AppConfig.getGlobal().getParameter("services.routing", "node_tags_dataaccess");
+			if (Helper.isEmpty(nodeTagsDataAccess))
+				nodeTags = new NodeTagStore(storage.getDirectory());
+			else
+				nodeTags = new NodeTagStore(storage.getDirectory(), DAType.fromString(nodeTagsDataAccess));
+		}
+	}
+
+	/**
+	 * Read the OSM file together with the readers of other profiles instead of on its own
+	 */
+	public void setSharedOSMInput(SharedOSMInputFile.Participant sharedOSMInput) {
+		this.sharedOSMInput = sharedOSMInput;
+	}
+
+	@Override
+	public OSMReader setWorkerThreads(int numThreads) {
+		workerThreads = numThreads;
+		return super.setWorkerThreads(numThreads);
+	}
+
+	@Override
+	public void readGraph() throws IOException {
+		try {
+			super.readGraph();
+		} finally {
+			// the following passes of the other readers do not need to wait for this one
+			if (sharedOSMInput != null)
+				sharedOSMInput.leave();
+		}
+	}
+
+	@Override
+	protected OSMInput openOsmInputFile(File osmFile) throws XMLStreamException, IOException {
+		if (sharedOSMInput != null && osmFile.getAbsoluteFile().equals(sharedOSMInput.getSharedInputFile().getFile()))
+			return sharedOSMInput.open(workerThreads);
+		return super.openOsmInputFile(osmFile);
 	}
 
 	@Override
@@ -125,9 +173,7 @@ public class ORSOSMReader extends OSMReader {
 			}
 
 			// Now if we have tag data, we need to store it
-			if(tagValues.size() > 0) {
-				nodeTags.put(node.getId(), tagValues);
-			}
+			nodeTags.put(node.getId(), tagValues);
 		}
 		return node;
 	}
@@ -196,7 +242,7 @@ public class ORSOSMReader extends OSMReader {
 				HashMap<String, String> tagsForNode = nodeTags.get(id);
 
 				if(tagsForNode != null) {
-					tags.put(internalId, nodeTags.get(id));
+					tags.put(internalId, tagsForNode);
 				}
 			}
 		}
@@ -415,6 +461,10 @@ public class ORSOSMReader extends OSMReader {
 	protected void finishedReading() {
 		super.finishedReading();
 		procCntx.finish();
+		if (nodeTags != null) {
+			LOGGER.info(String.format("Stored the tags of %d nodes in %d bytes", nodeTags.size(), nodeTags.getCapacity()));
+			nodeTags.clear();
+		}
 	}
 
 	@Override
@@ -23,6 +23,7 @@ import com.graphhopper.util.PMap;
 import com.graphhopper.util.Parameters;
 import org.heigit.ors.routing.ProfileWeighting;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
+import org.heigit.ors.routing.graphhopper.extensions.storages.EdgeSpeedOverlay;
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.*;
 
@@ -33,12 +34,19 @@ import java.util.Map;
 
 public class ORSWeightingFactory implements WeightingFactory {
 	private Map<Object, TurnCostExtension> turnCostExtensionMap;
+	private EdgeSpeedOverlay speedOverlay;
 
 	public ORSWeightingFactory()
 	{
 		turnCostExtensionMap = new HashMap<>();
 	}
 
+	public ORSWeightingFactory(EdgeSpeedOverlay speedOverlay)
+	{
+		this();
+		this.speedOverlay = speedOverlay;
+	}
+
 	public Weighting createWeighting(HintsMap hintsMap, FlagEncoder encoder, GraphHopperStorage graphStorage) {
 
 		TraversalMode tMode = encoder.supports(TurnWeighting.class) ? TraversalMode.EDGE_BASED : TraversalMode.NODE_BASED;
@@ -93,6 +101,10 @@ public class ORSWeightingFactory implements WeightingFactory {
 			result.setSpeedCalculator(new ConditionalSpeedCalculator(result.getSpeedCalculator(), graphStorage, encoder));
 		}
 
+		if (hasLiveTraffic(hintsMap)) {
+			result.setSpeedCalculator(new TrafficSpeedCalculator(result.getSpeedCalculator(), speedOverlay, encoder));
+		}
+
 		//FIXME: turn cost weighting should probably be enabled only at query time as in GH
 		/*
 		if (encoder.supports(TurnWeighting.class) && !isFootBasedFlagEncoder(encoder) && graphStorage != null && !tMode.equals(TraversalMode.NODE_BASED)) {
@@ -163,6 +175,10 @@ public class ORSWeightingFactory implements WeightingFactory {
 		return hintsMap.getBool(ORSParameters.Weighting.TIME_DEPENDENT_SPEED, false);
 	}
 
+	private boolean hasLiveTraffic(HintsMap hintsMap) {
+		return speedOverlay != null && hintsMap.getBool(ORSParameters.Weighting.LIVE_TRAFFIC, false);
+	}
+
 	private boolean hasConditionalSpeed(FlagEncoder encoder, GraphHopperStorage graphStorage) {
 		return graphStorage.getEncodingManager().hasEncodedValue(EncodingManager.getKey(encoder, ConditionalEdges.SPEED));
 	}
@@ -0,0 +1,255 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.reader.ReaderElement;
+import com.graphhopper.reader.ReaderNode;
+import com.graphhopper.reader.ReaderRelation;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMFileHeader;
+import com.graphhopper.reader.osm.OSMInput;
+import com.graphhopper.reader.osm.OSMInputFile;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OSM file which is read once for all profiles importing it at the same time.
+ * <p>
+ * Every profile which may import the file registers as a {@link Participant} before building its graph and leaves
+ * once its graph has been read or loaded. A pass over the file is started as soon as every registered participant
+ * has opened the file, the decoded elements are then handed to all of them. Each participant receives its own copy of
+ * an element, as the readers modify the tags of the elements they process. The queue of a participant is bounded, so
+ * the pass proceeds at the speed of the slowest reader. Participants which register after a pass has started read the
+ * file in a later pass.
+ */
+public class SharedOSMInputFile {
+    private static final Logger LOGGER = Logger.getLogger(SharedOSMInputFile.class.getName());
+    private static final int QUEUE_CAPACITY = 50000;
+    private static final ReaderElement END_OF_FILE = new ReaderNode(-1, 0, 0);
+
+    private final File file;
+    private final Object lock = new Object();
+    private final List<Subscription> waitingSubscriptions = new ArrayList<>();
+    private int participants = 0;
+    private int passes = 0;
+
+    public SharedOSMInputFile(File file) {
+        this.file = file.getAbsoluteFile();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Participant register() {
+        synchronized (lock) {
+            participants++;
+        }
+        return new Participant();
+    }
+
+    /**
+     * @return the number of passes over the file which have been started
+     */
+    public int getPasses() {
+        synchronized (lock) {
+            return passes;
+        }
+    }
+
+    private void startPassIfComplete() {
+        List<Subscription> subscriptions;
+        int workerThreads;
+        synchronized (lock) {
+            if (waitingSubscriptions.isEmpty() || waitingSubscriptions.size() < participants)
+                return;
+            subscriptions = new ArrayList<>(waitingSubscriptions);
+            waitingSubscriptions.clear();
+            passes++;
+            workerThreads = subscriptions.get(0).workerThreads;
+        }
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info(String.format("Reading '%s' for %d profiles.", file.getName(), subscriptions.size()));
+        Thread thread = new Thread(() -> broadcast(subscriptions, workerThreads), "ORS-osm-reader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void broadcast(List<Subscription> subscriptions, int workerThreads) {
+        Exception error = null;
+        try (OSMInputFile input = new OSMInputFile(file).setWorkerThreads(workerThreads).open()) {
+            ReaderElement element;
+            while ((element = input.getNext()) != null) {
+                int last = subscriptions.size() - 1;
+                while (last >= 0 && subscriptions.get(last).closed)
+                    last--;
+                if (last < 0)
+                    break;
+                // the decoded element itself is handed over last, as the readers modify the elements they receive
+                for (int i = 0; i < last; i++) {
+                    if (!subscriptions.get(i).closed)
+                        subscriptions.get(i).put(copy(element));
+                }
+                subscriptions.get(last).put(element);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Reading the OSM file failed.", e);
+            error = e;
+        } finally {
+            for (Subscription subscription : subscriptions)
+                subscription.finish(error);
+        }
+    }
+
+    static ReaderElement copy(ReaderElement element) {
+        ReaderElement copy;
+        switch (element.getType()) {
+            case ReaderElement.NODE:
+                ReaderNode node = (ReaderNode) element;
+                copy = new ReaderNode(node.getId(), node.getLat(), node.getLon());
+                break;
+            case ReaderElement.WAY:
+                ReaderWay way = new ReaderWay(element.getId());
+                way.getNodes().addAll(((ReaderWay) element).getNodes());
+                copy = way;
+                break;
+            case ReaderElement.RELATION:
+                ReaderRelation relation = new ReaderRelation(element.getId());
+                for (ReaderRelation.Member member : ((ReaderRelation) element).getMembers())
+                    relation.add(member);
+                copy = relation;
+                break;
+            case ReaderElement.FILEHEADER:
+                copy = new OSMFileHeader();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown OSM element type " + element.getType());
+        }
+        for (Map.Entry<String, Object> tag : element.getTags().entrySet())
+            copy.setTag(tag.getKey(), tag.getValue());
+        return copy;
+    }
+
+    /**
+     * A profile reading the shared file.
+     */
+    public class Participant {
+        private boolean left = false;
+
+        private Participant() {
+        }
+
+        /**
+         * Open the file for the next pass of this participant. The pass starts once all other participants opened
+         * the file as well or left.
+         */
+        public OSMInput open(int workerThreads) {
+            Subscription subscription = new Subscription(workerThreads);
+            synchronized (lock) {
+                if (left)
+                    throw new IllegalStateException("Participant has already left");
+                waitingSubscriptions.add(subscription);
+            }
+            startPassIfComplete();
+            return subscription;
+        }
+
+        /**
+         * Stop taking part in the passes over the file. Further passes do not wait for this participant.
+         */
+        public void leave() {
+            synchronized (lock) {
+                if (left)
+                    return;
+                left = true;
+                participants--;
+            }
+            startPassIfComplete();
+        }
+
+        public SharedOSMInputFile getSharedInputFile() {
+            return SharedOSMInputFile.this;
+        }
+    }
+
+    private static class Subscription implements OSMInput {
+        private final BlockingQueue<ReaderElement> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final int workerThreads;
+        private volatile boolean closed = false;
+        private volatile Exception error;
+        private boolean eof = false;
+
+        Subscription(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        /**
+         * @return false if the subscription has been closed and does not take further elements
+         */
+        boolean put(ReaderElement element) throws InterruptedException {
+            while (!closed) {
+                if (queue.offer(element, 100, TimeUnit.MILLISECONDS))
+                    return true;
+            }
+            return false;
+        }
+
+        void finish(Exception error) {
+            this.error = error;
+            try {
+                put(END_OF_FILE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public ReaderElement getNext() {
+            if (eof)
+                return null;
+            ReaderElement element;
+            try {
+                element = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            if (element == END_OF_FILE) {
+                eof = true;
+                if (error != null)
+                    throw new IllegalStateException("Reading the OSM file failed", error);
+                return null;
+            }
+            return element;
+        }
+
+        @Override
+        public int getUnprocessedElements() {
+            return queue.size();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+}
@@ -23,7 +23,6 @@ import com.graphhopper.routing.lm.LandmarkSuggestion;
 import com.graphhopper.routing.util.HintsMap;
 import com.graphhopper.routing.weighting.AbstractWeighting;
 import com.graphhopper.routing.weighting.Weighting;
-import com.graphhopper.storage.CHGraphImpl;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.StorableProperties;
@@ -41,7 +40,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -58,6 +57,7 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
     private int activeLandmarkCount = 4;
 
     private final List<PrepareCoreLandmarks> preparations = new ArrayList<>();
+    private final List<CoreNodeIdMap> coreNodeIdMaps = new ArrayList<>();
     // input weighting list from configuration file
     // one such entry can result into multiple Weighting objects e.g. fastest & car,foot => fastest|car and fastest|foot
     private final List<String> weightingsAsStrings = new ArrayList<>();
@@ -68,7 +68,7 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
     private boolean disablingAllowed = true;
     private final List<String> lmSuggestionsLocations = new ArrayList<>(5);
     private int preparationThreads;
-    private ExecutorService threadPool;
+    private ForkJoinPool threadPool;
     private boolean logDetails = false;
     private CoreLMOptions coreLMOptions = new CoreLMOptions();
 
@@ -141,10 +141,13 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
     /**
      * This method changes the number of threads used for preparation on import. Default is 1. Make
      * sure that you have enough memory when increasing this number!
+     *
+     * The threads are shared by the preparations of the different weightings and landmark sets as well as by the
+     * landmarks within each of them.
      */
     public void setPreparationThreads(int preparationThreads) {
         this.preparationThreads = preparationThreads;
-        this.threadPool = java.util.concurrent.Executors.newFixedThreadPool(preparationThreads);
+        this.threadPool = new ForkJoinPool(preparationThreads);
     }
 
     /**
@@ -273,6 +276,9 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
             threadPool.shutdownNow();
             throw new RuntimeException(e);
         }
+        // store the mappings shared by the preparations of a weighting once all of them are done
+        for (CoreNodeIdMap coreNodeIdMap : coreNodeIdMaps)
+            coreNodeIdMap.flush();
         return prepared.get();
     }
 
@@ -301,7 +307,8 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
 
         for (Weighting weighting : getWeightings()) {
 
-            Map<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(ghStorage, weighting);
+            CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(ghStorage, weighting);
+            coreNodeIdMaps.add(coreNodeIdMap);
 
             for (LMEdgeFilterSequence edgeFilterSequence : coreLMOptions.getFilters()) {
                 Double maximumWeight = maximumWeights.get(weighting.getName());
@@ -314,6 +321,8 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
                         .setMaximumWeight(maximumWeight).setLogDetails(logDetails);
                 if (minNodes > 1)
                     tmpPrepareLM.setMinimumNodes(minNodes);
+                if (preparationThreads > 1)
+                    tmpPrepareLM.setLandmarkPool(threadPool);
                 preparations.add(tmpPrepareLM);
             }
         }
@@ -321,21 +330,12 @@ public class CoreLMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecora
 
     /**
      * This method creates a mapping of CoreNode ids to integers from 0 to numCoreNodes to save space.
-     * Otherwise we would have to store a lot of empty info
+     * Otherwise we would have to store a lot of empty info. The mapping is loaded if it has been stored before.
      */
-
-    public Map<Integer, Integer> createCoreNodeIdMap(GraphHopperStorage graph, Weighting weighting) {
-        CHGraphImpl core = graph.getCoreGraph(weighting);
-        HashMap<Integer, Integer> coreNodeIdMap = new HashMap<>();
-        int maxNode = graph.getNodes();
-        int coreNodeLevel = maxNode + 1;
-        int index = 0;
-        for (int i = 0; i < maxNode; i++){
-            if (core.getLevel(i) < coreNodeLevel)
-                continue;
-            coreNodeIdMap.put(i, index);
-            index++;
-        }
+    public CoreNodeIdMap createCoreNodeIdMap(GraphHopperStorage graph, Weighting weighting) {
+        CoreNodeIdMap coreNodeIdMap = new CoreNodeIdMap(graph.getDirectory(), AbstractWeighting.weightingToFileName(weighting));
+        if (!coreNodeIdMap.loadExisting() || coreNodeIdMap.getNodes() != graph.getNodes())
+            coreNodeIdMap.init(graph.getCoreGraph(weighting), graph.getNodes());
         return coreNodeIdMap;
     }
 
@@ -41,6 +41,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -82,15 +85,16 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
     private SpatialRuleLookup ruleLookup;
     private boolean logDetails = false;
     private LMEdgeFilterSequence landmarksFilter;
+    private ForkJoinPool landmarkPool;
     private int count = 0;
 
-    private Map<Integer, Integer> coreNodeIdMap;
+    private CoreNodeIdMap coreNodeIdMap;
     /**
      * 'to' and 'from' fit into 32 bit => 16 bit for each of them => 65536
      */
     static final long PRECISION = 1 << 16;
 
-    public CoreLandmarkStorage(Directory dir, GraphHopperStorage graph, Map<Integer, Integer> coreNodeIdMap, final Weighting weighting, LMEdgeFilterSequence landmarksFilter, int landmarks) {
+    public CoreLandmarkStorage(Directory dir, GraphHopperStorage graph, CoreNodeIdMap coreNodeIdMap, final Weighting weighting, LMEdgeFilterSequence landmarksFilter, int landmarks) {
         this.graph = graph;
         this.coreNodeIdMap = coreNodeIdMap;
         this.core = graph.getCoreGraph(weighting);
@@ -382,42 +386,72 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         }
 
         // 2) calculate weights for all landmarks -> 'from' and 'to' weight
-        for (int lmIdx = 0; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new RuntimeException("Thread was interrupted");
+        // the first landmark sets the subnetwork ids, all others only write their own columns of the weight rows
+        if (!calcLandmarkWeights(0, tmpLandmarkNodeIds[0], subnetworks, subnetworkId, blockedEdges))
+            return false;
+
+        if (landmarkPool == null || landmarkPool.getParallelism() < 2) {
+            for (int lmIdx = 1; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
+                calcLandmarkWeights(lmIdx, tmpLandmarkNodeIds[lmIdx], null, subnetworkId, blockedEdges);
             }
-            int lmNodeId = tmpLandmarkNodeIds[lmIdx];
-            CoreLandmarkExplorer explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
-            explorer.initFrom(lmNodeId, 0);
-            EdgeFilterSequence coreEdgeFilter = new EdgeFilterSequence();
-            coreEdgeFilter.add(new CoreAndBlockedEdgesFilter(encoder, false, true, blockedEdges));
-            coreEdgeFilter.add(landmarksFilter);
-            explorer.setFilter(coreEdgeFilter);
-            explorer.runAlgo(true, coreEdgeFilter);
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, fromOffset);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(tmpLandmarkNodeIds.length - 1);
+            for (int lmIdx = 1; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
+                final int idx = lmIdx;
+                final int lmNodeId = tmpLandmarkNodeIds[lmIdx];
+                tasks.add(ForkJoinTask.adapt(() -> calcLandmarkWeights(idx, lmNodeId, null, subnetworkId, blockedEdges)));
+            }
+            // invoking from within a worker of the pool is fine, as joining workers help with the pending tasks
+            landmarkPool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
 
-            // set subnetwork id to all explored nodes, but do this only for the first landmark
-            if (lmIdx == 0 && explorer.setSubnetworks(subnetworks, subnetworkId))
-                return false;
+        // TODO (Peter TODO) set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
+        landmarkIDs.add(tmpLandmarkNodeIds);
+        return true;
+    }
 
-            explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
-            explorer.initTo(lmNodeId, 0);
-            EdgeFilterSequence coreEdgeFilterBWD = new EdgeFilterSequence();
-            coreEdgeFilterBWD.add(new CoreAndBlockedEdgesFilter(encoder, true, false, blockedEdges));
-            coreEdgeFilterBWD.add(landmarksFilter);
-            explorer.setFilter(coreEdgeFilterBWD);
-            explorer.runAlgo(false, coreEdgeFilterBWD);
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, toOffset);
+    /**
+     * Calculates the 'from' and 'to' weights of a single landmark. If subnetworks is given, the subnetwork id is set for
+     * all explored nodes.
+     *
+     * @return false if the explored nodes already belong to another subnetwork
+     */
+    private boolean calcLandmarkWeights(int lmIdx, int lmNodeId, byte[] subnetworks, int subnetworkId, IntHashSet blockedEdges) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Thread was interrupted");
+        }
+        CoreLandmarkExplorer explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
+        explorer.initFrom(lmNodeId, 0);
+        EdgeFilterSequence coreEdgeFilter = new EdgeFilterSequence();
+        coreEdgeFilter.add(new CoreAndBlockedEdgesFilter(encoder, false, true, blockedEdges));
+        coreEdgeFilter.add(landmarksFilter);
+        explorer.setFilter(coreEdgeFilter);
+        explorer.runAlgo(true, coreEdgeFilter);
+        explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, fromOffset);
+
+        // set subnetwork id to all explored nodes, but do this only for the first landmark
+        if (subnetworks != null && explorer.setSubnetworks(subnetworks, subnetworkId))
+            return false;
 
-            if (lmIdx == 0 && explorer.setSubnetworks(subnetworks, subnetworkId))
-                return false;
+        explorer = new CoreLandmarkExplorer(graph, this, lmWeighting, traversalMode);
+        explorer.initTo(lmNodeId, 0);
+        EdgeFilterSequence coreEdgeFilterBWD = new EdgeFilterSequence();
+        coreEdgeFilterBWD.add(new CoreAndBlockedEdgesFilter(encoder, true, false, blockedEdges));
+        coreEdgeFilterBWD.add(landmarksFilter);
+        explorer.setFilter(coreEdgeFilterBWD);
+        explorer.runAlgo(false, coreEdgeFilterBWD);
+        explorer.initLandmarkWeights(lmIdx, lmNodeId, lmRowLength, toOffset);
 
-            if (logDetails && lmIdx % logOffset == 0 && LOGGER.isInfoEnabled())
-                LOGGER.info(String.format("Set landmarks weights [%s]. Progress %d%%", lmWeighting, (int) (100.0 * lmIdx / tmpLandmarkNodeIds.length)));
-        }
+        if (subnetworks != null && explorer.setSubnetworks(subnetworks, subnetworkId))
+            return false;
 
-        // TODO (Peter TODO) set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
-        landmarkIDs.add(tmpLandmarkNodeIds);
+        if (logDetails && lmIdx % Math.max(1, landmarks / 2) == 0 && LOGGER.isInfoEnabled())
+            LOGGER.info(String.format("Set landmarks weights [%s]. Progress %d%%", lmWeighting, (int) (100.0 * lmIdx / landmarks)));
         return true;
     }
 
@@ -503,6 +537,14 @@ public class CoreLandmarkStorage implements Storable<LandmarkStorage>{
         this.minimumNodes = minimumNodes;
     }
 
+    /**
+     * This method sets the pool used to calculate the weights of the landmarks of a subnetwork in parallel. Every
+     * running landmark holds the shortest path trees of two explorations, so make sure that you have enough memory.
+     */
+    public void setLandmarkPool(ForkJoinPool landmarkPool) {
+        this.landmarkPool = landmarkPool;
+    }
+
     /**
      * @see #setMinimumNodes(int)
      */
@@ -0,0 +1,173 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.core;
+
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.DataAccess;
+import com.graphhopper.storage.Directory;
+import com.graphhopper.storage.Storable;
+
+/**
+ * Maps the ids of the core nodes to the consecutive indices 0 .. size - 1 used as rows by the core landmark storages.
+ *
+ * The core nodes are marked in a bitset over all nodes of the graph and the index of a core node is its rank, i.e. the
+ * number of core nodes with a smaller id. The rank is stored for every word of the bitset and completed by counting
+ * the bits within the word, so that a lookup takes constant time without any boxing. Per node of the graph this needs
+ * 1.5 bits (bitset and ranks) instead of a map entry per core node.
+ *
+ * The bitset is stored next to the landmark data, the ranks are rebuilt from it when loading. Lookups only use the
+ * arrays in memory, the underlying data access is released once the bitset has been loaded or stored.
+ */
+public class CoreNodeIdMap implements Storable<CoreNodeIdMap> {
+    public static final int NO_CORE_NODE = -1;
+
+    private final DataAccess da;
+    private long[] words = new long[0];
+    private int[] ranks = new int[0];
+    private int nodes;
+    private int size;
+    private boolean stored;
+    private boolean closed;
+
+    public CoreNodeIdMap(Directory dir, String name) {
+        this.da = dir.find("landmarks_core_nodes_" + name);
+    }
+
+    /**
+     * Mark the nodes of the core, i.e. the nodes whose level is above the one of all contracted nodes.
+     */
+    public CoreNodeIdMap init(CHGraph core, int nodes) {
+        int coreNodeLevel = nodes + 1;
+        long[] bits = new long[wordCount(nodes)];
+        for (int node = 0; node < nodes; node++) {
+            if (core.getLevel(node) >= coreNodeLevel)
+                bits[node >>> 6] |= 1L << node;
+        }
+        setWords(bits, nodes);
+        return this;
+    }
+
+    private static int wordCount(int nodes) {
+        return (nodes + 63) >>> 6;
+    }
+
+    private void setWords(long[] bits, int nodes) {
+        this.words = bits;
+        this.nodes = nodes;
+        this.ranks = new int[bits.length];
+        int rank = 0;
+        for (int i = 0; i < bits.length; i++) {
+            ranks[i] = rank;
+            rank += Long.bitCount(bits[i]);
+        }
+        this.size = rank;
+    }
+
+    /**
+     * @return the index of the given core node or {@link #NO_CORE_NODE} if the node is not part of the core
+     */
+    public int get(int node) {
+        if (node < 0 || node >= nodes)
+            return NO_CORE_NODE;
+        int word = node >>> 6;
+        long bits = words[word];
+        long bit = 1L << node;
+        if ((bits & bit) == 0)
+            return NO_CORE_NODE;
+        return ranks[word] + Long.bitCount(bits & (bit - 1));
+    }
+
+    public boolean contains(int node) {
+        return get(node) != NO_CORE_NODE;
+    }
+
+    /**
+     * @return the number of core nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of nodes of the graph the map has been created for
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public boolean loadExisting() {
+        if (!da.loadExisting())
+            return false;
+
+        int storedNodes = da.getHeader(0);
+        long[] bits = new long[wordCount(storedNodes)];
+        for (int i = 0; i < bits.length; i++) {
+            long pointer = (long) i << 3;
+            bits[i] = ((long) da.getInt(pointer) << 32) | (da.getInt(pointer + 4) & 0xFFFFFFFFL);
+        }
+        int storedSize = da.getHeader(4);
+        da.close();
+        setWords(bits, storedNodes);
+        if (size != storedSize)
+            throw new IllegalStateException("Unable to load storage '" + da.getName() + "'. corrupt file or directory?");
+        stored = true;
+        return true;
+    }
+
+    /**
+     * The map is created by {@link #init(CHGraph, int)}, the storage is allocated by {@link #flush()}.
+     */
+    @Override
+    public CoreNodeIdMap create(long byteCount) {
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        if (stored)
+            return;
+        da.create(2000);
+        da.ensureCapacity(Math.max(8L * words.length, 8));
+        for (int i = 0; i < words.length; i++) {
+            long pointer = (long) i << 3;
+            da.setInt(pointer, (int) (words[i] >>> 32));
+            da.setInt(pointer + 4, (int) words[i]);
+        }
+        da.setHeader(0, nodes);
+        da.setHeader(4, size);
+        da.flush();
+        da.close();
+        stored = true;
+    }
+
+    @Override
+    public void close() {
+        da.close();
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the memory used by the bitset and the ranks
+     */
+    @Override
+    public long getCapacity() {
+        return 8L * words.length + 4L * ranks.length;
+    }
+}
@@ -31,7 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class does the preprocessing for the ALT algorithm (A* , landmark, triangle inequality) in the core.
@@ -53,7 +53,7 @@ public class PrepareCoreLandmarks extends AbstractAlgoPreparation {
     private int defaultActiveLandmarks;
     private LMEdgeFilterSequence landmarksFilter;
 
-    public PrepareCoreLandmarks(Directory dir, GraphHopperStorage graph, Map<Integer, Integer> coreNodeIdMap, Weighting weighting, LMEdgeFilterSequence landmarksFilter, int landmarks,
+    public PrepareCoreLandmarks(Directory dir, GraphHopperStorage graph, CoreNodeIdMap coreNodeIdMap, Weighting weighting, LMEdgeFilterSequence landmarksFilter, int landmarks,
                                 int activeLandmarks) {
         if (activeLandmarks > landmarks)
             throw new IllegalArgumentException("Default value for active landmarks " + activeLandmarks
@@ -106,6 +106,14 @@ public class PrepareCoreLandmarks extends AbstractAlgoPreparation {
         lms.setMinimumNodes(nodes);
     }
 
+    /**
+     * @see CoreLandmarkStorage#setLandmarkPool(ForkJoinPool)
+     */
+    public PrepareCoreLandmarks setLandmarkPool(ForkJoinPool pool) {
+        lms.setLandmarkPool(pool);
+        return this;
+    }
+
     public PrepareCoreLandmarks setLogDetails(boolean logDetails) {
         lms.setLogDetails(logDetails);
         return this;
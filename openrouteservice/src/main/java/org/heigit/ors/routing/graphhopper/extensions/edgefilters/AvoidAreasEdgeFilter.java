@@ -13,10 +13,22 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.edgefilters;
 
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.graphhopper.coll.GHBitSet;
+import com.graphhopper.coll.GHTBitSet;
 import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.PointList;
+import com.graphhopper.util.shapes.BBox;
 import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 
 import java.io.Serializable;
 
@@ -24,6 +36,9 @@ public class AvoidAreasEdgeFilter implements EdgeFilter {
 
 	private Envelope env; 
 	private Polygon[] polys;
+	private PreparedGeometry[] preparedPolys;
+	private GHBitSet blockedEdges;
+	private int edgeCount;
 	private DefaultCoordinateSequence coordSequence;
 	private GeometryFactory geomFactory = new GeometryFactory();
 	
@@ -56,18 +71,80 @@ public class AvoidAreasEdgeFilter implements EdgeFilter {
 
 			env = new Envelope(minX, maxX, minY, maxY);
 
+			preparedPolys = new PreparedGeometry[polys.length];
+			for (int i = 0; i < polys.length; i++)
+				preparedPolys[i] = PreparedGeometryFactory.prepare(polys[i]);
+
 			coordSequence = new DefaultCoordinateSequence(new Coordinate[1], 1);
 		}
 	}
 
+	/**
+	 * Creates an edge filter which determines the blocked edges of the graph once in advance. The candidate edges are
+	 * the ones adjacent to the nodes found by the location index around the envelope of the polygons, so that accept
+	 * only has to look up the edge. Edges which are not part of the graph, like virtual or shortcut edges, are tested
+	 * on their geometry. So are all edges if the index is not a {@link LocationIndexTree}.
+	 */
+	public AvoidAreasEdgeFilter(Polygon[] polys, Graph graph, LocationIndex locationIndex)
+	{
+		this(polys);
+
+		if (env != null && locationIndex instanceof LocationIndexTree)
+		{
+			edgeCount = graph.getAllEdges().length();
+			blockedEdges = findBlockedEdges(graph, (LocationIndexTree) locationIndex);
+		}
+	}
+
+	private GHBitSet findBlockedEdges(Graph graph, LocationIndexTree locationIndex)
+	{
+		// The index draws the segments of an edge into its tiles as 8-connected lines, which skip the tiles a segment
+		// only cuts at a corner. Such a tile is next to one the edge is drawn into, so the envelope is widened by a tile.
+		double deltaLat = locationIndex.getDeltaLat();
+		double deltaLon = locationIndex.getDeltaLon();
+		BBox bbox = new BBox(env.getMinX() - deltaLon, env.getMaxX() + deltaLon, env.getMinY() - deltaLat, env.getMaxY() + deltaLat);
+
+		final IntHashSet candidateNodes = new IntHashSet();
+		locationIndex.query(bbox, new LocationIndex.Visitor() {
+			@Override
+			public void onNode(int node) {
+				candidateNodes.add(node);
+			}
+		});
+
+		GHBitSet checkedEdges = new GHTBitSet();
+		GHBitSet blocked = new GHTBitSet();
+		EdgeExplorer explorer = graph.createEdgeExplorer();
+		for (IntCursor node : candidateNodes)
+		{
+			EdgeIterator iter = explorer.setBaseNode(node.value);
+			while (iter.next())
+			{
+				int edge = iter.getEdge();
+				if (checkedEdges.contains(edge))
+					continue;
+				checkedEdges.add(edge);
+				if (isBlocked(iter.fetchWayGeometry(3)))
+					blocked.add(edge);
+			}
+		}
+		return blocked;
+	}
+
 	@Override
 	public final boolean accept(EdgeIteratorState iter ) {
 		if (env == null)
 			return true;
 
-		boolean inEnv = false;
+		if (blockedEdges != null && iter.getEdge() < edgeCount)
+			return !blockedEdges.contains(iter.getEdge());
+
 		//   PointList pl = iter.fetchWayGeometry(2); // does not work
-		PointList pl = iter.fetchWayGeometry(3);
+		return !isBlocked(iter.fetchWayGeometry(3));
+	}
+
+	private boolean isBlocked(PointList pl) {
+		boolean inEnv = false;
 		int size = pl.getSize();
 
 		double eMinX = Double.MAX_VALUE;
@@ -126,19 +203,19 @@ public class AvoidAreasEdgeFilter implements EdgeFilter {
 
 				for (int i = 0; i < polys.length; i++)
 				{
-					Polygon poly = polys[i];
-					if (poly.contains(ls) || ls.crosses(poly))
+					PreparedGeometry preparedPoly = preparedPolys[i];
+					if (preparedPoly.intersects(ls) && (preparedPoly.contains(ls) || ls.crosses(polys[i])))
 					{
-						return false;
+						return true;
 					}
 				}
 			}
 			else
 			{
-				return false;
+				return true;
 			}
 		}
-		return true;
+		return false;
 	}
 
 	/**
@@ -17,6 +17,8 @@ import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.util.EdgeIteratorState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class EdgeFilterSequence implements EdgeFilter {
 
@@ -48,6 +50,10 @@ public class EdgeFilterSequence implements EdgeFilter {
 		filters.add(o);
 	}
 
+	public List<EdgeFilter> getFilters() {
+		return Collections.unmodifiableList(filters);
+	}
+
 	@Override
 	public String toString() {
 		return "EdgeFilter Sequence: " + name + " (" + filters.size() + ")";
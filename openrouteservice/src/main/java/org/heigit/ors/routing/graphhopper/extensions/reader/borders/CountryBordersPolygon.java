@@ -14,6 +14,8 @@
 package org.heigit.ors.routing.graphhopper.extensions.reader.borders;
 
 import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import org.apache.log4j.Logger;
 
 import java.io.InvalidObjectException;
@@ -22,12 +24,14 @@ public class CountryBordersPolygon {
     private static final Logger LOGGER = Logger.getLogger(CountryBordersPolygon.class);
     private String name;
     private MultiPolygon boundary;
+    private PreparedGeometry preparedBoundary;
     private Geometry boundaryLine;
     private double area = 0;
     private double minLat = 180f;
     private double minLon = 180f;
     private double maxLat = -180f;
     private double maxLon = -180f;
+    private final GeometryFactory gf = new GeometryFactory();
 
     /**
      * Construct a CountryBordersPolygon object used for determining if a way crosses a country border
@@ -38,7 +42,6 @@ public class CountryBordersPolygon {
      */
     public CountryBordersPolygon(String name, Geometry boundary) throws InvalidObjectException {
         this.name = name;
-        GeometryFactory gf = new GeometryFactory();
 
         if(boundary.getGeometryType().equals("Polygon"))
             this.boundary = gf.createMultiPolygon(new Polygon[] {(Polygon) boundary});
@@ -48,6 +51,7 @@ public class CountryBordersPolygon {
             LOGGER.error("Invalid geometry - " + boundary.getGeometryType());
             throw new InvalidObjectException("Invalid geometry for boundary " + name);
         }
+        this.preparedBoundary = PreparedGeometryFactory.prepare(this.boundary);
         this.boundaryLine = boundary.getBoundary();
         this.area = this.boundary.getArea();
         // calculate lat and lon values
@@ -83,15 +87,21 @@ public class CountryBordersPolygon {
         return this.boundary;
     }
 
+    /**
+     * Get the boundary prepared for repeated spatial predicates. The prepared geometry indexes the boundary segments on
+     * first use and can be shared between threads.
+     */
+    public PreparedGeometry getPreparedBoundary() {
+        return this.preparedBoundary;
+    }
+
     public boolean inBbox(Coordinate c) {
         return !(c.x < minLon || c.x > maxLon || c.y < minLat || c.y > maxLat);
     }
 
     public boolean inArea(Coordinate c) {
         if(!Double.isNaN(c.x) && !Double.isNaN(c.y) && inBbox(c)) {
-            GeometryFactory gf = new GeometryFactory();
-
-            return boundary.contains(gf.createPoint(c));
+            return preparedBoundary.contains(gf.createPoint(c));
         }
 
         return false;
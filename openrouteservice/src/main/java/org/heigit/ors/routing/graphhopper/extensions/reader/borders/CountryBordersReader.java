@@ -14,7 +14,11 @@
 package org.heigit.ors.routing.graphhopper.extensions.reader.borders;
 
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.index.strtree.STRtree;
 import org.heigit.ors.geojson.GeometryJSON;
 import org.heigit.ors.util.CSVUtility;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
@@ -26,6 +30,7 @@ import org.json.JSONObject;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CountryBordersReader {
     private static final Logger LOGGER = Logger.getLogger(CountryBordersReader.class);
@@ -34,6 +39,16 @@ public class CountryBordersReader {
     public static final String INTERNATIONAL_ID = "-1";
     public static final String KEY_PROPERTIES = "properties";
 
+    /**
+     * Size in degrees of the grid cells for which the countries of cells not touched by any border are cached
+     */
+    public static final double GRID_CELL_SIZE = 0.25;
+    private static final int GRID_COLUMNS = (int) Math.ceil(360 / GRID_CELL_SIZE);
+    private static final int GRID_ROWS = (int) Math.ceil(180 / GRID_CELL_SIZE);
+    private static final CountryBordersPolygon[] NO_COUNTRIES = new CountryBordersPolygon[0];
+    // marks grid cells crossed by a border, whose points have to be tested individually
+    private static final CountryBordersPolygon[] BORDER_CELL = new CountryBordersPolygon[0];
+
     private final String borderFile;
     private final String nameField;
     private final String hierarchyIdField;
@@ -47,6 +62,10 @@ public class CountryBordersReader {
 
     private HashMap<Long, CountryBordersHierarchy> hierarchies = new HashMap<>();
 
+    private volatile STRtree polygonIndex;
+    private final Map<Long, CountryBordersPolygon[]> gridCells = new ConcurrentHashMap<>();
+    private final GeometryFactory gf = new GeometryFactory();
+
     private static CountryBordersReader currentInstance = null;
 
     /**
@@ -100,6 +119,8 @@ public class CountryBordersReader {
     public void addHierarchy(Long id, CountryBordersHierarchy hierarchy) {
         if(!hierarchies.containsKey(id)) {
             hierarchies.put(id, hierarchy);
+            polygonIndex = null;
+            gridCells.clear();
         }
     }
 
@@ -261,23 +282,31 @@ public class CountryBordersReader {
      * Method for getting a list of country objects that the given point can be found within. This could be more than
      * one if the point is found in overlapping regions.
      *
+     * The countries of points in grid cells which are not crossed by any border are cached, so that only points close
+     * to a border need to be tested against the polygons.
+     *
      * @param c     The point that you want to know which country is in
      * @return      An array of CountryBorderPolygons that the point is within the geometry of.
      */
     public CountryBordersPolygon[] getCountry(Coordinate c) {
+        if(Double.isNaN(c.x) || Double.isNaN(c.y))
+            return NO_COUNTRIES;
+
+        long cell = getGridCell(c);
+        if(cell >= 0) {
+            CountryBordersPolygon[] cellCountries = gridCells.get(cell);
+            if(cellCountries == null) {
+                cellCountries = findCellCountries(cell);
+                gridCells.put(cell, cellCountries);
+            }
+            if(cellCountries != BORDER_CELL)
+                return cellCountries.clone();
+        }
+
         ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while(it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry)it.next();
-            CountryBordersHierarchy h =  pair.getValue();
-            if(h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for(CountryBordersPolygon cp : ps) {
-                    if(cp.inBbox(c) && cp.inArea(c)) {
-                        countries.add(cp);
-                    }
-                }
+        for(CountryBordersPolygon cp : getCandidateCountry(c)) {
+            if(cp.inArea(c)) {
+                countries.add(cp);
             }
         }
 
@@ -294,25 +323,86 @@ public class CountryBordersReader {
      * @return      An array of CountryBorderPolygons that the point is within the geometry of.
      */
     public CountryBordersPolygon[] getCandidateCountry(Coordinate c) {
-        ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while(it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry)it.next();
-            CountryBordersHierarchy h =  pair.getValue();
-            if(h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for(CountryBordersPolygon cp : ps) {
-                    if(cp.inBbox(c)) {
-                        countries.add(cp);
-                    }
-                }
+        if(Double.isNaN(c.x) || Double.isNaN(c.y))
+            return NO_COUNTRIES;
+
+        List<IndexedPolygon> candidates = queryPolygons(new Envelope(c));
+        ArrayList<CountryBordersPolygon> countries = new ArrayList<>(candidates.size());
+        for(IndexedPolygon candidate : candidates) {
+            if(candidate.hierarchy.inBbox(c) && candidate.polygon.inBbox(c)) {
+                countries.add(candidate.polygon);
             }
         }
 
         return countries.toArray(new CountryBordersPolygon[countries.size()]);
     }
 
+    /**
+     * Find the polygons whose bounding box intersects the given envelope, in the order of the hierarchies and their
+     * polygons.
+     */
+    private List<IndexedPolygon> queryPolygons(Envelope env) {
+        STRtree index = polygonIndex;
+        if(index == null)
+            index = buildPolygonIndex();
+
+        @SuppressWarnings("unchecked")
+        List<IndexedPolygon> result = index.query(env);
+        result.sort(Comparator.comparingInt(p -> p.order));
+        return result;
+    }
+
+    private synchronized STRtree buildPolygonIndex() {
+        if(polygonIndex != null)
+            return polygonIndex;
+
+        STRtree index = new STRtree();
+        int order = 0;
+        for(CountryBordersHierarchy h : hierarchies.values()) {
+            for(CountryBordersPolygon cp : h.getPolygons()) {
+                double[] bb = cp.getBBox();
+                index.insert(new Envelope(bb[0], bb[1], bb[2], bb[3]), new IndexedPolygon(h, cp, order++));
+            }
+        }
+        index.build();
+        polygonIndex = index;
+        return index;
+    }
+
+    /**
+     * @return the grid cell of the coordinate, or -1 for coordinates outside of the valid range
+     */
+    private static long getGridCell(Coordinate c) {
+        if(c.x < -180 || c.x > 180 || c.y < -90 || c.y > 90)
+            return -1;
+        // points on the antimeridian or the north pole belong to the last column or row, which contain their edges
+        long row = Math.min((long) Math.floor((c.y + 90) / GRID_CELL_SIZE), GRID_ROWS - 1);
+        long column = Math.min((long) Math.floor((c.x + 180) / GRID_CELL_SIZE), GRID_COLUMNS - 1);
+        return row * GRID_COLUMNS + column;
+    }
+
+    /**
+     * Determine the countries containing the whole of a grid cell. If a border runs through the cell, the marker
+     * BORDER_CELL is returned instead.
+     */
+    private CountryBordersPolygon[] findCellCountries(long cell) {
+        double minLat = (cell / GRID_COLUMNS) * GRID_CELL_SIZE - 90;
+        double minLon = (cell % GRID_COLUMNS) * GRID_CELL_SIZE - 180;
+        Envelope env = new Envelope(minLon, minLon + GRID_CELL_SIZE, minLat, minLat + GRID_CELL_SIZE);
+        Geometry cellGeometry = gf.toGeometry(env);
+
+        ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
+        for(IndexedPolygon candidate : queryPolygons(env)) {
+            PreparedGeometry boundary = candidate.polygon.getPreparedBoundary();
+            if(boundary.containsProperly(cellGeometry))
+                countries.add(candidate.polygon);
+            else if(boundary.intersects(cellGeometry))
+                return BORDER_CELL;
+        }
+
+        return countries.isEmpty() ? NO_COUNTRIES : countries.toArray(new CountryBordersPolygon[countries.size()]);
+    }
+
     /**
      * Get the unique identifier of the country (read from a CSV file in the constructor)
      *
@@ -444,6 +534,21 @@ public class CountryBordersReader {
         }
     }
 
+    /**
+     * Entry of the polygon index, remembering the hierarchy of the polygon and its position for ordering the results.
+     */
+    private static class IndexedPolygon {
+        private final CountryBordersHierarchy hierarchy;
+        private final CountryBordersPolygon polygon;
+        private final int order;
+
+        IndexedPolygon(CountryBordersHierarchy hierarchy, CountryBordersPolygon polygon, int order) {
+            this.hierarchy = hierarchy;
+            this.polygon = polygon;
+            this.order = order;
+        }
+    }
+
     /**
      * Holder class for storing information about a country read from the ids csv.
      */
@@ -0,0 +1,196 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory overlay of live edge speeds, e.g. received via Kafka, on top of the static speeds stored in the graph.
+ *
+ * Every edge direction has one int slot which packs the speed in km/h (lowest 8 bits) and the minute at which the
+ * entry expires (upper 24 bits, counted from the creation of the overlay). A slot of 0 means no live speed. The slots
+ * are kept in segments which are only allocated once an edge in their range receives an update, so that the overlay
+ * stays small as long as only a part of the network has live data. Updates, reads and the eviction of expired entries
+ * are all lock-free; the eviction uses compare-and-set so that it never drops a concurrent update.
+ *
+ * Expired entries are ignored by {@link #getSpeed(int, boolean, int)} right away and cleared by a background task
+ * which is started with the first update.
+ */
+public class EdgeSpeedOverlay {
+    private static final Logger LOGGER = Logger.getLogger(EdgeSpeedOverlay.class);
+
+    public static final int MAX_SPEED = 0xFF;
+    public static final int NO_SPEED = -1;
+
+    private static final int SEGMENT_BITS = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    // two slots per edge id, one per direction
+    private static final int SEGMENT_COUNT = (int) ((2L * Integer.MAX_VALUE + 1 + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+    private static final int MAX_MINUTE = 0xFFFFFF;
+    private static final long EVICTION_INTERVAL_SECONDS = 60;
+
+    private final long startMillis = System.currentTimeMillis();
+    private final AtomicReferenceArray<AtomicIntegerArray> segments = new AtomicReferenceArray<>(SEGMENT_COUNT);
+    private final AtomicInteger entries = new AtomicInteger();
+    // latest expiry minute of all entries set so far, no entry is valid from this minute on
+    private final AtomicInteger lastExpiry = new AtomicInteger();
+    private volatile ScheduledExecutorService evictionExecutor;
+    private boolean closed;
+
+    /**
+     * Set the live speed of an edge direction.
+     *
+     * @param edgeId      Id of the edge in the base graph
+     * @param reverse     Whether the speed applies against the storage direction of the edge
+     * @param speed       Speed in km/h, 0 closes the edge
+     * @param durationMin Validity of the speed in minutes, starting now. A duration of 0 removes the live speed.
+     */
+    public void setSpeed(int edgeId, boolean reverse, int speed, int durationMin) {
+        if (edgeId < 0)
+            throw new IllegalArgumentException("Invalid edge id " + edgeId);
+        if (speed < 0 || durationMin < 0)
+            throw new IllegalArgumentException("Speed and duration must not be negative");
+
+        int value = 0;
+        if (durationMin > 0) {
+            int expiry = (int) Math.min((long) getCurrentMinute() + durationMin + 1, MAX_MINUTE);
+            value = (expiry << 8) | Math.min(speed, MAX_SPEED);
+            lastExpiry.accumulateAndGet(expiry, Math::max);
+        }
+
+        long key = getKey(edgeId, reverse);
+        AtomicIntegerArray segment = getSegment(key, value != 0);
+        if (segment == null)
+            return;
+
+        int old = segment.getAndSet((int) (key & (SEGMENT_SIZE - 1)), value);
+        if ((old == 0) != (value == 0))
+            entries.addAndGet(value == 0 ? -1 : 1);
+
+        if (value != 0 && evictionExecutor == null)
+            startEviction();
+    }
+
+    /**
+     * Get the live speed of an edge direction.
+     *
+     * @param minute Current minute as returned by {@link #getCurrentMinute()}. Passing it in allows to evaluate a
+     *               whole search against the same point in time.
+     * @return The speed in km/h or {@link #NO_SPEED} if there is no valid live speed.
+     */
+    public int getSpeed(int edgeId, boolean reverse, int minute) {
+        if (edgeId < 0)
+            return NO_SPEED;
+        long key = getKey(edgeId, reverse);
+        AtomicIntegerArray segment = segments.get((int) (key >>> SEGMENT_BITS));
+        if (segment == null)
+            return NO_SPEED;
+        int value = segment.get((int) (key & (SEGMENT_SIZE - 1)));
+        if (value == 0 || (value >>> 8) <= minute)
+            return NO_SPEED;
+        return value & MAX_SPEED;
+    }
+
+    public int getCurrentMinute() {
+        return (int) Math.min((System.currentTimeMillis() - startMillis) / 60000, MAX_MINUTE);
+    }
+
+    /**
+     * Number of edge directions with a live speed, including expired ones which have not been evicted yet.
+     */
+    public int getEntries() {
+        return entries.get();
+    }
+
+    /**
+     * Whether there is no live speed which has not expired yet.
+     */
+    public boolean isEmpty() {
+        return isEmpty(getCurrentMinute());
+    }
+
+    /**
+     * Whether there is no live speed which is still valid at the given minute. Entries which have expired but have not
+     * been evicted yet do not count.
+     */
+    public boolean isEmpty(int minute) {
+        return entries.get() == 0 || lastExpiry.get() <= minute;
+    }
+
+    /**
+     * Clear all expired entries.
+     *
+     * @return Number of evicted entries
+     */
+    public int evictExpired() {
+        int minute = getCurrentMinute();
+        int evicted = 0;
+        for (int s = 0; s < SEGMENT_COUNT; s++) {
+            AtomicIntegerArray segment = segments.get(s);
+            if (segment == null)
+                continue;
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                int value = segment.get(i);
+                // a failed CAS means the slot has just been updated, so it is not expired anymore
+                if (value != 0 && (value >>> 8) <= minute && segment.compareAndSet(i, value, 0))
+                    evicted++;
+            }
+        }
+        if (evicted > 0)
+            entries.addAndGet(-evicted);
+        return evicted;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        if (evictionExecutor != null)
+            evictionExecutor.shutdownNow();
+    }
+
+    private static long getKey(int edgeId, boolean reverse) {
+        return ((long) edgeId << 1) | (reverse ? 1 : 0);
+    }
+
+    private AtomicIntegerArray getSegment(long key, boolean create) {
+        int index = (int) (key >>> SEGMENT_BITS);
+        AtomicIntegerArray segment = segments.get(index);
+        if (segment == null && create) {
+            segments.compareAndSet(index, null, new AtomicIntegerArray(SEGMENT_SIZE));
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+
+    private synchronized void startEviction() {
+        if (evictionExecutor != null || closed)
+            return;
+        evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ORS-EdgeSpeedOverlay-Eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictionExecutor.scheduleWithFixedDelay(() -> {
+            int evicted = evictExpired();
+            if (evicted > 0 && LOGGER.isDebugEnabled())
+                LOGGER.debug(String.format("Evicted %d expired live speeds, %d remaining", evicted, entries.get()));
+        }, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+}
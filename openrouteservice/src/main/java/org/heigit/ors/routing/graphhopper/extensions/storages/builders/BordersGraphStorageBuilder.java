@@ -27,7 +27,9 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.BordersGraphStorag
 import org.heigit.ors.util.ErrorLoggingUtility;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.MissingResourceException;
 
 /**
@@ -236,9 +238,10 @@ public class BordersGraphStorageBuilder extends AbstractGraphStorageBuilder {
                     // Check each country candidate
                     boolean found = false;
                     int countriesFound = 0;
+                    List<CountryBordersPolygon> containing = Arrays.asList(cbReader.getCountry(c));
 
                     for(CountryBordersPolygon cbp : countries) {
-                        if (cbp.inArea(c)) {
+                        if (containing.contains(cbp)) {
                             found = true;
                             countriesFound++;
                             if(!temp.contains(cbp)) {
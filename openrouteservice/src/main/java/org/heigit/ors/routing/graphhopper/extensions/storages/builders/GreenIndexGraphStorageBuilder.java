@@ -17,28 +17,19 @@ import com.graphhopper.GraphHopper;
 import com.graphhopper.reader.ReaderWay;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
-import com.graphhopper.util.Helper;
-import org.apache.log4j.Logger;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphStorage;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.DoubleToIntFunction;
 
 /**
  * Created by lliu on 13/03/2017.
  */
 public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
-    private static final Logger LOGGER = Logger.getLogger(GreenIndexGraphStorageBuilder.class.getName());
-
     private GreenIndexGraphStorage storage;
-    private Map<Long, Double> greenIndices = new HashMap<>();
+    private OsmIdLevels greenIndices;
     private static final int TOTAL_LEVEL = 64;
     private static final int DEFAULT_LEVEL = TOTAL_LEVEL - 1;
-    private Map<Byte, SlotRange> slots = new HashMap<>(TOTAL_LEVEL);
+    private SlotRange[] slots = new SlotRange[TOTAL_LEVEL];
 
     @Override
     public GraphExtension init(GraphHopper graphhopper) throws Exception {
@@ -47,56 +38,22 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
 
         // TODO Check if the _greenIndexFile exists
         String csvFile = parameters.get("filepath");
-        readGreenIndicesFromCSV(csvFile);
-        prepareGreenIndexSlots();
+        greenIndices = OsmIdLevels.load(csvFile, parameters.get("binary_filepath"), OsmIdLevels.DETECT_SEPARATOR, this::prepareGreenIndexSlots);
         storage = new GreenIndexGraphStorage();
 
         return storage;
     }
 
-    private void prepareGreenIndexSlots() {
-        double max = Collections.max(greenIndices.values());
-        double min = Collections.min(greenIndices.values());
+    private DoubleToIntFunction prepareGreenIndexSlots(OsmIdLevels.CSVValues values) {
+        double max = values.getMax();
+        double min = values.getMin();
         double step = (max - min) / TOTAL_LEVEL;
         // Divide the range of raw green index values into TOTAL_LEVEL,
         // then map the raw value to [0..TOTAL_LEVEL - 1]
-        for (byte i = 0; i < TOTAL_LEVEL; i++) {
-            slots.put(i, new SlotRange(min + i * step, min + (i + 1) * step));
+        for (int i = 0; i < TOTAL_LEVEL; i++) {
+            slots[i] = new SlotRange(min + i * step, min + (i + 1) * step);
         }
-    }
-
-    private void readGreenIndicesFromCSV(String csvFile) throws IOException {
-        try (BufferedReader csvBuffer = new BufferedReader(new FileReader(csvFile))) {
-            String row;
-            // Jump the header line
-            row = csvBuffer.readLine();
-            char separator = row.contains(";") ? ';': ',';
-            String[] rowValues = new String[2];
-
-            while ((row = csvBuffer.readLine()) != null)  {
-                if (!parseCSVrow(row, separator, rowValues))
-                	continue;
-
-                greenIndices.put(Long.parseLong(rowValues[0]), Double.parseDouble(rowValues[1]));
-            }
-        } catch (IOException openFileEx) {
-            LOGGER.error(openFileEx.getStackTrace());
-            throw openFileEx;
-        }
-    }
-
-    private boolean parseCSVrow(String row, char separator,  String[] rowValues) {
-        if (Helper.isEmpty(row))
-        	return false;
-
-        int pos = row.indexOf(separator);
-        if (pos > 0) {
-        	rowValues[0] = row.substring(0, pos).trim();
-        	rowValues[1] = row.substring(pos+1, row.length()).trim();
-        	// read, check and push "osm_id" and "ungreen_factor" values
-            return !Helper.isEmpty(rowValues[0]) && !Helper.isEmpty(rowValues[1]);
-        }
-       	return false;
+        return gi -> calcGreenIndex(gi, min, step);
     }
 
     @Override
@@ -106,7 +63,11 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
 
     @Override
     public void processEdge(ReaderWay way, EdgeIteratorState edge) {
-        storage.setEdgeValue(edge.getEdge(), calcGreenIndex(way.getId()));
+        // No such @id key in the _greenIndices, or the value of it is null
+        // We set its green level to TOTAL_LEVEL/2 indicating the middle value for such cases
+        // TODO this DEFAULT_LEVEL should be put in the ors-config.json file and
+        // injected back in the code
+        storage.setEdgeValue(edge.getEdge(), (byte) greenIndices.get(way.getId(), DEFAULT_LEVEL));
     }
 
     private class SlotRange {
@@ -124,21 +85,15 @@ public class GreenIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
         }
     }
 
-    private byte calcGreenIndex(long id) {
-        Double gi = greenIndices.get(id);
-
-        // No such @id key in the _greenIndices, or the value of it is null
-        // We set its green level to TOTAL_LEVEL/2 indicating the middle value for such cases
-        // TODO this DEFAULT_LEVEL should be put in the ors-config.json file and
-        // injected back in the code
-        if (gi == null)
-            return (byte) (DEFAULT_LEVEL);
-
-        for (Map.Entry<Byte, SlotRange> s : slots.entrySet()) {
-            if (s.getValue().within(gi))
-                return s.getKey();
+    private int calcGreenIndex(double gi, double min, double step) {
+        // The value falls into the slot of its offset from the minimum, or into one of the neighbouring slots due to
+        // rounding. As the slots share their bounds, the first slot containing the value is the one to use.
+        int slot = (int) Math.max(0, Math.min(TOTAL_LEVEL - 1, Math.floor((gi - min) / step)));
+        for (int i = Math.max(0, slot - 1); i <= Math.min(TOTAL_LEVEL - 1, slot + 1); i++) {
+            if (slots[i].within(gi))
+                return i;
         }
-        return (byte) (DEFAULT_LEVEL);
+        return DEFAULT_LEVEL;
     }
 
     @Override
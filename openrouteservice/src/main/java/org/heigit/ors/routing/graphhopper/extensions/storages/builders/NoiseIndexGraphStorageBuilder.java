@@ -17,25 +17,14 @@ import com.graphhopper.GraphHopper;
 import com.graphhopper.reader.ReaderWay;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
-import com.graphhopper.util.Helper;
-
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
-import org.apache.log4j.Logger;
 import org.heigit.ors.routing.graphhopper.extensions.storages.NoiseIndexGraphStorage;
 
 /**
  * Created by ZWang on 13/06/2017.
  */
 public class NoiseIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
-    private static final Logger LOGGER = Logger.getLogger(NoiseIndexGraphStorageBuilder.class.getName());
-
     private NoiseIndexGraphStorage storage;
-    private Map<Long, Integer> osmId2noiseLevel = new HashMap<>();
+    private OsmIdLevels osmId2noiseLevel;
     // currently noise level is only from 0 to 3
     private static final int MAX_LEVEL = 8;
 
@@ -46,41 +35,18 @@ public class NoiseIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
 
         // TODO Check if the _noiseIndexFile exists
         String csvFile = parameters.get("filepath");
-        readNoiseIndicesFromCSV(csvFile);
+        osmId2noiseLevel = OsmIdLevels.load(csvFile, parameters.get("binary_filepath"), ',', values -> NoiseIndexGraphStorageBuilder::toNoiseLevel);
         storage = new NoiseIndexGraphStorage();
 
         return storage;
     }
 
-    private void readNoiseIndicesFromCSV(String csvFile) throws IOException {
-        try (BufferedReader csvBuffer = new BufferedReader(new FileReader(csvFile))) {
-            // Jump the header line
-            String row = csvBuffer.readLine();
-            String[] rowValues = new String[2];
-            while ((row = csvBuffer.readLine()) != null) {
-                if (!parseCSVrow(row, rowValues)) 
-                	continue;
-                
-                osmId2noiseLevel.put(Long.parseLong(rowValues[0]), Integer.parseInt(rowValues[1]));
-            }
-        } catch (IOException openFileEx) {
-            LOGGER.error(openFileEx.getStackTrace());
-            throw openFileEx;
-        }
-    }
-
-    private boolean parseCSVrow(String row,  String[] rowValues) {
-        if (Helper.isEmpty(row))
-        	return false;
-        
-        int pos = row.indexOf(',');
-        if (pos > 0) {
-        	rowValues[0] = row.substring(0, pos).trim();
-        	rowValues[1] = row.substring(pos+1, row.length()).trim();
-        	// read, check and push "osm_id" and "noise level" values
-            return !Helper.isEmpty(rowValues[0]) && !Helper.isEmpty(rowValues[1]);
-        }
-        return false;
+    private static int toNoiseLevel(double value) {
+        int level = (int) value;
+        if (level != value)
+            throw new NumberFormatException("The noise level " + value + " is not an integer.");
+        // larger levels are kept as such to fail when they are used
+        return Math.max(0, Math.min(level, Byte.MAX_VALUE));
     }
 
     @Override
@@ -95,16 +61,13 @@ public class NoiseIndexGraphStorageBuilder extends AbstractGraphStorageBuilder {
     }
 
     private byte getNoiseLevel(long id) {
-        Integer gi = osmId2noiseLevel.get(id);
-
         // No such @id key in the _noiseIndices, or the value of it is null
         // We set its noise level to zero (no noise)
-        if (gi == null)
-            return (byte) (0);
+        int gi = osmId2noiseLevel.get(id, 0);
         if (gi > MAX_LEVEL)
         	throw new AssertionError("The noise level of osm way, id = "+ id + " is " + gi +", which is larger than than max level!");
         
-        return (byte) (gi.intValue());
+        return (byte) gi;
     }
 
     @Override
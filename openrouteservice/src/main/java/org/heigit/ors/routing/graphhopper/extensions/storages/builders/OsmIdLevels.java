@@ -0,0 +1,419 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.graphhopper.util.Helper;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.Function;
+
+/**
+ * Levels of OSM ways read from a csv file of "osm_id,value" rows, as used by the green and noise index storages.
+ * <p>
+ * The ids are kept sorted in a primitive array together with a byte array of their levels and are looked up by binary
+ * search. The csv file is parsed in chunks by several threads. Optionally the levels are saved to a binary file, which
+ * following imports map into memory instead of parsing the csv file again as long as the csv file is unchanged.
+ */
+public class OsmIdLevels {
+    private static final Logger LOGGER = Logger.getLogger(OsmIdLevels.class.getName());
+
+    public static final char DETECT_SEPARATOR = 0;
+
+    private static final int MAGIC = 0x4F49444C;
+    // version 2 keeps the level of the last row of duplicate ids
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    // entries per memory-mapped segment, keeping the id segments below the 2 GB limit of a mapping
+    private static final int SEGMENT_BITS = 27;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+    private static final int CHUNK_BYTES = 1 << 25;
+    private static final int MAX_ROW_BYTES = 1 << 16;
+    private static final int LEVEL_BITS = 8;
+    private static final long MAX_ID = Long.MAX_VALUE >> LEVEL_BITS;
+
+    private final LongBuffer[] ids;
+    private final ByteBuffer[] levels;
+    private final long size;
+
+    private OsmIdLevels(LongBuffer[] ids, ByteBuffer[] levels, long size) {
+        this.ids = ids;
+        this.levels = levels;
+        this.size = size;
+    }
+
+    /**
+     * Load the levels from the binary file if it has been created from the current csv file, otherwise read the csv
+     * file and save the levels to the binary file.
+     *
+     * @param csvFile       csv file with a header row and "osm_id,value" rows
+     * @param binaryFile    binary file of the levels, or null to always read the csv file
+     * @param separator     separator of the csv columns, or {@link #DETECT_SEPARATOR} to use ';' if the header contains
+     *                      one and ',' otherwise
+     * @param levelFunction creates the function which maps the values to levels from the parsed values
+     */
+    public static OsmIdLevels load(String csvFile, String binaryFile, char separator, Function<CSVValues, DoubleToIntFunction> levelFunction) throws IOException {
+        File csv = new File(csvFile);
+        if (!Helper.isEmpty(binaryFile)) {
+            OsmIdLevels levels = loadBinary(new File(binaryFile), csv);
+            if (levels != null) {
+                LOGGER.info("Loaded " + levels.size() + " levels from " + binaryFile);
+                return levels;
+            }
+        }
+
+        CSVValues values = readCSV(csv, separator);
+        OsmIdLevels levels = values.toLevels(levelFunction.apply(values));
+        LOGGER.info("Read " + levels.size() + " levels from " + csvFile);
+
+        if (!Helper.isEmpty(binaryFile)) {
+            try {
+                levels.save(new File(binaryFile), csv);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to save the levels to " + binaryFile + ": " + e.getMessage());
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * @return the level of the way or the default level if the way is not listed
+     */
+    public int get(long osmId, int defaultLevel) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long midId = ids[(int) (mid >>> SEGMENT_BITS)].get((int) (mid & SEGMENT_MASK));
+            if (midId < osmId) {
+                low = mid + 1;
+            } else if (midId > osmId) {
+                high = mid - 1;
+            } else {
+                return levels[(int) (mid >>> SEGMENT_BITS)].get((int) (mid & SEGMENT_MASK));
+            }
+        }
+        return defaultLevel;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Parse the csv file in chunks of lines in parallel. The first line is regarded as header.
+     */
+    public static CSVValues readCSV(File csvFile, char separator) throws IOException {
+        return readCSV(csvFile, separator, CHUNK_BYTES);
+    }
+
+    static CSVValues readCSV(File csvFile, char separator, int chunkBytes) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(csvFile, "r"); FileChannel channel = file.getChannel()) {
+            String header = file.readLine();
+            if (header == null)
+                return new CSVValues(new ArrayList<>());
+            if (separator == DETECT_SEPARATOR)
+                separator = header.contains(";") ? ';' : ',';
+            long dataStart = file.getFilePointer();
+            long length = channel.size();
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            ExecutorService threadPool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<CSVChunk>> futures = new ArrayList<>();
+                for (long start = dataStart; start < length; start += chunkBytes) {
+                    final long chunkStart = start;
+                    final long chunkEnd = Math.min(length, start + chunkBytes);
+                    final char chunkSeparator = separator;
+                    futures.add(threadPool.submit(() -> parseChunk(channel, chunkStart, chunkEnd, dataStart, chunkSeparator)));
+                }
+                List<CSVChunk> chunks = new ArrayList<>(futures.size());
+                for (Future<CSVChunk> future : futures)
+                    chunks.add(future.get());
+                return new CSVValues(chunks);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + csvFile, e);
+            } finally {
+                threadPool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parse the rows starting within the given range of the file. A row crossing the end of the range belongs to the
+     * chunk it starts in.
+     */
+    private static CSVChunk parseChunk(FileChannel channel, long start, long end, long dataStart, char separator) throws IOException {
+        long mapEnd = Math.min(channel.size(), end + MAX_ROW_BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapEnd - start);
+        int chunkLength = (int) (end - start);
+        int pos = 0;
+        if (start > dataStart) {
+            // the row starting before the chunk belongs to the previous one
+            byte previous = channel.map(FileChannel.MapMode.READ_ONLY, start - 1, 1).get(0);
+            if (previous != '\n') {
+                while (pos < buffer.limit() && buffer.get(pos) != '\n')
+                    pos++;
+                pos++;
+            }
+        }
+
+        CSVChunk chunk = new CSVChunk();
+        byte[] row = new byte[256];
+        while (pos < chunkLength) {
+            int rowLength = 0;
+            while (pos < buffer.limit() && buffer.get(pos) != '\n') {
+                if (rowLength == row.length)
+                    row = Arrays.copyOf(row, row.length * 2);
+                row[rowLength++] = buffer.get(pos++);
+            }
+            if (pos == buffer.limit() && mapEnd < channel.size())
+                throw new IOException("Row exceeds " + MAX_ROW_BYTES + " bytes at position " + (start + pos));
+            pos++;
+            parseRow(row, rowLength, separator, chunk);
+        }
+        return chunk;
+    }
+
+    private static void parseRow(byte[] row, int length, char separator, CSVChunk chunk) {
+        int pos = -1;
+        for (int i = 0; i < length; i++) {
+            if (row[i] == separator) {
+                pos = i;
+                break;
+            }
+        }
+        // read, check and push "osm_id" and value
+        if (pos > 0) {
+            String id = new String(row, 0, pos, StandardCharsets.ISO_8859_1).trim();
+            String value = new String(row, pos + 1, length - pos - 1, StandardCharsets.ISO_8859_1).trim();
+            if (!Helper.isEmpty(id) && !Helper.isEmpty(value))
+                chunk.add(Long.parseLong(id), Double.parseDouble(value));
+        }
+    }
+
+    /**
+     * Save the levels to a binary file together with the size and modification time of the csv file they were read
+     * from.
+     */
+    public void save(File binaryFile, File csvFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw"); FileChannel channel = file.getChannel()) {
+            file.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(size).putLong(csvFile.length()).putLong(csvFile.lastModified());
+            header.flip();
+            channel.write(header);
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            for (long i = 0; i < size; i++) {
+                if (buffer.remaining() < Long.BYTES)
+                    writeBuffer(channel, buffer);
+                buffer.putLong(ids[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK)));
+            }
+            for (long i = 0; i < size; i++) {
+                if (!buffer.hasRemaining())
+                    writeBuffer(channel, buffer);
+                buffer.put(levels[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK)));
+            }
+            writeBuffer(channel, buffer);
+        }
+    }
+
+    private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Map the levels of a binary file into memory.
+     *
+     * @return the levels or null if the file does not exist or was not created from the given csv file
+     */
+    public static OsmIdLevels loadBinary(File binaryFile, File csvFile) throws IOException {
+        if (!binaryFile.exists())
+            return null;
+
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "r"); FileChannel channel = file.getChannel()) {
+            if (channel.size() < HEADER_BYTES)
+                return null;
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                return null;
+            long size = header.getLong();
+            if (header.getLong() != csvFile.length() || header.getLong() != csvFile.lastModified()) {
+                LOGGER.info(binaryFile + " has not been created from the current " + csvFile);
+                return null;
+            }
+            if (channel.size() != HEADER_BYTES + size * (Long.BYTES + 1))
+                return null;
+
+            int segments = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+            LongBuffer[] ids = new LongBuffer[segments];
+            ByteBuffer[] levels = new ByteBuffer[segments];
+            long levelsStart = HEADER_BYTES + size * Long.BYTES;
+            for (int s = 0; s < segments; s++) {
+                long first = (long) s << SEGMENT_BITS;
+                long count = Math.min(size - first, 1L << SEGMENT_BITS);
+                ids[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * Long.BYTES, count * Long.BYTES).asLongBuffer();
+                levels[s] = channel.map(FileChannel.MapMode.READ_ONLY, levelsStart + first, count);
+            }
+            return new OsmIdLevels(ids, levels, size);
+        }
+    }
+
+    private static class CSVChunk {
+        private final LongArrayList ids = new LongArrayList();
+        private final DoubleArrayList values = new DoubleArrayList();
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(long id, double value) {
+            ids.add(id);
+            values.add(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * Ids and values parsed from a csv file, before they are mapped to levels.
+     */
+    public static class CSVValues {
+        private final List<CSVChunk> chunks;
+        private final long size;
+        private final double min;
+        private final double max;
+
+        private CSVValues(List<CSVChunk> chunks) {
+            this.chunks = chunks;
+            long count = 0;
+            double minValue = Double.POSITIVE_INFINITY;
+            double maxValue = Double.NEGATIVE_INFINITY;
+            for (CSVChunk chunk : chunks) {
+                count += chunk.ids.size();
+                minValue = Math.min(minValue, chunk.min);
+                maxValue = Math.max(maxValue, chunk.max);
+            }
+            this.size = count;
+            this.min = minValue;
+            this.max = maxValue;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        /**
+         * @return the smallest value or positive infinity if there are no values
+         */
+        public double getMin() {
+            return min;
+        }
+
+        /**
+         * @return the largest value or negative infinity if there are no values
+         */
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * Map the values to levels and sort them by id. If an id is listed more than once, the level of its last row is
+         * kept.
+         */
+        public OsmIdLevels toLevels(DoubleToIntFunction levelFunction) {
+            if (size > Integer.MAX_VALUE - 8)
+                throw new IllegalStateException("Too many rows: " + size);
+
+            // pack id and level into one long, so that both are sorted together by a primitive sort
+            long[] entries = new long[(int) size];
+            int count = 0;
+            for (CSVChunk chunk : chunks) {
+                for (int i = 0; i < chunk.ids.size(); i++) {
+                    long id = chunk.ids.get(i);
+                    if (id < 0 || id > MAX_ID)
+                        throw new IllegalArgumentException("Invalid osm id " + id);
+                    int level = levelFunction.applyAsInt(chunk.values.get(i));
+                    if (level < 0 || level > Byte.MAX_VALUE)
+                        throw new IllegalArgumentException("Level " + level + " of osm id " + id + " is out of range");
+                    entries[count++] = id << LEVEL_BITS | level;
+                }
+            }
+            Arrays.parallelSort(entries);
+
+            long[] ids = new long[count];
+            byte[] levels = new byte[count];
+            int unique = 0;
+            LongHashSet duplicateIds = new LongHashSet();
+            for (long entry : entries) {
+                long id = entry >>> LEVEL_BITS;
+                if (unique > 0 && ids[unique - 1] == id) {
+                    duplicateIds.add(id);
+                    unique--;
+                }
+                ids[unique] = id;
+                levels[unique] = (byte) entry;
+                unique++;
+            }
+            // the sort orders the rows of an id by level, so the level of the last row is looked up in the csv order
+            if (!duplicateIds.isEmpty()) {
+                for (CSVChunk chunk : chunks) {
+                    for (int i = 0; i < chunk.ids.size(); i++) {
+                        long id = chunk.ids.get(i);
+                        if (duplicateIds.contains(id))
+                            levels[Arrays.binarySearch(ids, 0, unique, id)] = (byte) levelFunction.applyAsInt(chunk.values.get(i));
+                    }
+                }
+            }
+            chunks.clear();
+            int segments = (int) (((long) unique + SEGMENT_MASK) >>> SEGMENT_BITS);
+            LongBuffer[] idSegments = new LongBuffer[segments];
+            ByteBuffer[] levelSegments = new ByteBuffer[segments];
+            for (int s = 0; s < segments; s++) {
+                int first = s << SEGMENT_BITS;
+                int length = Math.min(unique - first, 1 << SEGMENT_BITS);
+                idSegments[s] = LongBuffer.wrap(ids, first, length).slice();
+                levelSegments[s] = ByteBuffer.wrap(levels, first, length).slice();
+            }
+            return new OsmIdLevels(idSegments, levelSegments, unique);
+        }
+    }
+}
@@ -32,6 +32,7 @@ public class ORSParameters {
         private Weighting() {}
 
         public static final String TIME_DEPENDENT_SPEED = "time_dependent_speed";
+        public static final String LIVE_TRAFFIC = "live_traffic";
     }
 
 
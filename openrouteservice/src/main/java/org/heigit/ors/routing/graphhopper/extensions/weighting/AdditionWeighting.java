@@ -17,23 +17,136 @@ import com.graphhopper.routing.weighting.AbstractAdjustedWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.util.EdgeIteratorState;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighting multiplying the weight of the super weighting by the sum of the factors of the soft weightings.
+ * <p>
+ * The factors of all {@link LevelWeighting}s are combined into one table indexed by the levels they depend on, so
+ * that each level is read only once per edge. The tables are cached for recently used combinations of factors. Edges
+ * with a level outside the table are weighted by the soft weightings themselves.
+ */
 public class AdditionWeighting extends AbstractAdjustedWeighting {
-	private Weighting[] weightings;
+	private static final int TABLE_CACHE_SIZE = 100;
+	private static final Map<TableKey, double[]> TABLE_CACHE = new LinkedHashMap<TableKey, double[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TableKey, double[]> eldest) {
+			return size() > TABLE_CACHE_SIZE;
+		}
+	};
+
+	private LevelWeighting[] levelWeightings;
+	private Weighting[] otherWeightings;
+	// one weighting reading each of the levels of the table
+	private LevelWeighting[] levelReaders;
+	private double[] levelFactors;
+	private byte[] buffer = new byte[2];
 
     public AdditionWeighting(Weighting[] weightings, Weighting superWeighting) {
         super(superWeighting);
-        this.weightings = weightings.clone();
+        List<LevelWeighting> levelWeightingList = new ArrayList<>();
+        List<Weighting> otherWeightingList = new ArrayList<>();
+        List<LevelWeighting> readers = new ArrayList<>();
+        List<LevelWeighting.Level> levels = new ArrayList<>();
+        for (Weighting w : weightings) {
+            if (w instanceof LevelWeighting && ((LevelWeighting) w).getLevel() != null) {
+                LevelWeighting lw = (LevelWeighting) w;
+                levelWeightingList.add(lw);
+                if (!levels.contains(lw.getLevel())) {
+                    levels.add(lw.getLevel());
+                    readers.add(lw);
+                }
+            } else {
+                otherWeightingList.add(w);
+            }
+        }
+        levelWeightings = levelWeightingList.toArray(new LevelWeighting[0]);
+        otherWeightings = otherWeightingList.toArray(new Weighting[0]);
+        levelReaders = readers.toArray(new LevelWeighting[0]);
+        if (levelWeightings.length > 0)
+            levelFactors = getLevelFactors(levels);
     }
-    
+
+    private static double[] getFactors(LevelWeighting lw) {
+        double[] factors = new double[lw.getLevel().getCount()];
+        // edges of levels the weighting has no factor for are left to the weighting
+        Arrays.fill(factors, Double.NaN);
+        int levelCount = Math.min(lw.getLevelCount(), factors.length);
+        for (int level = 0; level < levelCount; level++)
+            factors[level] = lw.getLevelFactor(level);
+        return factors;
+    }
+
+    private double[] getLevelFactors(List<LevelWeighting.Level> levels) {
+        double[][] factors = new double[levelWeightings.length][];
+        for (int i = 0; i < levelWeightings.length; i++)
+            factors[i] = getFactors(levelWeightings[i]);
+        TableKey key = new TableKey(levelWeightings, factors);
+
+        synchronized (TABLE_CACHE) {
+            double[] table = TABLE_CACHE.get(key);
+            if (table != null)
+                return table;
+        }
+
+        int size = 1;
+        for (LevelWeighting.Level level : levels)
+            size *= level.getCount();
+        double[] table = new double[size];
+        int[] levelOfIndex = new int[levels.size()];
+        for (int index = 0; index < size; index++) {
+            int rest = index;
+            for (int l = levels.size() - 1; l >= 0; l--) {
+                levelOfIndex[l] = rest % levels.get(l).getCount();
+                rest /= levels.get(l).getCount();
+            }
+            double sum = 0;
+            for (int i = 0; i < levelWeightings.length; i++)
+                sum += factors[i][levelOfIndex[levels.indexOf(levelWeightings[i].getLevel())]];
+            table[index] = sum;
+        }
+
+        synchronized (TABLE_CACHE) {
+            TABLE_CACHE.put(key, table);
+        }
+        return table;
+    }
+
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId, long edgeEnterTime) {
         double sumOfWeights = 0;
-		for (Weighting w:weightings) {
+        if (levelFactors != null)
+            sumOfWeights = calcLevelFactor(edgeState, reverse, prevOrNextEdgeId);
+		for (Weighting w:otherWeightings) {
 			sumOfWeights += w.calcWeight(edgeState, reverse, prevOrNextEdgeId);
 		}
     	return superWeighting.calcWeight(edgeState, reverse, prevOrNextEdgeId, edgeEnterTime) * sumOfWeights;
     }
 
+    private double calcLevelFactor(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
+        int index = 0;
+        for (LevelWeighting reader : levelReaders) {
+            int count = reader.getLevel().getCount();
+            int level = reader.getLevel(edgeState, buffer);
+            if (level < 0 || level >= count)
+                return sumLevelWeightings(edgeState, reverse, prevOrNextEdgeId);
+            index = index * count + level;
+        }
+        double factor = levelFactors[index];
+        return Double.isNaN(factor) ? sumLevelWeightings(edgeState, reverse, prevOrNextEdgeId) : factor;
+    }
+
+    private double sumLevelWeightings(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
+        double sumOfWeights = 0;
+        for (Weighting w : levelWeightings)
+            sumOfWeights += w.calcWeight(edgeState, reverse, prevOrNextEdgeId);
+        return sumOfWeights;
+    }
+
 	@Override
 	public String getName() {
 		return "addition";
@@ -53,4 +166,32 @@ public class AdditionWeighting extends AbstractAdjustedWeighting {
 		final AdditionWeighting other = (AdditionWeighting) obj;
 		return toString().equals(other.toString());
 	}
+
+	private static final class TableKey {
+		// the levels of the table follow from the order of the weightings
+		private final LevelWeighting.Level[] weightingLevels;
+		private final double[][] factors;
+
+		TableKey(LevelWeighting[] weightings, double[][] factors) {
+			this.weightingLevels = new LevelWeighting.Level[weightings.length];
+			for (int i = 0; i < weightings.length; i++)
+				weightingLevels[i] = weightings[i].getLevel();
+			this.factors = factors;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof TableKey))
+				return false;
+			TableKey other = (TableKey) obj;
+			return Arrays.equals(weightingLevels, other.weightingLevels) && Arrays.deepEquals(factors, other.factors);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Arrays.hashCode(weightingLevels) + Arrays.deepHashCode(factors);
+		}
+	}
 }
@@ -13,6 +13,7 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.weighting;
 
+import com.graphhopper.routing.EdgeIteratorStateHelper;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.weighting.FastestWeighting;
 import com.graphhopper.storage.GraphStorage;
@@ -26,7 +27,7 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.HillIndexGraphStor
  * <p>
  * @author Maxim Rylov
  */
-public class AvoidHillsWeighting extends FastestWeighting {
+public class AvoidHillsWeighting extends FastestWeighting implements LevelWeighting {
 	private HillIndexGraphStorage gsHillIndex;
 	private byte[] buffer;
 	private double maxSteepness = -1;
@@ -43,18 +44,35 @@ public class AvoidHillsWeighting extends FastestWeighting {
 
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
-    	if (gsHillIndex != null) {
-    		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
-    		int hillIndex = gsHillIndex.getEdgeValue(edgeState.getEdge(), revert, buffer);
-
-    		if (maxSteepness > 0 && hillIndex > maxSteepness)
-    			return 100;
-
-    		return PENALTY_FACTOR[hillIndex];
-    	}
+    	if (gsHillIndex != null)
+    		return getLevelFactor(getLevel(edgeState, buffer));
     	return 1;
     }
 
+	@Override
+	public Level getLevel() {
+		return gsHillIndex != null ? Level.HILL_INDEX : null;
+	}
+
+	@Override
+	public int getLevel(EdgeIteratorState edgeState, byte[] buffer) {
+		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
+		return gsHillIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), revert, buffer);
+	}
+
+	@Override
+	public int getLevelCount() {
+		return PENALTY_FACTOR.length;
+	}
+
+	@Override
+	public double getLevelFactor(int hillIndex) {
+		if (maxSteepness > 0 && hillIndex > maxSteepness)
+			return 100;
+
+		return PENALTY_FACTOR[hillIndex];
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == null)
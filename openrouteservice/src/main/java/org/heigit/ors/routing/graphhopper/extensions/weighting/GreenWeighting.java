@@ -25,7 +25,7 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphSto
 /**
  * Created by lliu on 15/03/2017.
  */
-public class GreenWeighting extends FastestWeighting {
+public class GreenWeighting extends FastestWeighting implements LevelWeighting {
     private GreenIndexGraphStorage gsGreenIndex;
     private byte[] buffer = new byte[1];
     private double[] factors = new double[TOTAL_LEVEL];
@@ -58,13 +58,33 @@ public class GreenWeighting extends FastestWeighting {
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
         if (gsGreenIndex != null) {
-            int greenLevel = gsGreenIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+            int greenLevel = getLevel(edgeState, buffer);
             return factors[greenLevel];
         }
 
         return 1.0;
     }
 
+    @Override
+    public Level getLevel() {
+        return gsGreenIndex != null ? Level.GREEN_INDEX : null;
+    }
+
+    @Override
+    public int getLevel(EdgeIteratorState edgeState, byte[] buffer) {
+        return gsGreenIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+    }
+
+    @Override
+    public int getLevelCount() {
+        return TOTAL_LEVEL;
+    }
+
+    @Override
+    public double getLevelFactor(int level) {
+        return factors[level];
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -0,0 +1,63 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the 
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library; 
+ *  if not, see <https://www.gnu.org/licenses/>.  
+ */
+package org.heigit.ors.routing.graphhopper.extensions.weighting;
+
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.EdgeIteratorState;
+
+/**
+ * Soft weighting whose factor only depends on a small categorical value stored for an edge, like its green index.
+ * {@link AdditionWeighting} reads each of these values once per edge and looks up the sum of the factors of all such
+ * weightings in a precomputed table.
+ */
+public interface LevelWeighting extends Weighting {
+    enum Level {
+        GREEN_INDEX(64),
+        NOISE_LEVEL(4),
+        HILL_INDEX(16);
+
+        private final int count;
+
+        Level(int count) {
+            this.count = count;
+        }
+
+        /**
+         * @return the number of levels, the values of an edge are expected within [0, count)
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * @return the kind of value the factor depends on, or null if the value is not available in the graph
+     */
+    Level getLevel();
+
+    /**
+     * Read the value of the edge the factor depends on. Weightings of the same level read the same value.
+     */
+    int getLevel(EdgeIteratorState edgeState, byte[] buffer);
+
+    /**
+     * @return the number of levels the weighting has a factor for, starting at 0
+     */
+    int getLevelCount();
+
+    /**
+     * @return the factor for edges of the given level within [0, {@link #getLevelCount()})
+     */
+    double getLevelFactor(int level);
+}
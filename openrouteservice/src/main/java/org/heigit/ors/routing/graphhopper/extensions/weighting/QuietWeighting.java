@@ -22,7 +22,7 @@ import com.graphhopper.util.PMap;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
 import org.heigit.ors.routing.graphhopper.extensions.storages.NoiseIndexGraphStorage;
 
-public class QuietWeighting extends FastestWeighting {
+public class QuietWeighting extends FastestWeighting implements LevelWeighting {
     private NoiseIndexGraphStorage gsNoiseIndex;
     private byte[] buffer;
     private double weightingFactor = 1;
@@ -50,13 +50,33 @@ public class QuietWeighting extends FastestWeighting {
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
         if (gsNoiseIndex != null) {
-            int noiseLevel = gsNoiseIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+            int noiseLevel = getLevel(edgeState, buffer);
             return calcNoiseWeightFactor(noiseLevel);
         }
 
         return 1.0;
     }
 
+    @Override
+    public Level getLevel() {
+        return gsNoiseIndex != null ? Level.NOISE_LEVEL : null;
+    }
+
+    @Override
+    public int getLevel(EdgeIteratorState edgeState, byte[] buffer) {
+        return gsNoiseIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), buffer);
+    }
+
+    @Override
+    public int getLevelCount() {
+        return Level.NOISE_LEVEL.getCount();
+    }
+
+    @Override
+    public double getLevelFactor(int level) {
+        return calcNoiseWeightFactor(level);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -22,7 +22,7 @@ import com.graphhopper.util.PMap;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
 import org.heigit.ors.routing.graphhopper.extensions.storages.HillIndexGraphStorage;
 
-public class SteepnessDifficultyWeighting extends FastestWeighting {
+public class SteepnessDifficultyWeighting extends FastestWeighting implements LevelWeighting {
     
 	private final HillIndexGraphStorage gsHillIndex;
 	private final byte[] buffer;
@@ -50,8 +50,7 @@ public class SteepnessDifficultyWeighting extends FastestWeighting {
     @Override
     public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId ) {
     	if (gsHillIndex != null) {
-    		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
-    		int hillIndex = gsHillIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), revert, buffer);
+    		int hillIndex = getLevel(edgeState, buffer);
 
     		if (difficultyWeights != null) {
 				// TODO: Clarify whether hillIndex should be checked for out of bounds.
@@ -61,6 +60,27 @@ public class SteepnessDifficultyWeighting extends FastestWeighting {
    		return 1.0;
     }
 
+	@Override
+	public Level getLevel() {
+		return gsHillIndex != null ? Level.HILL_INDEX : null;
+	}
+
+	@Override
+	public int getLevel(EdgeIteratorState edgeState, byte[] buffer) {
+		boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
+		return gsHillIndex.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState), revert, buffer);
+	}
+
+	@Override
+	public int getLevelCount() {
+		return difficultyWeights != null ? difficultyWeights.length : Level.HILL_INDEX.getCount();
+	}
+
+	@Override
+	public double getLevelFactor(int hillIndex) {
+		return difficultyWeights != null ? difficultyWeights[hillIndex] : 1.0;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
     	// TODO: Clarify whether equals should depend on difficulty level.
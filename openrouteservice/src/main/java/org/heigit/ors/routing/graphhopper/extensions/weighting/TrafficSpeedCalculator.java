@@ -0,0 +1,58 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.weighting;
+
+import com.graphhopper.routing.EdgeIteratorStateHelper;
+import com.graphhopper.routing.util.*;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.routing.graphhopper.extensions.storages.EdgeSpeedOverlay;
+
+/**
+ * Speed calculator which replaces the speed of the edges with live speeds from an {@link EdgeSpeedOverlay}. Edges
+ * without a valid live speed keep the speed of the underlying calculator, and edges which are not accessible in a
+ * direction stay closed.
+ *
+ * The point in time at which entries expire is fixed when the calculator is created, so that all edges of a search are
+ * evaluated consistently.
+ */
+public class TrafficSpeedCalculator extends AbstractAdjustedSpeedCalculator {
+    private final EdgeSpeedOverlay speedOverlay;
+    private final double maxSpeed;
+    private final int minute;
+
+    public TrafficSpeedCalculator(SpeedCalculator superSpeedCalculator, EdgeSpeedOverlay speedOverlay, FlagEncoder encoder) {
+        super(superSpeedCalculator);
+
+        this.speedOverlay = speedOverlay;
+        this.maxSpeed = encoder.getMaxSpeed();
+        this.minute = speedOverlay.getCurrentMinute();
+    }
+
+    public double getSpeed(EdgeIteratorState edge, boolean reverse, long time) {
+        double speed = superSpeedCalculator.getSpeed(edge, reverse, time);
+
+        // live speeds must not open up edges which are not accessible in this direction
+        if (speed == 0)
+            return speed;
+
+        // live speeds refer to the storage direction of the edge, not to the direction of the iterator
+        boolean storageReverse = reverse != edge.get(EdgeIteratorState.REVERSE_STATE);
+        int liveSpeed = speedOverlay.getSpeed(EdgeIteratorStateHelper.getOriginalEdge(edge), storageReverse, minute);
+
+        if (liveSpeed == EdgeSpeedOverlay.NO_SPEED)
+            return speed;
+
+        return Math.min(liveSpeed, maxSpeed);
+    }
+}
@@ -391,7 +391,7 @@ public class ExtraInfoProcessor implements PathProcessor {
 				coordinate.y = geom.getLat(0);
 				CountryBordersPolygon[] countries = countryBordersReader.getCountry(coordinate);
 				if (countries.length >= 1) {
-					country1 = Short.parseShort(countryBordersReader.getId(countryBordersReader.getCountry(coordinate)[0].getName()));
+					country1 = Short.parseShort(countryBordersReader.getId(countries[0].getName()));
 				}
 			}
 			if (countryTraversalInfoBuilder != null && country1 != 0) {
@@ -40,6 +40,10 @@ public class IsochronesServiceSettings {
 	private static Map<Integer, Integer> fastIsochronesProfileMaxRangeTimes;
 	private static Set<Integer> fastIsochroneProfiles = new HashSet<>();
 	private static int maximumIntervals = 1;
+	private static int maximumThreads = Runtime.getRuntime().availableProcessors();
+	private static int maximumThreadsPerRequest = maximumThreads;
+	private static int cacheSize = 0;
+	private static int cacheTimeToLive = 3600; // in seconds
 	private static boolean allowComputeArea = true;
 	private static Map<String, StatisticsProviderConfiguration> statsProviders;
 	private static String attribution = "";
@@ -91,6 +95,17 @@ public class IsochronesServiceSettings {
 		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "maximum_intervals");
 		if (value != null)
 			maximumIntervals = Integer.parseInt(value);
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "maximum_threads");
+		if (value != null)
+			maximumThreads = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "maximum_threads_per_request");
+		maximumThreadsPerRequest = value != null ? Math.max(1, Integer.parseInt(value)) : maximumThreads;
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "cache_size");
+		if (value != null)
+			cacheSize = Math.max(0, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "cache_ttl");
+		if (value != null)
+			cacheTimeToLive = Math.max(0, Integer.parseInt(value));
 		value = AppConfig.getGlobal().getServiceParameter(SERVICE_NAME_ISOCHRONES, "allow_compute_area");
 		if (value != null)
 			allowComputeArea = Boolean.parseBoolean(value);
@@ -238,6 +253,28 @@ public class IsochronesServiceSettings {
 		return maximumIntervals;
 	}
 
+	public static int getMaximumThreads() {
+		return maximumThreads;
+	}
+
+	public static int getMaximumThreadsPerRequest() {
+		return maximumThreadsPerRequest;
+	}
+
+	/**
+	 * @return the number of isochrone maps cached per routing profile, 0 if the cache is disabled
+	 */
+	public static int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @return the time in seconds after which cached isochrone maps expire, 0 if they do not expire
+	 */
+	public static int getCacheTimeToLive() {
+		return cacheTimeToLive;
+	}
+
 	public static Map<String, StatisticsProviderConfiguration> getStatsProviders() {
 		return statsProviders;
 	}
@@ -19,6 +19,7 @@ public class MatrixServiceSettings {
 	private static int maximumRoutes = 2500;
 	private static int maximumRoutesFlexible = 25;
 	private static int maximumVisitedNodes = 100000;
+	private static int maximumThreads = Runtime.getRuntime().availableProcessors();
 	private static double maximumSearchRadius = 2000;
 	private static boolean allowResolveLocations = true;
 	private static String attribution = "";
@@ -42,6 +43,9 @@ public class MatrixServiceSettings {
 		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "maximum_visited_nodes");
 		if (value != null)
 			maximumVisitedNodes = Math.max(1, Integer.parseInt(value));
+		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, "maximum_threads");
+		if (value != null)
+			maximumThreads = Math.max(1, Integer.parseInt(value));
 		value = AppConfig.getGlobal().getServiceParameter(PARAM_MATRIX, " allow_resolve_locations");
 		if (value != null)
 			allowResolveLocations = Boolean.parseBoolean(value);
@@ -64,6 +68,10 @@ public class MatrixServiceSettings {
 		return maximumVisitedNodes;
 	}
 	
+	public static int getMaximumThreads() {
+		return maximumThreads;
+	}
+	
 	public static int getMaximumRoutes(boolean flexible) {
 		return (flexible? maximumRoutesFlexible : maximumRoutes);
 	}
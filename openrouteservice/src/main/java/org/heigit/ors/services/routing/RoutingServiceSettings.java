@@ -26,6 +26,7 @@ public class RoutingServiceSettings {
 	private static String sourceFile = "";
 	private static String workingMode = "Normal"; // Normal or PrepareGraphs
 	private static int initializationThreads = 1;
+	private static boolean sharedOSMImport = false;
 	private static boolean distanceApproximation = false;
 	private static String storageFormat = "Native";
 	private static String attribution = "";
@@ -56,6 +57,10 @@ public class RoutingServiceSettings {
 		value = config.getServiceParameter(SERVICE_NAME_ROUTING, "init_threads");
 		if (value != null)
 			initializationThreads = Integer.parseInt(value);
+
+		value = config.getServiceParameter(SERVICE_NAME_ROUTING, "init_shared_import");
+		if (value != null)
+			sharedOSMImport = Boolean.parseBoolean(value);
 		
 		value = config.getServiceParameter(SERVICE_NAME_ROUTING, "distance_approximation");
 		if (value != null)
@@ -90,6 +95,10 @@ public class RoutingServiceSettings {
 		return initializationThreads;
 	}
 	
+	public static boolean getSharedOSMImport() {
+		return sharedOSMImport;
+	}
+	
 	public static boolean getDistanceApproximation()	{
 		return distanceApproximation;
 	}
@@ -187,6 +187,10 @@ public class RoutingRequestParser {
 		if (!Helper.isEmpty(value))
 			req.getSearchParameters().setSuppressWarnings(Boolean.parseBoolean(value));
 
+		value = request.getParameter("live_traffic");
+		if (!Helper.isEmpty(value))
+			req.getSearchParameters().setLiveTraffic(Boolean.parseBoolean(value));
+
 		value = request.getParameter("instructions_format");
 		if (!Helper.isEmpty(value)) {
 			RouteInstructionsFormat instrFormat = RouteInstructionsFormat.fromString(value);
@@ -24,6 +24,10 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Compresses responses with gzip if the client accepts it. Responses which set their own Content-Encoding are passed
+ * through unchanged.
+ */
 public class CompressionFilter implements Filter {
 	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
 		if (req instanceof HttpServletRequest) {
@@ -32,12 +36,12 @@ public class CompressionFilter implements Filter {
 			String acceptEncoding = request.getHeader("accept-encoding");
 			
 			if (acceptEncoding != null) {
-				if(acceptEncoding.indexOf(ContentEncodingType.GZIP) != -1) {
+				if (ContentEncodingType.getQuality(acceptEncoding, ContentEncodingType.GZIP) > 0) {
 					GZIPResponseWrapper wrappedResponse = new GZIPResponseWrapper(response);
 					chain.doFilter(req, wrappedResponse);
 					wrappedResponse.finishResponse();
 					return;
-				} else if (acceptEncoding.indexOf(ContentEncodingType.DEFLATE) != -1) {
+				} else if (ContentEncodingType.getQuality(acceptEncoding, ContentEncodingType.DEFLATE) > 0) {
                    // not implemented
 				}
 			}
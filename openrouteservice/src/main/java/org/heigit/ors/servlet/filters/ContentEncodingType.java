@@ -17,6 +17,44 @@ public final class ContentEncodingType {
 	public static final String BROTLI = "br";
 	public static final String GZIP = "gzip";
 	public static final String DEFLATE = "deflate";
+	public static final String ZSTD = "zstd";
 
 	private  ContentEncodingType() {}
+
+	/**
+	 * Get the quality value which an Accept-Encoding header gives to the encoding. An encoding which is not listed gets
+	 * the quality of "*" if that is listed.
+	 *
+	 * @param acceptEncoding value of the Accept-Encoding header, may be null
+	 * @param encoding       the content encoding
+	 * @return the quality value, 0 if the encoding is not acceptable
+	 */
+	public static float getQuality(String acceptEncoding, String encoding) {
+		if (acceptEncoding == null)
+			return 0;
+		float wildcardQuality = 0;
+		for (String token : acceptEncoding.split(",")) {
+			String[] params = token.split(";");
+			String coding = params[0].trim();
+			if (coding.equalsIgnoreCase(encoding))
+				return getQuality(params);
+			if ("*".equals(coding))
+				wildcardQuality = getQuality(params);
+		}
+		return wildcardQuality;
+	}
+
+	private static float getQuality(String[] params) {
+		for (int i = 1; i < params.length; i++) {
+			String param = params[i].trim();
+			if (param.length() > 1 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+				try {
+					return Float.parseFloat(param.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
 }
@@ -26,12 +26,33 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	protected HttpServletResponse origResponse;
 	protected GZIPResponseStream responseStream = null;
 	protected PrintWriter writer = null;
+	private boolean encoded = false;
 
 	public GZIPResponseWrapper(HttpServletResponse response) {
 		super(response);
 		origResponse = response;
 	}
 
+	@Override
+	public void setHeader(String name, String value) {
+		super.setHeader(name, value);
+		checkContentEncoding(name);
+	}
+
+	@Override
+	public void addHeader(String name, String value) {
+		super.addHeader(name, value);
+		checkContentEncoding(name);
+	}
+
+	/**
+	 * A response which sets its own Content-Encoding is already encoded and must not be compressed again.
+	 */
+	private void checkContentEncoding(String name) {
+		if (responseStream == null && "Content-Encoding".equalsIgnoreCase(name))
+			encoded = true;
+	}
+
 	public GZIPResponseStream createOutputStream() throws IOException {
 		return new GZIPResponseStream(origResponse);
 	}
@@ -52,12 +73,17 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	public void flushBuffer() throws IOException {
 		if (responseStream != null && !responseStream.isClosed())
 			responseStream.flush();
+		else if (encoded)
+			super.flushBuffer();
 	}
 
 	public ServletOutputStream getOutputStream() throws IOException {
 		if (writer != null)
 			throw new IllegalStateException("getWriter() has already been called!");
 
+		if (encoded)
+			return origResponse.getOutputStream();
+
 		if (responseStream == null)
 			responseStream = createOutputStream();
 
@@ -68,6 +94,9 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 		if (writer != null)
 			return (writer);
 
+		if (encoded)
+			return origResponse.getWriter();
+
 		if (responseStream != null)
 			throw new IllegalStateException("getOutputStream() has already been called!");
 
@@ -77,6 +106,7 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	}
 
 	public void setContentLength(int length) {
-		// nothing to do
+		if (encoded)
+			super.setContentLength(length);
 	}
 }
@@ -101,6 +101,7 @@ public class MatrixRequestHandlerTest {
         Assert.assertEquals(DistanceUnit.METERS, matrixRequest.getUnits());
         Assert.assertFalse(matrixRequest.getResolveLocations());
         Assert.assertFalse(matrixRequest.getFlexibleMode());
+        Assert.assertFalse(matrixRequest.getLiveTraffic());
         Assert.assertNull(matrixRequest.getId());
 
         springMatrixRequest = new org.heigit.ors.api.requests.matrix.MatrixRequest(bareCoordinates);
@@ -111,9 +112,11 @@ public class MatrixRequestHandlerTest {
         metrics[0] = MatrixRequestEnums.Metrics.DURATION;
         metrics[1] = MatrixRequestEnums.Metrics.DISTANCE;
         springMatrixRequest.setMetrics(metrics);
+        springMatrixRequest.setLiveTraffic(true);
         matrixRequest = MatrixRequestHandler.convertMatrixRequest(springMatrixRequest);
 
         Assert.assertEquals(3, matrixRequest.getMetrics());
+        Assert.assertTrue(matrixRequest.getLiveTraffic());
     }
 
     @Test(expected = ParameterValueException.class)
@@ -262,6 +262,16 @@ public class RouteRequestHandlerTest {
         Assert.assertEquals(3, routingRequest.getSearchParameters().getBearings().length);
     }
 
+    @Test
+    public void testLiveTraffic() throws Exception {
+        RoutingRequest routingRequest = new RouteRequestHandler().convertRouteRequest(request);
+        Assert.assertFalse(routingRequest.getSearchParameters().getLiveTraffic());
+
+        request.setLiveTraffic(true);
+        routingRequest = new RouteRequestHandler().convertRouteRequest(request);
+        Assert.assertTrue(routingRequest.getSearchParameters().getLiveTraffic());
+    }
+
     @Test(expected = ParameterValueException.class)
     public void invalidBearingLength() throws Exception {
         request.setBearings(new Double[][] {{123.0,123.0}});
@@ -0,0 +1,114 @@
+package org.heigit.ors.api.responses.matrix.binary;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.heigit.ors.servlet.filters.ContentEncodingType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPInputStream;
+
+public class BinaryMatrixResponseTest {
+    private MatrixResult matrixResult;
+
+    @Before
+    public void setUp() {
+        ResolvedLocation[] sources = new ResolvedLocation[]{
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0)};
+        ResolvedLocation[] destinations = new ResolvedLocation[]{
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.687872, 49.420318), "foo", 0.0)};
+        matrixResult = new MatrixResult(sources, destinations);
+        matrixResult.setTable(MatrixMetricsType.DURATION, new float[]{0, 1.5f, 2, 3, -1, 5});
+        matrixResult.setTable(MatrixMetricsType.DISTANCE, new float[]{0, 10.25f, 20, 30, -1, 50});
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryMatrixResponse(matrixResult).write(out, null);
+        assertMatrix(out.toByteArray());
+    }
+
+    @Test
+    public void testWriteLargeTable() throws IOException {
+        int size = 300;
+        float[] table = new float[size * size];
+        for (int i = 0; i < table.length; i++)
+            table[i] = i;
+        ResolvedLocation[] locations = new ResolvedLocation[size];
+        MatrixResult result = new MatrixResult(locations, locations);
+        result.setTable(MatrixMetricsType.DURATION, table);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryMatrixResponse(result).write(out, null);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(20 + table.length * 4, buffer.limit());
+        buffer.position(20);
+        for (float value : table)
+            Assert.assertEquals(value, buffer.getFloat(), 0);
+    }
+
+    @Test
+    public void testWriteCompressed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryMatrixResponse(matrixResult).write(out, ContentEncodingType.GZIP);
+        assertMatrix(readAll(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+
+        out = new ByteArrayOutputStream();
+        new BinaryMatrixResponse(matrixResult).write(out, ContentEncodingType.ZSTD);
+        assertMatrix(readAll(new ZstdInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    public void testGetContentEncoding() {
+        Assert.assertNull(BinaryMatrixResponse.getContentEncoding(null));
+        Assert.assertNull(BinaryMatrixResponse.getContentEncoding("br"));
+        Assert.assertEquals(ContentEncodingType.GZIP, BinaryMatrixResponse.getContentEncoding("gzip, deflate"));
+        Assert.assertEquals(ContentEncodingType.ZSTD, BinaryMatrixResponse.getContentEncoding("gzip, zstd"));
+        Assert.assertEquals(ContentEncodingType.ZSTD, BinaryMatrixResponse.getContentEncoding("*"));
+        // encodings with q=0 are not acceptable
+        Assert.assertNull(BinaryMatrixResponse.getContentEncoding("gzip;q=0, zstd; q=0"));
+        Assert.assertNull(BinaryMatrixResponse.getContentEncoding("*;q=0"));
+        Assert.assertEquals(ContentEncodingType.GZIP, BinaryMatrixResponse.getContentEncoding("zstd;q=0, *"));
+        Assert.assertEquals(ContentEncodingType.GZIP, BinaryMatrixResponse.getContentEncoding("zstd;q=0.5, gzip;q=1.0"));
+        Assert.assertNull(BinaryMatrixResponse.getContentEncoding("gzipped, xzstd"));
+    }
+
+    private void assertMatrix(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(20 + 2 * 6 * 4, bytes.length);
+        Assert.assertEquals('O', bytes[0]);
+        Assert.assertEquals('M', bytes[3]);
+        Assert.assertEquals(BinaryMatrixResponse.MAGIC, buffer.getInt());
+        Assert.assertEquals(BinaryMatrixResponse.VERSION, buffer.getInt());
+        Assert.assertEquals(2, buffer.getInt());
+        Assert.assertEquals(3, buffer.getInt());
+        Assert.assertEquals(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE, buffer.getInt());
+        for (float expected : matrixResult.getTable(MatrixMetricsType.DURATION))
+            Assert.assertEquals(expected, buffer.getFloat(), 0);
+        for (float expected : matrixResult.getTable(MatrixMetricsType.DISTANCE))
+            Assert.assertEquals(expected, buffer.getFloat(), 0);
+    }
+
+    private byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        int read;
+        while ((read = in.read(chunk)) != -1)
+            out.write(chunk, 0, read);
+        return out.toByteArray();
+    }
+}
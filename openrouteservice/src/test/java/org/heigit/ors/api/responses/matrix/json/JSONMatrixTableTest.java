@@ -0,0 +1,55 @@
+package org.heigit.ors.api.responses.matrix.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.api.requests.common.APIEnums;
+import org.heigit.ors.api.requests.matrix.MatrixRequest;
+import org.heigit.ors.api.requests.matrix.MatrixRequestEnums;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONMatrixTableTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testSerialize() throws Exception {
+        JSONMatrixTable table = new JSONMatrixTable(new float[]{0, 1.2345f, -1, 3, 4, 5.004f}, 2, 3);
+        Assert.assertEquals("[[0.0,1.23,null],[3.0,4.0,5.0]]", mapper.writeValueAsString(table));
+    }
+
+    @Test
+    public void testSerializationEqualsBoxedTable() throws Exception {
+        JSONMatrixTable table = new JSONMatrixTable(new float[]{0, 1234.5678f, -1, 0.005f, 98765.43f, 12.3f}, 3, 2);
+        Assert.assertEquals(mapper.writeValueAsString(table.toArray()), mapper.writeValueAsString(table));
+    }
+
+    @Test
+    public void testFromArray() {
+        JSONMatrixTable table = JSONMatrixTable.fromArray(new Double[][]{{1.0, null}, {3.5, 4.0}});
+        Assert.assertEquals(2, table.getRows());
+        Assert.assertEquals(2, table.getColumns());
+        Assert.assertNull(table.getValue(0, 1));
+        Assert.assertEquals(3.5, table.getValue(1, 0), 1e-10);
+        Assert.assertArrayEquals(new Double[]{1.0, null}, table.toArray()[0]);
+    }
+
+    @Test
+    public void testSerializeResponse() throws Exception {
+        System.setProperty("ors_config", "target/test-classes/ors-config-test.json");
+        ResolvedLocation[] locations = new ResolvedLocation[]{
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0)};
+        MatrixResult result = new MatrixResult(locations, locations);
+        result.setTable(MatrixMetricsType.DURATION, new float[]{0, 1.005f, -1, 0});
+        MatrixRequest request = new MatrixRequest(new Double[][]{{8.681495, 49.41461}, {8.686507, 49.41943}});
+        request.setProfile(APIEnums.Profile.DRIVING_CAR);
+        request.setMetrics(new MatrixRequestEnums.Metrics[]{MatrixRequestEnums.Metrics.DURATION});
+
+        String json = mapper.writeValueAsString(new JSONIndividualMatrixResponse(result, request));
+        Assert.assertTrue(json, json.contains("\"durations\":[[0.0,1.0],[null,0.0]]"));
+        Assert.assertFalse(json, json.contains("\"distances\""));
+    }
+}
@@ -0,0 +1,103 @@
+package org.heigit.ors.centrality;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.EdgeExplorer;
+import org.heigit.ors.centrality.algorithms.CentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.BrandesCentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.FastBrandesCentralityAlgorithm;
+import org.heigit.ors.common.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link BrandesCentralityAlgorithm} with {@link FastBrandesCentralityAlgorithm} on a synthetic grid graph.
+ * Not run as part of the unit tests, start it through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CentralityAlgorithmBenchmark {
+    @Param({"10", "20", "30"})
+    private int gridSize;
+
+    private GraphHopperStorage graph;
+    private Weighting weighting;
+    private EdgeExplorer explorer;
+    private List<Integer> nodes;
+
+    @Setup
+    public void setup() {
+        CarFlagEncoder carEncoder = new CarFlagEncoder();
+        EncodingManager encodingManager = EncodingManager.create(carEncoder);
+        graph = new GraphBuilder(encodingManager).create();
+        Random random = new Random(42);
+
+        // grid with random (partly equal) edge lengths, so that the searches also have to deal with ties
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int node = row * gridSize + col;
+                graph.getNodeAccess().setNode(node, 49.0 + row * 0.001, 8.0 + col * 0.001);
+                if (col + 1 < gridSize)
+                    graph.edge(node, node + 1).setDistance(100d + random.nextInt(4) * 50d).setFlags(encodingManager.flagsDefault(true, true));
+                if (row + 1 < gridSize)
+                    graph.edge(node, node + gridSize).setDistance(100d + random.nextInt(4) * 50d).setFlags(encodingManager.flagsDefault(true, true));
+            }
+        }
+
+        weighting = new FastestWeighting(carEncoder);
+        explorer = graph.createEdgeExplorer(DefaultEdgeFilter.outEdges(carEncoder));
+        nodes = new ArrayList<>();
+        for (int node = 0; node < gridSize * gridSize; node++)
+            nodes.add(node);
+    }
+
+    @Benchmark
+    public Map<Integer, Double> brandesNodeCentrality() throws Exception {
+        return createAlgorithm(new BrandesCentralityAlgorithm()).computeNodeCentrality(nodes);
+    }
+
+    @Benchmark
+    public Map<Integer, Double> fastBrandesNodeCentrality() throws Exception {
+        return createAlgorithm(new FastBrandesCentralityAlgorithm()).computeNodeCentrality(nodes);
+    }
+
+    @Benchmark
+    public Map<Pair<Integer, Integer>, Double> brandesEdgeCentrality() throws Exception {
+        return createAlgorithm(new BrandesCentralityAlgorithm()).computeEdgeCentrality(nodes);
+    }
+
+    @Benchmark
+    public Map<Pair<Integer, Integer>, Double> fastBrandesEdgeCentrality() throws Exception {
+        return createAlgorithm(new FastBrandesCentralityAlgorithm()).computeEdgeCentrality(nodes);
+    }
+
+    private CentralityAlgorithm createAlgorithm(CentralityAlgorithm alg) {
+        alg.init(graph, weighting, explorer);
+        return alg;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CentralityAlgorithmBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -9,12 +9,15 @@ import com.graphhopper.util.EdgeExplorer;
 import junit.framework.TestCase;
 import org.heigit.ors.centrality.algorithms.CentralityAlgorithm;
 import org.heigit.ors.centrality.algorithms.brandes.BrandesCentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.FastBrandesCentralityAlgorithm;
+import org.heigit.ors.centrality.algorithms.brandes.ParallelBrandesCentralityAlgorithm;
 import org.heigit.ors.common.Pair;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
 import org.heigit.ors.routing.graphhopper.extensions.ORSWeightingFactory;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class CentralityAlgorithmTest extends TestCase {
     private CentralityAlgorithm alg = new BrandesCentralityAlgorithm();
@@ -123,6 +126,22 @@ public class CentralityAlgorithmTest extends TestCase {
         return g;
     }
 
+       public GraphHopperStorage createGridGraph(int size) {
+        GraphHopperStorage g = createGHStorage();
+        Random random = new Random(42);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int node = row * size + col;
+                g.getBaseGraph().getNodeAccess().setNode(node, row, col);
+                if (col + 1 < size)
+                    g.edge(node, node + 1).setDistance(1d + random.nextInt(3)).setFlags(encodingManager.flagsDefault(true, true));
+                if (row + 1 < size)
+                    g.edge(node, node + size).setDistance(1d + random.nextInt(3)).setFlags(encodingManager.flagsDefault(true, true));
+            }
+        }
+        return g;
+    }
+
        @Test
     public void testMediumDirectedGraphNodeCentrality() {
         graphHopper = new ORSGraphHopper();
@@ -284,4 +303,121 @@ public class CentralityAlgorithmTest extends TestCase {
             assertEquals(expectedScores.get(edges.indexOf(p)), betweenness.get(p), 0.0001d);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFastBrandesMatchesBrandesNodeCentrality() throws Exception {
+        for (GraphHopperStorage storage : Arrays.asList(createMediumDirectedGraph(), createTwoComponentDirectedGraph())) {
+            graphHopper = new ORSGraphHopper();
+            graphHopper.setCHEnabled(false);
+            graphHopper.setCoreEnabled(false);
+            graphHopper.setCoreLMEnabled(false);
+            graphHopper.setEncodingManager(encodingManager);
+            graphHopper.setGraphHopperStorage(storage);
+            graphHopper.postProcessing();
+
+            Graph graph = graphHopper.getGraphHopperStorage().getBaseGraph();
+            FlagEncoder flagEncoder = graphHopper.getEncodingManager().getEncoder("car");
+            EdgeExplorer explorer = graph.createEdgeExplorer(DefaultEdgeFilter.outEdges(flagEncoder));
+
+            HintsMap hintsMap = new HintsMap();
+            hintsMap.put("weighting", "fastest");
+            hintsMap.put("weighting_method", "fastest");
+            Weighting weighting = new ORSWeightingFactory().createWeighting(hintsMap, flagEncoder, graphHopper.getGraphHopperStorage());
+
+            CentralityAlgorithm reference = new BrandesCentralityAlgorithm();
+            reference.init(graph, weighting, explorer);
+            alg = new FastBrandesCentralityAlgorithm();
+            alg.init(graph, weighting, explorer);
+
+            List<Integer> nodes = new ArrayList<>(Arrays.asList(3, 0, 8, 1, 2, 7, 4, 6, 5));
+            Map<Integer, Double> expected = reference.computeNodeCentrality(nodes);
+            Map<Integer, Double> betweenness = alg.computeNodeCentrality(nodes);
+
+            assertEquals(expected.size(), betweenness.size());
+            for (Integer v : nodes) {
+                // scores must be bit-identical, not just close
+                assertEquals(expected.get(v), betweenness.get(v));
+            }
+        }
+    }
+
+    @Test
+    public void testFastBrandesMatchesBrandesEdgeCentrality() throws Exception {
+        for (GraphHopperStorage storage : Arrays.asList(createMediumDirectedGraph(), createTwoComponentDirectedGraph())) {
+            graphHopper = new ORSGraphHopper();
+            graphHopper.setCHEnabled(false);
+            graphHopper.setCoreEnabled(false);
+            graphHopper.setCoreLMEnabled(false);
+            graphHopper.setEncodingManager(encodingManager);
+            graphHopper.setGraphHopperStorage(storage);
+            graphHopper.postProcessing();
+
+            Graph graph = graphHopper.getGraphHopperStorage().getBaseGraph();
+            FlagEncoder flagEncoder = graphHopper.getEncodingManager().getEncoder("car");
+            EdgeExplorer explorer = graph.createEdgeExplorer(DefaultEdgeFilter.outEdges(flagEncoder));
+
+            HintsMap hintsMap = new HintsMap();
+            hintsMap.put("weighting", "fastest");
+            hintsMap.put("weighting_method", "fastest");
+            Weighting weighting = new ORSWeightingFactory().createWeighting(hintsMap, flagEncoder, graphHopper.getGraphHopperStorage());
+
+            CentralityAlgorithm reference = new BrandesCentralityAlgorithm();
+            reference.init(graph, weighting, explorer);
+            alg = new FastBrandesCentralityAlgorithm();
+            alg.init(graph, weighting, explorer);
+
+            // node 6 is left out of the bbox on purpose
+            List<Integer> nodes = new ArrayList<>(Arrays.asList(3, 0, 8, 1, 2, 7, 4, 5));
+            Map<Pair<Integer, Integer>, Double> expected = reference.computeEdgeCentrality(nodes);
+            Map<Pair<Integer, Integer>, Double> betweenness = alg.computeEdgeCentrality(nodes);
+
+            assertEquals(expected, betweenness);
+        }
+    }
+
+    @Test
+    public void testParallelBrandesMatchesSequential() throws Exception {
+        graphHopper = new ORSGraphHopper();
+        graphHopper.setCHEnabled(false);
+        graphHopper.setCoreEnabled(false);
+        graphHopper.setCoreLMEnabled(false);
+        graphHopper.setEncodingManager(encodingManager);
+        graphHopper.setGraphHopperStorage(createGridGraph(12));
+        graphHopper.postProcessing();
+
+        Graph graph = graphHopper.getGraphHopperStorage().getBaseGraph();
+        FlagEncoder flagEncoder = graphHopper.getEncodingManager().getEncoder("car");
+        EdgeExplorer explorer = graph.createEdgeExplorer(DefaultEdgeFilter.outEdges(flagEncoder));
+
+        HintsMap hintsMap = new HintsMap();
+        hintsMap.put("weighting", "fastest");
+        hintsMap.put("weighting_method", "fastest");
+        Weighting weighting = new ORSWeightingFactory().createWeighting(hintsMap, flagEncoder, graphHopper.getGraphHopperStorage());
+
+        List<Integer> nodes = new ArrayList<>();
+        for (int v = 0; v < graph.getNodes(); v++)
+            nodes.add(v);
+
+        CentralityAlgorithm sequential = new FastBrandesCentralityAlgorithm();
+        sequential.init(graph, weighting, explorer);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            alg = new ParallelBrandesCentralityAlgorithm(pool);
+            alg.init(graph, weighting, explorer);
+
+            Map<Integer, Double> expectedNodeScores = sequential.computeNodeCentrality(nodes);
+            Map<Integer, Double> nodeScores = alg.computeNodeCentrality(nodes);
+            assertEquals(expectedNodeScores.keySet(), nodeScores.keySet());
+            for (Integer v : nodes)
+                assertEquals(expectedNodeScores.get(v), nodeScores.get(v), 0.0001d);
+
+            Map<Pair<Integer, Integer>, Double> expectedEdgeScores = sequential.computeEdgeCentrality(nodes);
+            Map<Pair<Integer, Integer>, Double> edgeScores = alg.computeEdgeCentrality(nodes);
+            assertEquals(expectedEdgeScores.keySet(), edgeScores.keySet());
+            for (Pair<Integer, Integer> p : expectedEdgeScores.keySet())
+                assertEquals(expectedEdgeScores.get(p), edgeScores.get(p), 0.0001d);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
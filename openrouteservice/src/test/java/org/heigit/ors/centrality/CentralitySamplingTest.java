@@ -0,0 +1,83 @@
+package org.heigit.ors.centrality;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class CentralitySamplingTest {
+    private static List<Integer> createNodes(int count) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            nodes.add(i * 3);
+        return nodes;
+    }
+
+    @Test
+    public void testSampleSizeFromEpsilon() {
+        CentralityRequest req = new CentralityRequest();
+        req.setEpsilon(0.1);
+        CentralitySampling sampling = CentralitySampling.create(req, 100000, 100000);
+
+        // ceil(ln(2 * 100000 / 0.05) / (2 * 0.1^2))
+        Assert.assertEquals(761, sampling.getSampleSize());
+        Assert.assertEquals(0.1, sampling.getEpsilon(), 0.001);
+        Assert.assertEquals(CentralitySampling.CONFIDENCE, sampling.getConfidence(), 0);
+        Assert.assertFalse(sampling.isExact());
+    }
+
+    @Test
+    public void testEpsilonFromSampleSize() {
+        CentralityRequest req = new CentralityRequest();
+        req.setSampleSize(760);
+        CentralitySampling sampling = CentralitySampling.create(req, 100000, 100000);
+
+        Assert.assertEquals(760, sampling.getSampleSize());
+        Assert.assertEquals(0.1, sampling.getEpsilon(), 0.001);
+    }
+
+    @Test
+    public void testSampleSizeIsSubLinear() {
+        int small = CentralitySampling.getSampleSize(0.05, 10000);
+        int large = CentralitySampling.getSampleSize(0.05, 1000000);
+        Assert.assertTrue(large < 2 * small);
+    }
+
+    @Test
+    public void testFallbackToExact() {
+        CentralityRequest req = new CentralityRequest();
+        req.setSampleSize(50);
+        List<Integer> nodes = createNodes(20);
+        CentralitySampling sampling = CentralitySampling.create(req, nodes.size(), nodes.size());
+
+        Assert.assertTrue(sampling.isExact());
+        Assert.assertEquals(20, sampling.getSampleSize());
+        Assert.assertEquals(1.0, sampling.getConfidence(), 0);
+        Assert.assertSame(nodes, sampling.drawSources(nodes));
+
+        Map<Integer, Double> scores = new HashMap<>();
+        scores.put(3, 2.0);
+        sampling.rescale(scores, nodes.size());
+        Assert.assertEquals(2.0, scores.get(3), 0);
+    }
+
+    @Test
+    public void testDrawSourcesAndRescale() {
+        CentralityRequest req = new CentralityRequest();
+        req.setSampleSize(25);
+        List<Integer> nodes = createNodes(100);
+        CentralitySampling sampling = CentralitySampling.create(req, nodes.size(), nodes.size());
+
+        List<Integer> sources = sampling.drawSources(nodes);
+        Assert.assertEquals(25, sources.size());
+        Assert.assertEquals(25, new HashSet<>(sources).size());
+        Assert.assertTrue(nodes.containsAll(sources));
+        // repeated requests use the same sources
+        Assert.assertEquals(sources, sampling.drawSources(nodes));
+
+        Map<Integer, Double> scores = new HashMap<>();
+        scores.put(3, 2.0);
+        sampling.rescale(scores, nodes.size());
+        Assert.assertEquals(8.0, scores.get(3), 0);
+    }
+}
@@ -12,6 +12,8 @@ import org.heigit.ors.fastisochrones.storage.BorderNodeDistanceSet;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class CellPropertiesTest {
@@ -94,6 +96,38 @@ public class CellPropertiesTest {
         assertEquals(2.0, borderNodeDistanceSet.getAdjBorderNodeDistances()[0], 1e-10);
     }
 
+    @Test
+    public void testCalcCellPropertiesOfMultipleWeightings() {
+        GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createSimpleGraph(encodingManager);
+        createMockStorages(graphHopperStorage);
+        Eccentricity singleEcc = new Eccentricity(graphHopperStorage, null, ins, cs);
+        Weighting fastestWeighting = new FastestWeighting(carEncoder);
+        singleEcc.loadExisting(fastestWeighting);
+        singleEcc.calcEccentricities(fastestWeighting, new EdgeFilterSequence(), carEncoder);
+        singleEcc.calcBorderNodeDistances(fastestWeighting, new EdgeFilterSequence(), carEncoder);
+
+        graphHopperStorage = ToyGraphCreationUtil.createSimpleGraph(encodingManager);
+        createMockStorages(graphHopperStorage);
+        Eccentricity ecc = new Eccentricity(graphHopperStorage, null, ins, cs);
+        Weighting shortestWeighting = new ShortestWeighting(carEncoder);
+        ecc.loadExisting(fastestWeighting);
+        ecc.loadExisting(shortestWeighting);
+        ecc.calcEccentricities(Arrays.asList(fastestWeighting, shortestWeighting), new EdgeFilterSequence(), carEncoder);
+        ecc.calcBorderNodeDistances(Arrays.asList(fastestWeighting, shortestWeighting), new EdgeFilterSequence(), carEncoder);
+
+        assertEquals(3, ecc.getEccentricityStorage(shortestWeighting).getEccentricity(0));
+        assertEquals(4, ecc.getEccentricityStorage(shortestWeighting).getEccentricity(2));
+        assertEquals(2.0, ecc.getBorderNodeDistanceStorage(shortestWeighting).getBorderNodeDistanceSet(3).getAdjBorderNodeDistances()[0], 1e-10);
+        for (int borderNode : new int[]{0, 2, 3, 4}) {
+            assertEquals(singleEcc.getEccentricityStorage(fastestWeighting).getEccentricity(borderNode),
+                    ecc.getEccentricityStorage(fastestWeighting).getEccentricity(borderNode));
+            assertEquals(singleEcc.getEccentricityStorage(fastestWeighting).getFullyReachable(borderNode),
+                    ecc.getEccentricityStorage(fastestWeighting).getFullyReachable(borderNode));
+            assertArrayEquals(singleEcc.getBorderNodeDistanceStorage(fastestWeighting).getBorderNodeDistanceSet(borderNode).getAdjBorderNodeDistances(),
+                    ecc.getBorderNodeDistanceStorage(fastestWeighting).getBorderNodeDistanceSet(borderNode).getAdjBorderNodeDistances(), 1e-10);
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testGetEccentricityOfNonBorderNode() {
         GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createSimpleGraph(encodingManager);
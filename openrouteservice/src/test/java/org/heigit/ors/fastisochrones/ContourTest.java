@@ -3,6 +3,7 @@ package org.heigit.ors.fastisochrones;
 import com.graphhopper.routing.util.CarFlagEncoder;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.storage.GraphHopperStorage;
+import org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters;
 import org.heigit.ors.fastisochrones.partitioning.storage.CellStorage;
 import org.heigit.ors.fastisochrones.partitioning.storage.IsochroneNodeStorage;
 import org.junit.Test;
@@ -45,6 +46,28 @@ public class ContourTest {
         assertEquals(1.0002998858757293, coordinatesCell2.get(3), 1e-3);
     }
 
+    @Test
+    public void testCalculateContourIndependentOfThreadCount() {
+        int maxThreadCount = FastIsochroneParameters.getMaxThreadCount();
+        try {
+            FastIsochroneParameters.setMaxThreadCount(1);
+            GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createSimpleGraph(encodingManager);
+            createMockStorages(graphHopperStorage);
+            new Contour(graphHopperStorage, graphHopperStorage.getBaseGraph().getNodeAccess(), ins, cs).calculateContour();
+            List<Double> sequentialCell2 = cs.getCellContourOrder(2);
+            List<Double> sequentialCell3 = cs.getCellContourOrder(3);
+
+            FastIsochroneParameters.setMaxThreadCount(4);
+            graphHopperStorage = ToyGraphCreationUtil.createSimpleGraph(encodingManager);
+            createMockStorages(graphHopperStorage);
+            new Contour(graphHopperStorage, graphHopperStorage.getBaseGraph().getNodeAccess(), ins, cs).calculateContour();
+            assertEquals(sequentialCell2, cs.getCellContourOrder(2));
+            assertEquals(sequentialCell3, cs.getCellContourOrder(3));
+        } finally {
+            FastIsochroneParameters.setMaxThreadCount(maxThreadCount);
+        }
+    }
+
     @Test
     public void testDistance() {
         double distance = Contour.distance(1, 1, 1, 2);
@@ -9,6 +9,9 @@ import org.heigit.ors.fastisochrones.partitioning.storage.CellStorage;
 import org.heigit.ors.fastisochrones.partitioning.storage.IsochroneNodeStorage;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class CellAndIsochroneNodeStorageTest {
@@ -111,5 +114,32 @@ public class CellAndIsochroneNodeStorageTest {
         nodesCell3.addAll(2, 3, 4);
         assertEquals(nodesCell2, cs.getNodesOfCell(2));
         assertEquals(nodesCell3, cs.getNodesOfCell(3));
+        assertEquals(2, cs.getNodeCountOfCell(2));
+        assertEquals(3, cs.getNodeCountOfCell(3));
+
+        IntHashSet visitedNodes = new IntHashSet();
+        cs.forEachNodeOfCell(3, visitedNodes::add);
+        assertEquals(nodesCell3, visitedNodes);
+    }
+
+    @Test
+    public void testCellContour() {
+        GraphHopperStorage ghStorage = createGHStorage();
+        IsochroneNodeStorage isochroneNodeStorage = initIsochroneNodeStorage(ghStorage);
+        CellStorage cs = new CellStorage(5, ghStorage.getDirectory(), isochroneNodeStorage);
+        cs.init();
+        cs.calcCellNodesMap();
+        cs.setCellContourOrder(2, Arrays.asList(49.0, 49.1, 49.0), Arrays.asList(8.0, 8.1, 8.2));
+
+        double[] contour = cs.getCellContour(2);
+        List<Double> contourOrder = cs.getCellContourOrder(2);
+        assertEquals(6, contour.length);
+        for (int i = 0; i < contour.length; i++)
+            assertEquals(contourOrder.get(i), contour[i], 0);
+        // decoded once
+        assertSame(contour, cs.getCellContour(2));
+
+        cs.setCellContourOrder(2, Arrays.asList(49.0, 49.1), Arrays.asList(8.0, 8.1));
+        assertEquals(4, cs.getCellContour(2).length);
     }
 }
\ No newline at end of file
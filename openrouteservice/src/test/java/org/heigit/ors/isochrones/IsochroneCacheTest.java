@@ -0,0 +1,100 @@
+package org.heigit.ors.isochrones;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.storage.index.QueryResult;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import org.heigit.ors.routing.RouteSearchParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IsochroneCacheTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private LocationIndexTree index;
+
+    @Before
+    public void setUp() {
+        GraphHopperStorage graph = new GraphBuilder(encodingManager).create();
+        for (int node = 0; node < 10; node++) {
+            graph.getNodeAccess().setNode(node, 49.0 + node * 0.001, 8.0 + (node % 2) * 0.0005);
+            if (node > 0)
+                graph.edge(node - 1, node).setDistance(111d).setFlags(encodingManager.flagsDefault(true, true));
+        }
+        index = new LocationIndexTree(graph, new RAMDirectory());
+        index.prepareIndex();
+    }
+
+    private QueryResult snap(double lat, double lon) {
+        return index.findClosest(lat, lon, DefaultEdgeFilter.allEdges(carEncoder));
+    }
+
+    private IsochroneSearchParameters createParameters(double... ranges) {
+        IsochroneSearchParameters parameters = new IsochroneSearchParameters(0, new Coordinate(8.0, 49.0), ranges);
+        parameters.setRouteParameters(new RouteSearchParameters());
+        return parameters;
+    }
+
+    private IsochroneMap createIsochroneMap(int travellerId) {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Polygon polygon = geometryFactory.createPolygon(new Coordinate[]{new Coordinate(8.0, 49.0), new Coordinate(8.01, 49.0),
+                new Coordinate(8.01, 49.01), new Coordinate(8.0, 49.0)});
+        IsochroneMap isochroneMap = new IsochroneMap(travellerId, new Coordinate(8.0, 49.0));
+        isochroneMap.addIsochrone(new Isochrone(polygon, 300, 1000));
+        return isochroneMap;
+    }
+
+    @Test
+    public void testSnappedOriginsShareEntries() {
+        IsochroneCache cache = new IsochroneCache(10, 0);
+        IsochroneMap isochroneMap = createIsochroneMap(0);
+        cache.put(IsochroneCache.createKey(snap(49.005, 8.0008), createParameters(300), "2020-01-01"), isochroneMap);
+
+        // an origin which snaps to the same node, requested by another traveller
+        IsochroneMap cached = cache.get(IsochroneCache.createKey(snap(49.005, 8.001), createParameters(300), "2020-01-01"), 1);
+        assertNotNull(cached);
+        assertEquals(1, cached.getTravellerId());
+        assertNotSame(isochroneMap.getIsochrone(0), cached.getIsochrone(0));
+        assertEquals(isochroneMap.getIsochrone(0).getGeometry(), cached.getIsochrone(0).getGeometry());
+        assertEquals(1, cache.getHits());
+
+        assertNull(cache.get(IsochroneCache.createKey(snap(49.0055, 8.0001), createParameters(300), "2020-01-01"), 1));
+        assertNull(cache.get(IsochroneCache.createKey(snap(49.005, 8.0008), createParameters(300, 600), "2020-01-01"), 1));
+        assertNull(cache.get(IsochroneCache.createKey(snap(49.005, 8.0008), createParameters(300), "2020-01-02"), 1));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testIncomparableParameters() {
+        IsochroneSearchParameters parameters = createParameters(300);
+        parameters.getRouteParameters().setAvoidAreas(new Polygon[]{(Polygon) createIsochroneMap(0).getIsochrone(0).getGeometry()});
+        assertNull(IsochroneCache.createKey(snap(49.0035, 8.0001), parameters, "2020-01-01"));
+    }
+
+    @Test
+    public void testExpiryAndCapacity() throws Exception {
+        IsochroneCache cache = new IsochroneCache(2, 50);
+        Object key1 = IsochroneCache.createKey(snap(49.001, 8.0), createParameters(300), null);
+        Object key2 = IsochroneCache.createKey(snap(49.003, 8.0), createParameters(300), null);
+        Object key3 = IsochroneCache.createKey(snap(49.005, 8.0), createParameters(300), null);
+        cache.put(key1, createIsochroneMap(0));
+        cache.put(key2, createIsochroneMap(0));
+        cache.put(key3, createIsochroneMap(0));
+        assertEquals(2, cache.getSize());
+        assertNull(cache.get(key1, 0));
+        assertNotNull(cache.get(key3, 0));
+
+        Thread.sleep(100);
+        assertNull(cache.get(key3, 0));
+        assertEquals(1, cache.getSize());
+    }
+}
@@ -0,0 +1,63 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import org.opensphere.geometry.algorithm.ConcaveHull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ConcaveHull} with {@link ConcaveHullBuilder} on point clouds shaped like isochrones.
+ * Not run as part of the unit tests, start it through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcaveHullBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int numPoints;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final ConcaveHullBuilder builder = new ConcaveHullBuilder(geometryFactory);
+    private List<Coordinate> points;
+    private GeometryCollection pointGeometries;
+
+    @Setup
+    public void setup() {
+        points = ConcaveHullBuilderTest.createPoints(new Random(42), numPoints);
+        Point[] geometries = new Point[points.size()];
+        for (int i = 0; i < geometries.length; i++)
+            geometries[i] = geometryFactory.createPoint(points.get(i));
+        pointGeometries = geometryFactory.createGeometryCollection(geometries);
+    }
+
+    @Benchmark
+    public Geometry concaveHull() {
+        return new ConcaveHull(pointGeometries, 0.003, false).getConcaveHull();
+    }
+
+    @Benchmark
+    public Geometry concaveHullBuilder() {
+        return builder.build(points, 0.003);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ConcaveHullBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,90 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.vividsolutions.jts.algorithm.CGAlgorithms;
+import com.vividsolutions.jts.geom.*;
+import org.junit.Test;
+import org.opensphere.geometry.algorithm.ConcaveHull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConcaveHullBuilderTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    static List<Coordinate> createPoints(Random random, int numPoints) {
+        // a star shaped cloud like the points of an isochrone, with gaps along the axes
+        List<Coordinate> points = new ArrayList<>(numPoints);
+        while (points.size() < numPoints) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = 0.05 * Math.sqrt(random.nextDouble()) * (0.6 + 0.4 * Math.abs(Math.cos(3 * angle)));
+            points.add(new Coordinate(8.68 + radius * Math.cos(angle), 49.41 + radius * Math.sin(angle)));
+        }
+        return points;
+    }
+
+    private Geometry buildWithConcaveHull(List<Coordinate> points, double threshold) {
+        Point[] geometries = new Point[points.size()];
+        for (int i = 0; i < geometries.length; i++)
+            geometries[i] = geometryFactory.createPoint(points.get(i));
+        return new ConcaveHull(geometryFactory.createGeometryCollection(geometries), threshold, false).getConcaveHull();
+    }
+
+    @Test
+    public void testEqualsConcaveHull() {
+        Random random = new Random(42);
+        ConcaveHullBuilder builder = new ConcaveHullBuilder(geometryFactory);
+        for (int run = 0; run < 20; run++) {
+            List<Coordinate> points = createPoints(random, 200 + random.nextInt(2000));
+            double threshold = 0.002 + random.nextDouble() * 0.01;
+
+            Geometry expected = buildWithConcaveHull(points, threshold);
+            Geometry actual = builder.build(points, threshold);
+
+            assertTrue(actual instanceof Polygon);
+            assertTrue(actual.isValid());
+            assertTrue(CGAlgorithms.isCCW(((Polygon) actual).getExteriorRing().getCoordinates()));
+            // only ties between equally long edges or cocircular points may be resolved differently
+            assertEquals(0, expected.symDifference(actual).getArea() / expected.getArea(), 1e-7);
+        }
+    }
+
+    @Test
+    public void testPreviousHullAndDuplicates() {
+        Random random = new Random(7);
+        ConcaveHullBuilder builder = new ConcaveHullBuilder(geometryFactory);
+        List<Coordinate> points = createPoints(random, 500);
+        Polygon first = (Polygon) builder.build(points, 0.005);
+
+        // the next range contains the ring of the previous one, including its duplicated closing point
+        List<Coordinate> next = new ArrayList<>(Arrays.asList(first.getExteriorRing().getCoordinates()));
+        for (Coordinate c : createPoints(random, 500))
+            next.add(new Coordinate(8.68 + (c.x - 8.68) * 1.5, 49.41 + (c.y - 49.41) * 1.5));
+        next.addAll(next.subList(0, 50));
+
+        Geometry actual = builder.build(next, 0.005);
+        assertTrue(actual.isValid());
+        assertEquals(0, buildWithConcaveHull(next, 0.005).symDifference(actual).getArea() / actual.getArea(), 1e-7);
+    }
+
+    @Test
+    public void testConvexHullForLargeThreshold() {
+        List<Coordinate> points = createPoints(new Random(1), 300);
+        Geometry actual = new ConcaveHullBuilder(geometryFactory).build(points, 1);
+        Geometry convexHull = geometryFactory.createMultiPoint(points.toArray(new Coordinate[0])).convexHull();
+        assertEquals(convexHull.getArea(), actual.getArea(), 1e-12);
+    }
+
+    @Test
+    public void testDegeneratePoints() {
+        ConcaveHullBuilder builder = new ConcaveHullBuilder(geometryFactory);
+        List<Coordinate> collinear = Arrays.asList(new Coordinate(8.0, 49.0), new Coordinate(8.001, 49.0), new Coordinate(8.002, 49.0));
+        assertTrue(builder.build(collinear, 0.005) instanceof LineString);
+
+        List<Coordinate> square = Arrays.asList(new Coordinate(8.0, 49.0), new Coordinate(8.01, 49.0), new Coordinate(8.01, 49.01), new Coordinate(8.0, 49.01));
+        assertEquals(1e-4, builder.build(square, 0.005).getArea(), 1e-12);
+    }
+}
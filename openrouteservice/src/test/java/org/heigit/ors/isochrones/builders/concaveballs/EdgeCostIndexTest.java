@@ -0,0 +1,66 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.storage.SPTEntry;
+import com.graphhopper.util.EdgeIterator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class EdgeCostIndexTest {
+    private IntObjectMap<SPTEntry> createMap(Random random, int size) {
+        IntObjectMap<SPTEntry> map = new GHIntObjectHashMap<>(size);
+        SPTEntry root = new SPTEntry(EdgeIterator.NO_EDGE, 0, 0);
+        root.originalEdge = EdgeIterator.NO_EDGE;
+        map.put(0, root);
+        List<SPTEntry> entries = new ArrayList<>();
+        entries.add(root);
+        for (int node = 1; node < size; node++) {
+            SPTEntry parent = entries.get(random.nextInt(entries.size()));
+            // partly equal costs, so that ties at the range limits are covered
+            SPTEntry entry = new SPTEntry(node, node, parent.weight + random.nextInt(5) * 50);
+            entry.originalEdge = node;
+            entry.parent = parent;
+            map.put(node, entry);
+            entries.add(entry);
+        }
+        return map;
+    }
+
+    @Test
+    public void testFindEdgesInMapOrder() {
+        IntObjectMap<SPTEntry> map = createMap(new Random(42), 2000);
+        EdgeCostIndex costIndex = new EdgeCostIndex(map);
+        assertEquals(1999, costIndex.size());
+
+        double prevCost = Double.NEGATIVE_INFINITY;
+        for (double isolineCost = 100; isolineCost <= 1500; isolineCost += 100) {
+            for (double fromCost : new double[]{Double.NEGATIVE_INFINITY, prevCost}) {
+                // the edges the builder used to pick when scanning the whole map
+                List<SPTEntry> expected = new ArrayList<>();
+                for (IntObjectCursor<SPTEntry> cursor : map) {
+                    SPTEntry entry = cursor.value;
+                    if (entry.originalEdge == EdgeIterator.NO_EDGE)
+                        continue;
+                    float maxCost = (float) entry.weight;
+                    float minCost = (float) entry.parent.weight;
+                    if (minCost >= fromCost && (maxCost <= isolineCost || minCost < isolineCost))
+                        expected.add(entry);
+                }
+
+                int numCandidates = costIndex.findEdges(fromCost, isolineCost);
+                List<SPTEntry> actual = new ArrayList<>();
+                for (int i = 0; i < numCandidates; i++)
+                    actual.add(costIndex.getEntry(costIndex.getCandidates()[i]));
+                assertEquals(expected, actual);
+            }
+            prevCost = isolineCost;
+        }
+    }
+}
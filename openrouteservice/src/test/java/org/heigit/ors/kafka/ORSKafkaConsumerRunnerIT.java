@@ -0,0 +1,178 @@
+/*
+ *  Licensed to GIScience Research Group, Heidelberg University (GIScience)
+ *
+ *   http://giscience.uni-hd.de
+ *   http://heigit.org
+ *
+ *  under one or more contributor license agreements. See the NOTICE file
+ *  distributed with this work for additional information regarding copyright
+ *  ownership. The GIScience licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in compliance
+ *  with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.heigit.ors.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the consumer against an embedded Kafka cluster listening on port 9092. It is not part of the unit tests, run it
+ * with {@code mvn verify -P kafka-integration-tests}.
+ */
+public class ORSKafkaConsumerRunnerIT {
+    private static final String CLUSTER = "127.0.0.1:9092";
+    private static final long TIMEOUT = 60000;
+    private static ORSKafkaTestCluster testCluster;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeClass
+    public static void setUp() {
+        testCluster = new ORSKafkaTestCluster();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        testCluster.stop();
+    }
+
+    @Test
+    public void testBatchesAreDecodedAndCoalesced() throws Exception {
+        Map<Long, Integer> speeds = new ConcurrentHashMap<>();
+        ORSKafkaConsumerRunner runner = createRunner("coalesce-topic", (profile, updates) -> {
+            assertEquals("test", profile);
+            Set<Long> keys = new HashSet<>();
+            for (ORSKafkaConsumerMessageSpeedUpdate msg : updates) {
+                long key = getKey(msg);
+                assertTrue("updates of the same edge must be coalesced", keys.add(key));
+                speeds.put(key, msg.getSpeed());
+            }
+            return 0;
+        }, 1000);
+        Thread thread = new Thread(runner);
+        thread.start();
+
+        try (Producer<Long, String> producer = createProducer()) {
+            long index = 0;
+            // ten edge directions which are updated ten times each, the last update has to win
+            for (int speed = 1; speed <= 10; speed++) {
+                for (int edge = 0; edge < 5; edge++) {
+                    for (boolean reverse : new boolean[] {false, true}) {
+                        producer.send(new ProducerRecord<>("coalesce-topic", index++, createMessage(edge, reverse, speed)));
+                    }
+                }
+            }
+            producer.send(new ProducerRecord<>("coalesce-topic", index, "no speed update"));
+        }
+
+        ORSKafkaConsumerMetrics metrics = runner.getMetrics();
+        waitFor(() -> metrics.getProcessed() + metrics.getFailed() + metrics.getCoalesced() == 101);
+        runner.stop();
+        thread.join(TIMEOUT);
+
+        assertEquals(101, metrics.getReceived());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(10, speeds.size());
+        for (int speed : speeds.values())
+            assertEquals(10, speed);
+        assertTrue(metrics.getBatches() > 0);
+        assertEquals(0, metrics.getPendingBatches());
+    }
+
+    @Test
+    public void testConsumerIsPausedWhileApplyFallsBehind() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ORSKafkaConsumerRunner runner = createRunner("pause-topic", (profile, updates) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }, 1);
+        Thread thread = new Thread(runner);
+        thread.start();
+
+        int messages = ORSKafkaConsumerRunner.MAX_PENDING_BATCHES * 5;
+        try (Producer<Long, String> producer = createProducer()) {
+            for (int i = 0; i < messages; i++)
+                producer.send(new ProducerRecord<>("pause-topic", (long) i, createMessage(i, false, 50)));
+        }
+
+        ORSKafkaConsumerMetrics metrics = runner.getMetrics();
+        waitFor(metrics::isPaused);
+        assertTrue(metrics.getReceived() < messages);
+
+        release.countDown();
+        waitFor(() -> metrics.getProcessed() == messages);
+        waitFor(() -> !metrics.isPaused());
+        runner.stop();
+        thread.join(TIMEOUT);
+
+        assertEquals(messages, metrics.getReceived());
+        assertEquals(0, metrics.getFailed());
+    }
+
+    private ORSKafkaConsumerRunner createRunner(String topic, ORSKafkaUpdateHandler handler, int maxPollRecords) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.GROUP_ID_CONFIG, "ORSKafkaConsumerRunnerIT-" + topic);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(maxPollRecords));
+        return new ORSKafkaConsumerRunner(new ORSKafkaConsumerConfiguration(CLUSTER, topic, "test", 100), handler, overrides);
+    }
+
+    private Producer<Long, String> createProducer() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, CLUSTER);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        return new KafkaProducer<>(props);
+    }
+
+    private String createMessage(int edgeId, boolean reverse, int speed) throws Exception {
+        ORSKafkaConsumerMessageSpeedUpdate msg = new ORSKafkaConsumerMessageSpeedUpdate();
+        msg.setEdgeId(edgeId);
+        msg.setReverse(reverse);
+        msg.setSpeed(speed);
+        msg.setDurationMin(10);
+        return mapper.writeValueAsString(msg);
+    }
+
+    private static long getKey(ORSKafkaConsumerMessageSpeedUpdate msg) {
+        return ((long) msg.getEdgeId() << 1) | (msg.isReverse() ? 1 : 0);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end)
+                fail("Condition not met within " + TIMEOUT + " ms");
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *  Licensed to GIScience Research Group, Heidelberg University (GIScience)
+ *
+ *   http://giscience.uni-hd.de
+ *   http://heigit.org
+ *
+ *  under one or more contributor license agreements. See the NOTICE file
+ *  distributed with this work for additional information regarding copyright
+ *  ownership. The GIScience licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in compliance
+ *  with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.heigit.ors.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ORSKafkaConsumerRunnerTest {
+    private static final String TOPIC = "test-topic";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+    private static final long TIMEOUT = 10;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testBatchesAreDecodedAndCoalesced() throws Exception {
+        TestConsumer consumer = new TestConsumer();
+        Map<Long, Integer> speeds = new ConcurrentHashMap<>();
+        CountDownLatch applied = new CountDownLatch(1);
+        ORSKafkaConsumerRunner runner = createRunner(consumer, (profile, updates) -> {
+            assertEquals("test", profile);
+            for (ORSKafkaConsumerMessageSpeedUpdate msg : updates)
+                assertNull("updates of the same edge must be coalesced", speeds.put(getKey(msg), msg.getSpeed()));
+            applied.countDown();
+            return 0;
+        });
+
+        long offset = 0;
+        // ten edge directions which are updated ten times each, the last update has to win
+        for (int speed = 1; speed <= 10; speed++) {
+            for (int edge = 0; edge < 5; edge++) {
+                for (boolean reverse : new boolean[] {false, true})
+                    consumer.addRecord(createRecord(offset++, createMessage(edge, reverse, speed)));
+            }
+        }
+        consumer.addRecord(createRecord(offset++, "no speed update"));
+
+        Thread thread = new Thread(runner);
+        thread.start();
+        assertTrue(applied.await(TIMEOUT, TimeUnit.SECONDS));
+        runner.stop();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+        assertFalse(thread.isAlive());
+
+        ORSKafkaConsumerMetrics metrics = runner.getMetrics();
+        assertEquals(101, metrics.getReceived());
+        assertEquals(10, metrics.getProcessed());
+        assertEquals(90, metrics.getCoalesced());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(1, metrics.getBatches());
+        assertEquals(10, speeds.size());
+        for (int speed : speeds.values())
+            assertEquals(10, speed);
+        assertEquals(offset, consumer.getCommittedOffset());
+    }
+
+    @Test
+    public void testConsumerIsPausedWhileApplyFallsBehind() throws Exception {
+        TestConsumer consumer = new TestConsumer();
+        CountDownLatch release = new CountDownLatch(1);
+        int messages = ORSKafkaConsumerRunner.MAX_PENDING_BATCHES * 5;
+        CountDownLatch processed = new CountDownLatch(messages);
+        ORSKafkaConsumerRunner runner = createRunner(consumer, (profile, updates) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            updates.forEach(msg -> processed.countDown());
+            return 0;
+        });
+
+        // every poll adds one record, so that every batch holds a single record
+        for (int i = 0; i < messages; i++) {
+            ConsumerRecord<Long, String> record = createRecord(i, createMessage(i, false, 50));
+            consumer.schedulePollTask(() -> consumer.addRecord(record));
+        }
+        CountDownLatch polled = new CountDownLatch(1);
+        consumer.schedulePollTask(polled::countDown);
+
+        Thread thread = new Thread(runner);
+        thread.start();
+        ORSKafkaConsumerMetrics metrics = runner.getMetrics();
+        // all records have been added, but none is fetched once the first batches block the apply stage
+        assertTrue(polled.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(metrics.isPaused());
+        assertEquals(ORSKafkaConsumerRunner.MAX_PENDING_BATCHES, metrics.getReceived());
+
+        // the remaining records are only fetched once the consumer has been resumed
+        release.countDown();
+        assertTrue(processed.await(TIMEOUT, TimeUnit.SECONDS));
+        runner.stop();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+        assertFalse(thread.isAlive());
+
+        assertEquals(messages, metrics.getReceived());
+        assertEquals(messages, metrics.getProcessed());
+        assertEquals(0, metrics.getFailed());
+        assertEquals(messages, consumer.getCommittedOffset());
+    }
+
+    private ORSKafkaConsumerRunner createRunner(TestConsumer consumer, ORSKafkaUpdateHandler handler) {
+        ORSKafkaConsumerRunner runner = new ORSKafkaConsumerRunner(new ORSKafkaConsumerConfiguration("mock", TOPIC, "test", 100), handler, consumer);
+        consumer.rebalance(Collections.singletonList(PARTITION));
+        consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+        return runner;
+    }
+
+    private static ConsumerRecord<Long, String> createRecord(long offset, String value) {
+        return new ConsumerRecord<>(TOPIC, PARTITION.partition(), offset, offset, value);
+    }
+
+    private String createMessage(int edgeId, boolean reverse, int speed) throws Exception {
+        ORSKafkaConsumerMessageSpeedUpdate msg = new ORSKafkaConsumerMessageSpeedUpdate();
+        msg.setEdgeId(edgeId);
+        msg.setReverse(reverse);
+        msg.setSpeed(speed);
+        msg.setDurationMin(10);
+        return mapper.writeValueAsString(msg);
+    }
+
+    private static long getKey(ORSKafkaConsumerMessageSpeedUpdate msg) {
+        return ((long) msg.getEdgeId() << 1) | (msg.isReverse() ? 1 : 0);
+    }
+
+    /**
+     * Keeps the committed offset readable after the runner has closed the consumer.
+     */
+    private static class TestConsumer extends MockConsumer<Long, String> {
+        private long committedOffset = -1;
+
+        TestConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized void close() {
+            OffsetAndMetadata committed = committed(Collections.singleton(PARTITION)).get(PARTITION);
+            if (committed != null)
+                committedOffset = committed.offset();
+            super.close();
+        }
+
+        synchronized long getCommittedOffset() {
+            return committedOffset;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.heigit.ors.matrix.algorithms.dijkstra;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ParallelDijkstraMatrixAlgorithmTest {
+    private static final int GRID_SIZE = 15;
+    private static final int METRICS = MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
+
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private GraphHopperStorage graph;
+    private MatrixRequest request;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        graph = new GraphBuilder(encodingManager).create();
+        Random random = new Random(42);
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int node = row * GRID_SIZE + col;
+                graph.getNodeAccess().setNode(node, 49.0 + row * 0.001, 8.0 + col * 0.001);
+                if (col + 1 < GRID_SIZE)
+                    graph.edge(node, node + 1).setDistance(100d + random.nextInt(4) * 50d).setFlags(encodingManager.flagsDefault(true, true));
+                if (row + 1 < GRID_SIZE)
+                    graph.edge(node, node + GRID_SIZE).setDistance(100d + random.nextInt(4) * 50d).setFlags(encodingManager.flagsDefault(true, true));
+            }
+        }
+        request = new MatrixRequest();
+        request.setMetrics(METRICS);
+        pool = new ForkJoinPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        // includes an unresolved source, whose row has to be filled with empty values
+        MatrixLocations sources = createLocations(new int[] {0, 17, -1, 42, 111, 224, 3, 99, 150, 201, 7});
+        MatrixLocations destinations = createLocations(new int[] {5, 60, 128, 224, 0});
+
+        DijkstraMatrixAlgorithm sequential = new DijkstraMatrixAlgorithm();
+        sequential.init(request, null, graph, carEncoder, new FastestWeighting(carEncoder));
+        MatrixResult expected = sequential.compute(sources, destinations, METRICS);
+
+        ParallelDijkstraMatrixAlgorithm parallel = new ParallelDijkstraMatrixAlgorithm(pool);
+        parallel.setWeightingFactory(() -> new FastestWeighting(carEncoder));
+        parallel.init(request, null, graph, carEncoder, new FastestWeighting(carEncoder));
+        MatrixResult actual = parallel.compute(sources, destinations, METRICS);
+
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), actual.getTable(MatrixMetricsType.DURATION), 0.0f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), actual.getTable(MatrixMetricsType.DISTANCE), 0.0f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), actual.getTable(MatrixMetricsType.WEIGHT), 0.0f);
+    }
+
+    private MatrixLocations createLocations(int[] nodeIds) {
+        MatrixLocations locations = new MatrixLocations(nodeIds.length);
+        for (int i = 0; i < nodeIds.length; i++)
+            locations.setData(i, nodeIds[i], null);
+        return locations;
+    }
+}
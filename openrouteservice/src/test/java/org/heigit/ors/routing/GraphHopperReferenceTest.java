@@ -0,0 +1,72 @@
+package org.heigit.ors.routing;
+
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GraphHopperReferenceTest {
+    private static class CountingGraphHopper extends ORSGraphHopper {
+        private final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+            super.close();
+        }
+    }
+
+    @Test
+    public void testGraphIsClosedOnceRetiredAndReleased() {
+        CountingGraphHopper gh = new CountingGraphHopper();
+        GraphHopperReference ref = new GraphHopperReference(gh);
+        AtomicInteger onClosed = new AtomicInteger();
+
+        Assert.assertTrue(ref.retain());
+        Assert.assertTrue(ref.retain());
+        ref.retire(onClosed::incrementAndGet);
+        Assert.assertEquals(0, gh.closed.get());
+
+        ref.close();
+        Assert.assertEquals(0, gh.closed.get());
+        Assert.assertEquals(0, onClosed.get());
+
+        ref.close();
+        Assert.assertEquals(1, gh.closed.get());
+        Assert.assertEquals(1, onClosed.get());
+    }
+
+    @Test
+    public void testClosedGraphCannotBeAcquired() {
+        CountingGraphHopper gh = new CountingGraphHopper();
+        GraphHopperReference ref = new GraphHopperReference(gh);
+        ref.retire(null);
+
+        Assert.assertEquals(1, gh.closed.get());
+        Assert.assertFalse(ref.retain());
+        Assert.assertEquals(0, ref.getReferences());
+    }
+
+    @Test
+    public void testGraphStaysOpenWhileInUse() {
+        CountingGraphHopper gh = new CountingGraphHopper();
+        GraphHopperReference ref = new GraphHopperReference(gh);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(ref.retain());
+            try (GraphHopperReference used = ref) {
+                Assert.assertSame(gh, used.get());
+            }
+        }
+        Assert.assertEquals(0, gh.closed.get());
+        Assert.assertEquals(1, ref.getReferences());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleasingTooOftenFails() {
+        GraphHopperReference ref = new GraphHopperReference(new CountingGraphHopper());
+        ref.retire(null);
+        ref.close();
+    }
+}
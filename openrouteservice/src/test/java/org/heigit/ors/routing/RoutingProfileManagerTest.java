@@ -0,0 +1,140 @@
+package org.heigit.ors.routing;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.exceptions.InternalServerException;
+import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneMapCollection;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RoutingProfileManagerTest {
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private List<IsochroneSearchParameters> createParameters(int count) {
+        List<IsochroneSearchParameters> parameters = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            parameters.add(new IsochroneSearchParameters(i, new Coordinate(8.0, 49.0 + i), new double[]{100}));
+        return parameters;
+    }
+
+    private static IsochroneMap createMap(IsochroneSearchParameters parameters) {
+        return new IsochroneMap(parameters.getTravellerId(), parameters.getLocation());
+    }
+
+    @Test
+    public void testMapsInOrderOfParameters() throws Exception {
+        List<IsochroneSearchParameters> parameters = createParameters(2);
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        // the first location only finishes after the second one
+        IsochroneMapCollection maps = RoutingProfileManager.buildIsochrones(parameters, p -> {
+            if (p.getTravellerId() == 0)
+                assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+            IsochroneMap map = createMap(p);
+            if (p.getTravellerId() == 1)
+                secondDone.countDown();
+            return map;
+        }, 2, pool);
+
+        assertEquals(2, maps.size());
+        assertEquals(0, maps.getIsochrone(0).getTravellerId());
+        assertEquals(1, maps.getIsochrone(1).getTravellerId());
+    }
+
+    @Test
+    public void testFirstFailureIsRethrown() {
+        List<IsochroneSearchParameters> parameters = createParameters(20);
+        AtomicInteger started = new AtomicInteger();
+
+        try {
+            RoutingProfileManager.buildIsochrones(parameters, p -> {
+                started.incrementAndGet();
+                if (p.getTravellerId() == 0)
+                    throw new InternalServerException(0, "location 0");
+                return createMap(p);
+            }, 1, pool);
+            fail();
+        } catch (Exception ex) {
+            assertTrue(ex instanceof InternalServerException);
+            assertEquals(1, started.get());
+        }
+
+        try {
+            RoutingProfileManager.buildIsochrones(parameters, p -> {
+                if (p.getTravellerId() == 3)
+                    throw new InternalServerException(0, "location 3");
+                return createMap(p);
+            }, 4, pool);
+            fail();
+        } catch (Exception ex) {
+            assertTrue(ex instanceof InternalServerException);
+            assertEquals("location 3", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testErrorStopsWorkers() throws Exception {
+        List<IsochroneSearchParameters> parameters = createParameters(1000);
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch failing = new CountDownLatch(1);
+
+        try {
+            RoutingProfileManager.buildIsochrones(parameters, p -> {
+                started.incrementAndGet();
+                if (p.getTravellerId() == 0) {
+                    failing.countDown();
+                    throw new OutOfMemoryError("location 0");
+                }
+                assertTrue(failing.await(10, TimeUnit.SECONDS));
+                return createMap(p);
+            }, 2, pool);
+            fail();
+        } catch (OutOfMemoryError ex) {
+            assertEquals("location 0", ex.getMessage());
+            // the other worker stops taking new locations once the error has been recorded
+            assertTrue(started.get() < parameters.size());
+        }
+    }
+
+    @Test
+    public void testThreadsPerRequest() throws Exception {
+        int threads = 3;
+        List<IsochroneSearchParameters> parameters = createParameters(threads * 4);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        // the locations only finish when as many of them run at once as allowed
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+
+        IsochroneMapCollection maps = RoutingProfileManager.buildIsochrones(parameters, p -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            barrier.await(10, TimeUnit.SECONDS);
+            active.decrementAndGet();
+            return createMap(p);
+        }, threads, pool);
+
+        assertEquals(parameters.size(), maps.size());
+        assertEquals(threads, maxActive.get());
+    }
+}
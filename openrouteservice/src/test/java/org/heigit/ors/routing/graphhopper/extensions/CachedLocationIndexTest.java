@@ -0,0 +1,100 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.routing.QueryGraph;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.storage.index.QueryResult;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class CachedLocationIndexTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private GraphHopperStorage graph;
+    private LocationIndexTree index;
+
+    @Before
+    public void setUp() {
+        graph = new GraphBuilder(encodingManager).create();
+        for (int node = 0; node < 10; node++) {
+            graph.getNodeAccess().setNode(node, 49.0 + node * 0.001, 8.0 + (node % 2) * 0.0005);
+            if (node > 0)
+                graph.edge(node - 1, node).setDistance(111d).setFlags(encodingManager.flagsDefault(true, true));
+        }
+        index = new LocationIndexTree(graph, new RAMDirectory());
+        index.prepareIndex();
+    }
+
+    @Test
+    public void testCachedResultEqualsLookup() {
+        CachedLocationIndex cachedIndex = new CachedLocationIndex(index, graph, 10);
+        QueryResult expected = index.findClosest(49.0035, 8.0001, DefaultEdgeFilter.allEdges(carEncoder));
+
+        QueryResult first = cachedIndex.findClosest(49.0035, 8.0001, DefaultEdgeFilter.allEdges(carEncoder));
+        // the query graph changes the closest node of results on an edge, which must not leak into the cache
+        new QueryGraph(graph).lookup(Collections.singletonList(first));
+        QueryResult second = cachedIndex.findClosest(49.0035, 8.0001, DefaultEdgeFilter.allEdges(carEncoder));
+
+        assertEquals(1, cachedIndex.getHits());
+        assertEquals(1, cachedIndex.getMisses());
+        assertNotSame(first, second);
+        assertEquals(expected.getClosestNode(), second.getClosestNode());
+        assertEquals(expected.getClosestEdge().getEdge(), second.getClosestEdge().getEdge());
+        assertEquals(expected.getSnappedPosition(), second.getSnappedPosition());
+        assertEquals(expected.getSnappedPoint().lat, second.getSnappedPoint().lat, 1e-9);
+        assertEquals(expected.getSnappedPoint().lon, second.getSnappedPoint().lon, 1e-9);
+        assertEquals(expected.getQueryDistance(), second.getQueryDistance(), 1e-9);
+    }
+
+    @Test
+    public void testSameCellIsProjectedAnew() {
+        CachedLocationIndex cachedIndex = new CachedLocationIndex(index, graph, 10);
+        cachedIndex.findClosest(49.0035, 8.0001, DefaultEdgeFilter.allEdges(carEncoder));
+        QueryResult expected = index.findClosest(49.0035002, 8.0001002, DefaultEdgeFilter.allEdges(carEncoder));
+        QueryResult actual = cachedIndex.findClosest(49.0035002, 8.0001002, DefaultEdgeFilter.allEdges(carEncoder));
+
+        assertEquals(1, cachedIndex.getHits());
+        assertEquals(expected.getSnappedPoint().lat, actual.getSnappedPoint().lat, 1e-9);
+        assertEquals(expected.getQueryDistance(), actual.getQueryDistance(), 1e-6);
+    }
+
+    @Test
+    public void testFilterKeys() {
+        CachedLocationIndex cachedIndex = new CachedLocationIndex(index, graph, 10);
+        EdgeFilterSequence sequence = new EdgeFilterSequence();
+        sequence.add(DefaultEdgeFilter.allEdges(carEncoder));
+        cachedIndex.findClosest(49.002, 8.0, sequence);
+        cachedIndex.findClosest(49.002, 8.0, sequence);
+        assertEquals(1, cachedIndex.getHits());
+
+        // filters which cannot be compared between requests bypass the cache
+        sequence.add(edge -> true);
+        cachedIndex.findClosest(49.002, 8.0, sequence);
+        assertEquals(1, cachedIndex.getHits());
+        assertEquals(1, cachedIndex.getMisses());
+    }
+
+    @Test
+    public void testCapacity() {
+        CachedLocationIndex cachedIndex = new CachedLocationIndex(index, graph, 2);
+        cachedIndex.findClosest(49.001, 8.0, DefaultEdgeFilter.allEdges(carEncoder));
+        cachedIndex.findClosest(49.002, 8.0, DefaultEdgeFilter.allEdges(carEncoder));
+        cachedIndex.findClosest(49.003, 8.0, DefaultEdgeFilter.allEdges(carEncoder));
+        assertEquals(2, cachedIndex.getSize());
+
+        // the least recently used location has been evicted
+        cachedIndex.findClosest(49.001, 8.0, DefaultEdgeFilter.allEdges(carEncoder));
+        assertEquals(0, cachedIndex.getHits());
+        assertEquals(4, cachedIndex.getMisses());
+    }
+}
@@ -0,0 +1,79 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.storage.DAType;
+import com.graphhopper.storage.Directory;
+import com.graphhopper.storage.GHDirectory;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.util.Helper;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class NodeTagStoreTest {
+    private static HashMap<String, String> tags(String... keyValues) {
+        HashMap<String, String> tags = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2)
+            tags.put(keyValues[i], keyValues[i + 1]);
+        return tags;
+    }
+
+    @Test
+    public void testPutAndGet() {
+        NodeTagStore store = new NodeTagStore(new RAMDirectory());
+        store.put(1, tags("kerb", "lowered"));
+        store.put(5, Collections.emptyMap());
+        store.put(7, tags("kerb", "raised", "kerb:height", "0.1"));
+        store.put(3_000_000_000L, tags("access", "no"));
+
+        assertEquals(3, store.size());
+        assertEquals(tags("kerb", "lowered"), store.get(1));
+        assertNull(store.get(5));
+        assertEquals(tags("kerb", "raised", "kerb:height", "0.1"), store.get(7));
+        assertEquals(tags("access", "no"), store.get(3_000_000_000L));
+        assertNull(store.get(2));
+        assertNull(store.get(-3_000_000_000L));
+    }
+
+    @Test
+    public void testUnsortedNodes() {
+        NodeTagStore store = new NodeTagStore(new RAMDirectory());
+        store.put(9, tags("access", "private"));
+        store.put(-4, tags("access", "yes"));
+        store.put(2, tags("foot", "yes"));
+        store.put(9, tags("access", "no"));
+
+        assertEquals(tags("access", "yes"), store.get(-4));
+        assertEquals(tags("foot", "yes"), store.get(2));
+        // like a map the tags stored last are kept
+        assertEquals(tags("access", "no"), store.get(9));
+        assertEquals(3, store.size());
+
+        store.put(1, tags("horse", "no"));
+        assertEquals(tags("horse", "no"), store.get(1));
+        assertEquals(tags("foot", "yes"), store.get(2));
+    }
+
+    @Test
+    public void testMemoryMappedStore() {
+        File location = new File("./target/tmp-node-tags");
+        Helper.removeDir(location);
+        try {
+            Directory dir = new GHDirectory(location.getPath(), DAType.RAM_STORE).create();
+            NodeTagStore store = new NodeTagStore(dir, DAType.MMAP);
+            for (long id = 0; id < 100000; id++)
+                store.put(id, tags("maxheight", String.valueOf(id % 50)));
+            assertEquals(100000, store.size());
+            assertEquals(tags("maxheight", "42"), store.get(99942));
+            assertTrue(new File(location, "tmp_node_tags").exists());
+
+            store.clear();
+            assertFalse(new File(location, "tmp_node_tags").exists());
+        } finally {
+            Helper.removeDir(location);
+        }
+    }
+}
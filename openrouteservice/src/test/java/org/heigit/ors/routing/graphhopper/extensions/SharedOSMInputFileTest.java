@@ -0,0 +1,130 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.reader.ReaderElement;
+import com.graphhopper.reader.ReaderNode;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMInput;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SharedOSMInputFileTest {
+    private static final String OSM = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "<osm version=\"0.6\" generator=\"test\">\n" +
+            "  <node id=\"1\" lat=\"49.41\" lon=\"8.68\"/>\n" +
+            "  <node id=\"2\" lat=\"49.42\" lon=\"8.69\"><tag k=\"barrier\" v=\"kerb\"/></node>\n" +
+            "  <node id=\"3\" lat=\"49.43\" lon=\"8.70\"/>\n" +
+            "  <way id=\"10\"><nd ref=\"1\"/><nd ref=\"2\"/><nd ref=\"3\"/><tag k=\"highway\" v=\"residential\"/></way>\n" +
+            "  <relation id=\"20\"><member type=\"way\" ref=\"10\" role=\"\"/><tag k=\"type\" v=\"route\"/></relation>\n" +
+            "</osm>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File osmFile;
+
+    @Before
+    public void setUp() throws IOException {
+        osmFile = folder.newFile("test.osm");
+        Files.write(osmFile.toPath(), OSM.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSharedPass() throws Exception {
+        SharedOSMInputFile sharedFile = new SharedOSMInputFile(osmFile);
+        List<SharedOSMInputFile.Participant> participants = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            participants.add(sharedFile.register());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<List<ReaderElement>>> results = new ArrayList<>();
+        for (SharedOSMInputFile.Participant participant : participants)
+            results.add(executor.submit(() -> readAll(participant.open(2))));
+        List<List<ReaderElement>> elements = new ArrayList<>();
+        for (Future<List<ReaderElement>> result : results)
+            elements.add(result.get());
+        executor.shutdown();
+
+        assertEquals(1, sharedFile.getPasses());
+        for (List<ReaderElement> read : elements) {
+            assertEquals(5, read.size());
+            assertEquals(2, read.get(1).getId());
+            assertEquals("kerb", read.get(1).getTag("barrier"));
+            assertEquals(49.42, ((ReaderNode) read.get(1)).getLat(), 1e-9);
+            assertEquals(3, ((ReaderWay) read.get(3)).getNodes().size());
+            assertEquals("residential", read.get(3).getTag("highway"));
+            assertEquals("route", read.get(4).getTag("type"));
+        }
+        // every participant receives its own elements
+        assertNotSame(elements.get(0).get(3), elements.get(1).get(3));
+        assertNotSame(elements.get(1).get(3), elements.get(2).get(3));
+    }
+
+    @Test
+    public void testPassWaitsOnlyForRegisteredParticipants() throws Exception {
+        SharedOSMInputFile sharedFile = new SharedOSMInputFile(osmFile);
+        SharedOSMInputFile.Participant reading = sharedFile.register();
+        SharedOSMInputFile.Participant loading = sharedFile.register();
+
+        OSMInput input = reading.open(2);
+        assertEquals(0, sharedFile.getPasses());
+        // a profile which loads an existing graph does not read the file
+        loading.leave();
+        assertEquals(5, readAll(input).size());
+        assertEquals(1, sharedFile.getPasses());
+
+        // a second pass of the remaining participant starts right away
+        assertEquals(5, readAll(reading.open(2)).size());
+        assertEquals(2, sharedFile.getPasses());
+        reading.leave();
+    }
+
+    @Test
+    public void testClosedParticipantDoesNotBlockPass() throws Exception {
+        SharedOSMInputFile sharedFile = new SharedOSMInputFile(osmFile);
+        SharedOSMInputFile.Participant failing = sharedFile.register();
+        SharedOSMInputFile.Participant reading = sharedFile.register();
+
+        OSMInput failingInput = failing.open(2);
+        OSMInput input = reading.open(2);
+        failingInput.close();
+        assertEquals(5, readAll(input).size());
+    }
+
+    @Test
+    public void testCopy() {
+        ReaderWay way = new ReaderWay(10);
+        way.getNodes().add(1, 2);
+        way.setTag("highway", "primary");
+        ReaderWay copy = (ReaderWay) SharedOSMInputFile.copy(way);
+        copy.setTag("estimated_distance", 100.0);
+        copy.getNodes().add(3);
+
+        assertEquals(10, copy.getId());
+        assertEquals("primary", copy.getTag("highway"));
+        assertFalse(way.hasTag("estimated_distance"));
+        assertEquals(2, way.getNodes().size());
+    }
+
+    private static List<ReaderElement> readAll(OSMInput input) throws Exception {
+        List<ReaderElement> elements = new ArrayList<>();
+        try (OSMInput in = input) {
+            ReaderElement element;
+            while ((element = in.getNext()) != null)
+                elements.add(element);
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,82 @@
+package org.heigit.ors.routing.graphhopper.extensions.core;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.storage.*;
+import com.graphhopper.util.Helper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CoreNodeIdMapTest {
+    private static final int NODES = 300;
+    private static final String LOCATION = "./target/core-node-id-map-test";
+
+    private GraphHopperStorage ghStorage;
+    private CHGraph core;
+    private Map<Integer, Integer> expected;
+
+    @Before
+    public void setUp() {
+        Helper.removeDir(new File(LOCATION));
+        CarFlagEncoder encoder = new CarFlagEncoder();
+        ghStorage = new GraphBuilder(EncodingManager.create(encoder)).setCHProfiles(CHProfile.nodeBased(new ShortestWeighting(encoder))).create();
+        for (int node = 0; node < NODES; node++)
+            ghStorage.getNodeAccess().setNode(node, 49.0 + node * 0.001, 8.0);
+        ghStorage.freeze();
+        core = ghStorage.getCHGraph();
+
+        // core nodes on both sides of word boundaries as well as every third node
+        expected = new HashMap<>();
+        for (int node = 0; node < NODES; node++) {
+            boolean isCore = node % 3 == 0 || node == 64 || node == 127 || node == 128 || node == NODES - 1;
+            core.setLevel(node, isCore ? NODES + 1 : node);
+            if (isCore)
+                expected.put(node, expected.size());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        ghStorage.close();
+        Helper.removeDir(new File(LOCATION));
+    }
+
+    @Test
+    public void testIndicesAreConsecutiveInNodeOrder() {
+        CoreNodeIdMap map = new CoreNodeIdMap(new RAMDirectory(), "test").init(core, NODES);
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(NODES, map.getNodes());
+        for (int node = 0; node < NODES; node++) {
+            Integer index = expected.get(node);
+            assertEquals(index == null ? CoreNodeIdMap.NO_CORE_NODE : index, map.get(node));
+            assertEquals(index != null, map.contains(node));
+        }
+        assertEquals(CoreNodeIdMap.NO_CORE_NODE, map.get(-1));
+        assertEquals(CoreNodeIdMap.NO_CORE_NODE, map.get(NODES));
+    }
+
+    @Test
+    public void testStoredMapIsLoaded() {
+        CoreNodeIdMap map = new CoreNodeIdMap(new RAMDirectory(LOCATION, true).create(), "test").init(core, NODES);
+        map.flush();
+        map.close();
+
+        CoreNodeIdMap loaded = new CoreNodeIdMap(new RAMDirectory(LOCATION, true), "test");
+        assertTrue(loaded.loadExisting());
+        assertEquals(map.size(), loaded.size());
+        assertEquals(NODES, loaded.getNodes());
+        for (int node = 0; node < NODES; node++)
+            assertEquals(map.get(node), loaded.get(node));
+
+        assertFalse(new CoreNodeIdMap(new RAMDirectory(LOCATION, true), "other").loadExisting());
+    }
+}
@@ -19,6 +19,7 @@ import com.graphhopper.routing.weighting.TurnWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.*;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreLandmarkStorage;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreNodeIdMap;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreTestEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCore;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.LMEdgeFilterSequence;
@@ -29,7 +30,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 
@@ -88,18 +89,8 @@ public class CoreLandmarkStorageTest {
         return g;
     }
 
-    private HashMap<Integer, Integer> createCoreNodeIdMap(CHGraph core) {
-       HashMap<Integer, Integer> coreNodeIdMap = new HashMap<>();
-        int maxNode = core.getNodes();
-        int coreNodeLevel = maxNode + 1;
-        int index = 0;
-        for (int i = 0; i < maxNode; i++){
-            if (core.getLevel(i) < coreNodeLevel)
-                continue;
-            coreNodeIdMap.put(i, index);
-            index++;
-        }
-        return coreNodeIdMap;
+    private CoreNodeIdMap createCoreNodeIdMap(CHGraph core) {
+        return new CoreNodeIdMap(new RAMDirectory(), "test").init(core, core.getNodes());
     }
 
     private CHGraph contractGraph(GraphHopperStorage g, CoreTestEdgeFilter restrictedEdges) {
@@ -147,7 +138,7 @@ public class CoreLandmarkStorageTest {
         restrictedEdges.add(12);
         ghStorage = createMediumGraph();
         CHGraph g = contractGraph(ghStorage, restrictedEdges);
-        HashMap<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(g);
+        CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(g);
 
         CoreLandmarkStorage storage = new CoreLandmarkStorage(dir, ghStorage, coreNodeIdMap, weighting,new LMEdgeFilterSequence(), 2 );
         storage.setMinimumNodes(2);
@@ -180,7 +171,7 @@ public class CoreLandmarkStorageTest {
 
         ghStorage = createMediumGraph();
         CHGraph g = contractGraph(ghStorage, restrictedEdges);
-        HashMap<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(g);
+        CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(g);
 
 
         LMEdgeFilterSequence lmEdgeFilterSequence = new LMEdgeFilterSequence();
@@ -193,4 +184,36 @@ public class CoreLandmarkStorageTest {
         assertEquals("[7, 4]", Arrays.toString(storage.getLandmarks(2)));
     }
 
+    @Test
+    public void testParallelLandmarkWeights() {
+        // Weights of landmarks calculated in parallel must equal the sequentially calculated ones
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        for (int edge = 0; edge < 13; edge++)
+            restrictedEdges.add(edge);
+        ghStorage = createMediumGraph();
+        CHGraph g = contractGraph(ghStorage, restrictedEdges);
+        CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(g);
+
+        CoreLandmarkStorage sequential = new CoreLandmarkStorage(dir, ghStorage, coreNodeIdMap, weighting, new LMEdgeFilterSequence(), 4);
+        sequential.setMinimumNodes(2);
+        sequential.createLandmarks();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        CoreLandmarkStorage parallel = new CoreLandmarkStorage(new GHDirectory("", DAType.RAM_INT), ghStorage, coreNodeIdMap, weighting, new LMEdgeFilterSequence(), 4);
+        parallel.setMinimumNodes(2);
+        parallel.setLandmarkPool(pool);
+        parallel.createLandmarks();
+        pool.shutdown();
+
+        assertEquals(sequential.getSubnetworksWithLandmarks(), parallel.getSubnetworksWithLandmarks());
+        assertEquals(Arrays.toString(sequential.getLandmarks(1)), Arrays.toString(parallel.getLandmarks(1)));
+        for (int node = 0; node < ghStorage.getNodes(); node++) {
+            if (!coreNodeIdMap.contains(node))
+                continue;
+            for (int lmIdx = 0; lmIdx < 4; lmIdx++) {
+                assertEquals(sequential.getFromWeight(lmIdx, node), parallel.getFromWeight(lmIdx, node));
+                assertEquals(sequential.getToWeight(lmIdx, node), parallel.getToWeight(lmIdx, node));
+            }
+        }
+    }
 }
@@ -27,6 +27,7 @@ import com.graphhopper.util.DistanceCalcEarth;
 import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.Helper;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreLandmarkStorage;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreNodeIdMap;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreTestEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCore;
 import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCoreLandmarks;
@@ -70,18 +71,8 @@ public class PrepareCoreLandmarksTest
         graph = tmp;
     }
 
-    public HashMap<Integer, Integer> createCoreNodeIdMap(CHGraph core) {
-        HashMap<Integer, Integer> coreNodeIdMap = new HashMap<>();
-        int maxNode = core.getNodes();
-        int coreNodeLevel = maxNode + 1;
-        int index = 0;
-        for (int i = 0; i < maxNode; i++){
-            if (core.getLevel(i) < coreNodeLevel)
-                continue;
-            coreNodeIdMap.put(i, index);
-            index++;
-        }
-        return coreNodeIdMap;
+    public CoreNodeIdMap createCoreNodeIdMap(CHGraph core) {
+        return new CoreNodeIdMap(new RAMDirectory(), "test").init(core, core.getNodes());
     }
 
     public CHGraph contractGraph(GraphHopperStorage g, CoreTestEdgeFilter restrictedEdges) {
@@ -148,7 +139,7 @@ public class PrepareCoreLandmarksTest
             }
         }
         CHGraph g = contractGraph(graph, restrictedEdges);
-        HashMap<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(g);
+        CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(g);
         LocationIndex index = new LocationIndexTree(graph, dir);
         index.prepareIndex();
 
@@ -243,7 +234,7 @@ public class PrepareCoreLandmarksTest
         restrictedEdges.add(0);
         restrictedEdges.add(1);
         CHGraph g = contractGraph(graph, restrictedEdges);
-        HashMap<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(g);
+        CoreNodeIdMap coreNodeIdMap = createCoreNodeIdMap(g);
         String fileStr = "./target/tmp-lm";
         Helper.removeDir(new File(fileStr));
 
@@ -5,6 +5,10 @@ import com.graphhopper.storage.DAType;
 import com.graphhopper.storage.GHDirectory;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.Helper;
 import com.vividsolutions.jts.geom.Coordinate;
@@ -15,6 +19,7 @@ import org.heigit.ors.routing.graphhopper.extensions.ORSDefaultFlagEncoderFactor
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -51,4 +56,71 @@ public class AvoidAreasEdgeFilterTest {
         assertFalse(filter.accept(iter1));
         assertTrue(filter.accept(iter2));
     }
+
+    @Test
+    public void TestPrecomputedBlockedEdges() {
+        GraphHopperStorage graph = new GraphHopperStorage(new GHDirectory("", DAType.RAM_STORE), encoder, false, new GraphExtension.NoOpExtension());
+        graph.create(100);
+        // grid of 10 x 10 nodes with a spacing of 0.01 degrees and a pillar node on every vertical edge
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                int node = row * 10 + col;
+                nodeAccess.setNode(node, 49.0 + row * 0.01, 8.0 + col * 0.01);
+                if (col > 0)
+                    graph.edge(node - 1, node, 700, true);
+                if (row > 0)
+                    graph.edge(node - 10, node, 1100, true).setWayGeometry(Helper.createPointList(49.0 + row * 0.01 - 0.005, 8.0 + col * 0.01 + 0.002));
+            }
+        }
+        LocationIndexTree index = new LocationIndexTree(graph, new RAMDirectory());
+        index.prepareIndex();
+
+        GeometryFactory gf = new GeometryFactory();
+        Polygon poly = gf.createPolygon(new Coordinate[]{ new Coordinate(8.021, 49.021),
+                new Coordinate(8.055, 49.025),
+                new Coordinate(8.041, 49.062),
+                new Coordinate(8.021, 49.021)});
+
+        AvoidAreasEdgeFilter geometryFilter = new AvoidAreasEdgeFilter(new Polygon[] {poly});
+        AvoidAreasEdgeFilter precomputedFilter = new AvoidAreasEdgeFilter(new Polygon[] {poly}, graph, index);
+        int blocked = 0;
+        EdgeIterator iter = graph.getAllEdges();
+        while (iter.next()) {
+            assertEquals(geometryFilter.accept(iter), precomputedFilter.accept(iter));
+            if (!precomputedFilter.accept(iter))
+                blocked++;
+        }
+        assertTrue(blocked > 0);
+    }
+
+    @Test
+    public void TestPrecomputedEdgeCrossingSmallPolygon() {
+        GraphHopperStorage graph = new GraphHopperStorage(new GHDirectory("", DAType.RAM_STORE), encoder, false, new GraphExtension.NoOpExtension());
+        graph.create(100);
+        // a single long edge whose nodes are far outside the polygons, which are much smaller than a tile of the index
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        nodeAccess.setNode(0, 49.0, 8.0);
+        nodeAccess.setNode(1, 49.1, 8.137);
+        // unconnected nodes which widen the bounds of the index, so that its tiles are not aligned with the edge
+        nodeAccess.setNode(2, 48.95, 7.95);
+        nodeAccess.setNode(3, 49.15, 8.2);
+        EdgeIteratorState edge = graph.edge(0, 1, 12000, true);
+        LocationIndexTree index = new LocationIndexTree(graph, new RAMDirectory());
+        index.prepareIndex();
+
+        GeometryFactory gf = new GeometryFactory();
+        for (int i = 1; i < 100; i++) {
+            double x = 8.0 + 0.137 * i / 100;
+            double y = 49.0 + 0.1 * i / 100;
+            Polygon poly = gf.createPolygon(new Coordinate[]{ new Coordinate(x - 0.00001, y - 0.00001),
+                    new Coordinate(x + 0.00001, y - 0.00001),
+                    new Coordinate(x + 0.00001, y + 0.00001),
+                    new Coordinate(x - 0.00001, y + 0.00001),
+                    new Coordinate(x - 0.00001, y - 0.00001)});
+
+            assertFalse(new AvoidAreasEdgeFilter(new Polygon[] {poly}).accept(edge));
+            assertFalse(new AvoidAreasEdgeFilter(new Polygon[] {poly}, graph, index).accept(edge));
+        }
+    }
 }
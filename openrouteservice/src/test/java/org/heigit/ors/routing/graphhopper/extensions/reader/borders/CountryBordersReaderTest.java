@@ -18,6 +18,9 @@ import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -95,6 +98,62 @@ public class CountryBordersReaderTest {
         assertEquals("country1", polys[0].getName());
     }
 
+    /**
+     * Test that the countries returned for points in grid cells inside, outside and on the borders of the countries
+     * are the ones whose geometry contains the point
+     */
+    @Test
+    public void TestGetCountryMatchesGeometries() {
+        for (double x = -2.5; x <= 2.5; x += 0.05) {
+            for (double y = -2.5; y <= 2.5; y += 0.05) {
+                Coordinate c = new Coordinate(x, y);
+                Point p = gf.createPoint(c);
+                List<String> expected = new ArrayList<>();
+                for (CountryBordersHierarchy h : hierarchies) {
+                    for (CountryBordersPolygon cp : h.getPolygons()) {
+                        if (cp.getBoundary().contains(p))
+                            expected.add(cp.getName());
+                    }
+                }
+
+                List<String> actual = new ArrayList<>();
+                for (CountryBordersPolygon cp : _reader.getCountry(c))
+                    actual.add(cp.getName());
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Test that points on the antimeridian and the north pole do not get the countries of a grid cell elsewhere
+     */
+    @Test
+    public void TestGetCountryOnGridEdges() throws Exception {
+        CountryBordersReader reader = new CountryBordersReader();
+        CountryBordersHierarchy hierarchy = new CountryBordersHierarchy();
+        // the country covers whole grid cells of the first column
+        hierarchy.add(new CountryBordersPolygon("west", gf.createPolygon(new Coordinate[] {
+                new Coordinate(-181, 10),
+                new Coordinate(-179, 10),
+                new Coordinate(-179, 11),
+                new Coordinate(-181, 11),
+                new Coordinate(-181, 10)
+        })));
+        hierarchy.add(new CountryBordersPolygon("north", gf.createPolygon(new Coordinate[] {
+                new Coordinate(170, 89),
+                new Coordinate(181, 89),
+                new Coordinate(181, 91),
+                new Coordinate(170, 91),
+                new Coordinate(170, 89)
+        })));
+        reader.addHierarchy(1l, hierarchy);
+
+        assertEquals(1, reader.getCountry(new Coordinate(-179.9, 10.6)).length);
+        assertEquals(0, reader.getCountry(new Coordinate(180, 10.3)).length);
+        assertEquals(1, reader.getCountry(new Coordinate(179.9, 90)).length);
+        assertEquals(1, reader.getCountry(new Coordinate(180, 90)).length);
+    }
+
     /**
      * Test that correct candidate countries (based on bbox) are being returned that surround the given coordinate
      */
@@ -0,0 +1,86 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EdgeSpeedOverlayTest {
+    private final EdgeSpeedOverlay overlay = new EdgeSpeedOverlay();
+
+    @After
+    public void tearDown() {
+        overlay.close();
+    }
+
+    @Test
+    public void testSpeedPerDirection() {
+        int minute = overlay.getCurrentMinute();
+        assertTrue(overlay.isEmpty());
+        assertEquals(EdgeSpeedOverlay.NO_SPEED, overlay.getSpeed(42, false, minute));
+
+        overlay.setSpeed(42, false, 30, 10);
+        overlay.setSpeed(42, true, 0, 10);
+
+        assertEquals(30, overlay.getSpeed(42, false, minute));
+        assertEquals(0, overlay.getSpeed(42, true, minute));
+        assertEquals(EdgeSpeedOverlay.NO_SPEED, overlay.getSpeed(43, false, minute));
+        assertEquals(2, overlay.getEntries());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        int minute = overlay.getCurrentMinute();
+        overlay.setSpeed(7, false, 50, 10);
+        overlay.setSpeed(7, false, 20, 10);
+        assertEquals(20, overlay.getSpeed(7, false, minute));
+        assertEquals(1, overlay.getEntries());
+
+        overlay.setSpeed(7, false, 20, 0);
+        assertEquals(EdgeSpeedOverlay.NO_SPEED, overlay.getSpeed(7, false, minute));
+        assertTrue(overlay.isEmpty());
+    }
+
+    @Test
+    public void testExpiry() {
+        int minute = overlay.getCurrentMinute();
+        overlay.setSpeed(Integer.MAX_VALUE, true, 80, 5);
+
+        assertEquals(80, overlay.getSpeed(Integer.MAX_VALUE, true, minute + 5));
+        assertEquals(EdgeSpeedOverlay.NO_SPEED, overlay.getSpeed(Integer.MAX_VALUE, true, minute + 6));
+        // not expired yet, so nothing is evicted
+        assertEquals(0, overlay.evictExpired());
+        assertEquals(1, overlay.getEntries());
+        // expired entries which have not been evicted yet do not count
+        assertFalse(overlay.isEmpty(minute + 5));
+        assertTrue(overlay.isEmpty(minute + 6));
+
+        overlay.setSpeed(3, false, 60, 10);
+        assertFalse(overlay.isEmpty(minute + 6));
+        assertTrue(overlay.isEmpty(minute + 11));
+    }
+
+    @Test
+    public void testSpeedIsCapped() {
+        overlay.setSpeed(1, false, 1000, 10);
+        assertEquals(EdgeSpeedOverlay.MAX_SPEED, overlay.getSpeed(1, false, overlay.getCurrentMinute()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEdge() {
+        overlay.setSpeed(-1, false, 30, 10);
+    }
+}
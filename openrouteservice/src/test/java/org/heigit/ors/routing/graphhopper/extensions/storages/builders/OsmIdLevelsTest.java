@@ -0,0 +1,96 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.*;
+
+public class OsmIdLevelsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeCSV(String header, char separator, int rows) throws IOException {
+        File csv = folder.newFile();
+        try (PrintWriter writer = new PrintWriter(csv)) {
+            writer.println(header);
+            // unordered ids, some rows with surrounding blanks, empty rows and rows without value
+            for (int i = rows - 1; i >= 0; i--) {
+                if (i % 10 == 0)
+                    writer.println(" " + (i * 3L) + " " + separator + " " + (i % 7) + "\r");
+                else
+                    writer.println((i * 3L) + "" + separator + (i % 7));
+                if (i % 100 == 0)
+                    writer.println();
+                if (i % 101 == 0)
+                    writer.println((i * 3L + 1) + "" + separator);
+            }
+        }
+        return csv;
+    }
+
+    @Test
+    public void testReadCSVInChunks() throws IOException {
+        File csv = writeCSV("osm_id;value", ';', 10000);
+
+        OsmIdLevels.CSVValues values = OsmIdLevels.readCSV(csv, OsmIdLevels.DETECT_SEPARATOR, 1000);
+        assertEquals(10000, values.size());
+        assertEquals(0, values.getMin(), 0);
+        assertEquals(6, values.getMax(), 0);
+
+        OsmIdLevels levels = values.toLevels(value -> (int) value + 1);
+        assertEquals(10000, levels.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 7 + 1, levels.get(i * 3L, 0));
+            assertEquals(0, levels.get(i * 3L + 1, 0));
+        }
+        assertEquals(-1, levels.get(-3, -1));
+        assertEquals(-1, levels.get(30000, -1));
+    }
+
+    @Test
+    public void testDuplicateIds() throws IOException {
+        File csv = folder.newFile();
+        try (PrintWriter writer = new PrintWriter(csv)) {
+            writer.println("osm_id,value");
+            writer.println("5,1");
+            writer.println("5,3");
+            writer.println("2,2");
+            writer.println("7,3");
+            writer.println("7,1");
+            writer.println("7,2");
+        }
+        // as with the previously used maps, the last row of an id wins
+        OsmIdLevels levels = OsmIdLevels.readCSV(csv, ',').toLevels(value -> (int) value);
+        assertEquals(3, levels.size());
+        assertEquals(3, levels.get(5, 0));
+        assertEquals(2, levels.get(2, 0));
+        assertEquals(2, levels.get(7, 0));
+    }
+
+    @Test
+    public void testBinaryFile() throws IOException {
+        File csv = writeCSV("osm_id,value", ',', 1000);
+        File binary = new File(folder.getRoot(), "levels.bin");
+
+        OsmIdLevels read = OsmIdLevels.load(csv.getPath(), binary.getPath(), ',', values -> value -> (int) value);
+        assertTrue(binary.exists());
+        OsmIdLevels loaded = OsmIdLevels.loadBinary(binary, csv);
+        assertNotNull(loaded);
+        assertEquals(read.size(), loaded.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(read.get(i * 3L, -1), loaded.get(i * 3L, -1));
+        assertEquals(-1, loaded.get(1, -1));
+
+        // a changed csv file is read again
+        assertTrue(csv.setLastModified(csv.lastModified() + 10000));
+        assertNull(OsmIdLevels.loadBinary(binary, csv));
+        OsmIdLevels reread = OsmIdLevels.load(csv.getPath(), binary.getPath(), ',', values -> value -> (int) value + 1);
+        assertEquals(read.get(30, -1) + 1, reread.get(30, -1));
+        assertNotNull(OsmIdLevels.loadBinary(binary, csv));
+    }
+}
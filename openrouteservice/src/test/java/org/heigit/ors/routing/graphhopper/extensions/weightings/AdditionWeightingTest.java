@@ -1,11 +1,14 @@
 package org.heigit.ors.routing.graphhopper.extensions.weightings;
 
 import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.routing.graphhopper.extensions.ORSDefaultFlagEncoderFactory;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.CarFlagEncoder;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.AdditionWeighting;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.ConstantWeighting;
+import org.heigit.ors.routing.graphhopper.extensions.weighting.LevelWeighting;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -31,4 +34,99 @@ public class AdditionWeightingTest {
         assertEquals(60, additionWeighting.calcWeight(null, false, 0), 0.0001);
         assertEquals(100, additionWeighting.calcMillis(null, false, 0), 0.0001);
     }
+
+    @Test
+    public void sumOfLevelFactors() {
+        int[] edgeLevels = new int[2];
+        LevelWeighting green = new TestLevelWeighting(LevelWeighting.Level.GREEN_INDEX, edgeLevels, 0, 0.5);
+        LevelWeighting quiet = new TestLevelWeighting(LevelWeighting.Level.NOISE_LEVEL, edgeLevels, 1, 2);
+        LevelWeighting quieter = new TestLevelWeighting(LevelWeighting.Level.NOISE_LEVEL, edgeLevels, 1, 3);
+        ConstantWeighting const1 = new ConstantWeighting(1, 10);
+        ConstantWeighting superWeighting = new ConstantWeighting(10, 100);
+
+        AdditionWeighting additionWeighting = new AdditionWeighting(new Weighting[]{green, const1, quiet, quieter}, superWeighting);
+        for (int greenIndex = 0; greenIndex < 64; greenIndex++) {
+            for (int noiseLevel = 0; noiseLevel < 4; noiseLevel++) {
+                edgeLevels[0] = greenIndex;
+                edgeLevels[1] = noiseLevel;
+                double sum = green.calcWeight(null, false, 0) + const1.calcWeight(null, false, 0)
+                        + quiet.calcWeight(null, false, 0) + quieter.calcWeight(null, false, 0);
+                assertEquals(10 * sum, additionWeighting.calcWeight(null, false, 0), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void levelOutsideTableIsLeftToWeightings() {
+        int[] edgeLevels = new int[1];
+        LevelWeighting quiet = new TestLevelWeighting(LevelWeighting.Level.NOISE_LEVEL, edgeLevels, 0, 2);
+        AdditionWeighting additionWeighting = new AdditionWeighting(new LevelWeighting[]{quiet}, new ConstantWeighting(10, 100));
+
+        edgeLevels[0] = 5;
+        assertEquals(10 * quiet.calcWeight(null, false, 0), additionWeighting.calcWeight(null, false, 0), 1e-9);
+    }
+
+    @Test
+    public void levelWithoutFactorIsLeftToWeightings() {
+        int[] edgeLevels = new int[1];
+        // has factors for the first two of the four noise levels only
+        LevelWeighting quiet = new TestLevelWeighting(LevelWeighting.Level.NOISE_LEVEL, edgeLevels, 0, 2, 2);
+        LevelWeighting quieter = new TestLevelWeighting(LevelWeighting.Level.NOISE_LEVEL, edgeLevels, 0, 3);
+        AdditionWeighting additionWeighting = new AdditionWeighting(new LevelWeighting[]{quiet, quieter}, new ConstantWeighting(10, 100));
+
+        for (int noiseLevel = 0; noiseLevel < 4; noiseLevel++) {
+            edgeLevels[0] = noiseLevel;
+            double sum = quiet.calcWeight(null, false, 0) + quieter.calcWeight(null, false, 0);
+            assertEquals(10 * sum, additionWeighting.calcWeight(null, false, 0), 1e-9);
+        }
+    }
+
+    private static class TestLevelWeighting extends ConstantWeighting implements LevelWeighting {
+        private final Level level;
+        private final int[] edgeLevels;
+        private final int levelIndex;
+        private final double factor;
+        private final int levelCount;
+
+        TestLevelWeighting(Level level, int[] edgeLevels, int levelIndex, double factor) {
+            this(level, edgeLevels, levelIndex, factor, level.getCount());
+        }
+
+        TestLevelWeighting(Level level, int[] edgeLevels, int levelIndex, double factor, int levelCount) {
+            super(0, 0);
+            this.level = level;
+            this.edgeLevels = edgeLevels;
+            this.levelIndex = levelIndex;
+            this.factor = factor;
+            this.levelCount = levelCount;
+        }
+
+        @Override
+        public double calcWeight(EdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId) {
+            int edgeLevel = getLevel(edgeState, null);
+            return edgeLevel < levelCount ? getLevelFactor(edgeLevel) : 100;
+        }
+
+        @Override
+        public Level getLevel() {
+            return level;
+        }
+
+        @Override
+        public int getLevel(EdgeIteratorState edgeState, byte[] buffer) {
+            return edgeLevels[levelIndex];
+        }
+
+        @Override
+        public int getLevelCount() {
+            return levelCount;
+        }
+
+        @Override
+        public double getLevelFactor(int level) {
+            if (level >= levelCount)
+                throw new IllegalArgumentException("No factor for level " + level);
+            return 1 + factor * level;
+        }
+    }
 }
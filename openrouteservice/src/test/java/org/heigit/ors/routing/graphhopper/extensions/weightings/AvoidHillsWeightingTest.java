@@ -0,0 +1,51 @@
+package org.heigit.ors.routing.graphhopper.extensions.weightings;
+
+import com.graphhopper.routing.VirtualEdgeIteratorState;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.Helper;
+import com.graphhopper.util.PMap;
+import org.heigit.ors.routing.graphhopper.extensions.ORSDefaultFlagEncoderFactory;
+import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
+import org.heigit.ors.routing.graphhopper.extensions.storages.HillIndexGraphStorage;
+import org.heigit.ors.routing.graphhopper.extensions.weighting.AvoidHillsWeighting;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class AvoidHillsWeightingTest {
+    private final EncodingManager encodingManager = EncodingManager.create(new ORSDefaultFlagEncoderFactory(), FlagEncoderNames.CAR_ORS, 4);
+    private final FlagEncoder encoder = encodingManager.getEncoder(FlagEncoderNames.CAR_ORS);
+    private GraphHopperStorage graph;
+    private EdgeIteratorState steepEdge;
+    private EdgeIteratorState flatEdge;
+
+    @Before
+    public void setUp() {
+        HillIndexGraphStorage hillIndexStorage = new HillIndexGraphStorage(new HashMap<>());
+        graph = new GraphHopperStorage(new RAMDirectory(), encodingManager, false, hillIndexStorage);
+        graph.create(1000);
+        steepEdge = graph.edge(0, 1, 10, true);
+        flatEdge = graph.edge(1, 2, 10, true);
+        hillIndexStorage.setEdgeValue(steepEdge.getEdge(), 10, 10);
+        hillIndexStorage.setEdgeValue(flatEdge.getEdge(), 0, 0);
+    }
+
+    @Test
+    public void testVirtualEdgeIsWeightedByOriginalEdge() {
+        AvoidHillsWeighting weighting = new AvoidHillsWeighting(encoder, new PMap(), graph);
+        assertEquals(2.8, weighting.calcWeight(steepEdge, false, -1), 1e-9);
+        assertEquals(1.0, weighting.calcWeight(flatEdge, false, -1), 1e-9);
+
+        // a virtual edge splitting the steep edge, its own id is the one of the flat edge
+        VirtualEdgeIteratorState virtualEdge = new VirtualEdgeIteratorState(2 * steepEdge.getEdge(), flatEdge.getEdge(), steepEdge.getEdge(), 0, 3, 5,
+                encodingManager.createEdgeFlags(), "test", Helper.createPointList(51, 0, 51, 1), false);
+        assertEquals(2.8, weighting.calcWeight(virtualEdge, false, -1), 1e-9);
+    }
+}
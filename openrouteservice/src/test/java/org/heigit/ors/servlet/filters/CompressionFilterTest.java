@@ -0,0 +1,177 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.servlet.filters;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.vividsolutions.jts.geom.Coordinate;
+import org.heigit.ors.api.responses.matrix.binary.BinaryMatrixResponse;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class CompressionFilterTest {
+    private MatrixResult matrixResult;
+    private byte[] matrixBytes;
+
+    @Before
+    public void setUp() throws IOException {
+        ResolvedLocation[] locations = new ResolvedLocation[]{
+                new ResolvedLocation(new Coordinate(8.681495, 49.41461), "foo", 0.0),
+                new ResolvedLocation(new Coordinate(8.686507, 49.41943), "foo", 0.0)};
+        matrixResult = new MatrixResult(locations, locations);
+        matrixResult.setTable(MatrixMetricsType.DURATION, new float[]{0, 1.5f, 2, 0});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryMatrixResponse(matrixResult).write(out);
+        matrixBytes = out.toByteArray();
+    }
+
+    /**
+     * Test that the binary matrix, which compresses itself, is not compressed a second time by the filter
+     */
+    @Test
+    public void testBinaryMatrixIsCompressedOnce() throws Exception {
+        FilterChain chain = (req, res) -> new BinaryMatrixResponse(matrixResult).write((HttpServletResponse) res, ((HttpServletRequest) req).getHeader("Accept-Encoding"));
+
+        TestResponse response = doFilter("gzip, deflate", chain);
+        assertEquals(Collections.singletonList(ContentEncodingType.GZIP), response.getHeaders("Content-Encoding"));
+        assertArrayEquals(matrixBytes, readAll(new GZIPInputStream(new ByteArrayInputStream(response.getBody()))));
+
+        response = doFilter("gzip, zstd", chain);
+        assertEquals(Collections.singletonList(ContentEncodingType.ZSTD), response.getHeaders("Content-Encoding"));
+        assertArrayEquals(matrixBytes, readAll(new ZstdInputStream(new ByteArrayInputStream(response.getBody()))));
+
+        response = doFilter("zstd;q=0, gzip", chain);
+        assertEquals(Collections.singletonList(ContentEncodingType.GZIP), response.getHeaders("Content-Encoding"));
+        assertArrayEquals(matrixBytes, readAll(new GZIPInputStream(new ByteArrayInputStream(response.getBody()))));
+
+        response = doFilter("gzip;q=0", chain);
+        assertTrue(response.getHeaders("Content-Encoding").isEmpty());
+        assertArrayEquals(matrixBytes, response.getBody());
+    }
+
+    /**
+     * Test that responses without their own Content-Encoding are compressed with gzip if the client accepts it
+     */
+    @Test
+    public void testOtherResponsesAreCompressed() throws Exception {
+        String text = "{\"distances\":[[0,1.5],[2,0]]}";
+        FilterChain chain = (req, res) -> res.getWriter().write(text);
+
+        TestResponse response = doFilter("deflate, gzip", chain);
+        assertEquals(Collections.singletonList(ContentEncodingType.GZIP), response.getHeaders("Content-Encoding"));
+        assertEquals(text, new String(readAll(new GZIPInputStream(new ByteArrayInputStream(response.getBody()))), StandardCharsets.UTF_8));
+
+        response = doFilter("gzip;q=0, deflate", chain);
+        assertTrue(response.getHeaders("Content-Encoding").isEmpty());
+        assertEquals(text, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private TestResponse doFilter(String acceptEncoding, FilterChain chain) throws Exception {
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletRequest.class},
+                (proxy, method, args) -> "getHeader".equals(method.getName()) && "Accept-Encoding".equalsIgnoreCase((String) args[0]) ? acceptEncoding : getDefault(method));
+        TestResponse response = new TestResponse();
+        new CompressionFilter().doFilter(request, response.getResponse(), chain);
+        return response;
+    }
+
+    private static Object getDefault(Method method) {
+        if (method.getReturnType() == boolean.class)
+            return false;
+        if (method.getReturnType() == int.class)
+            return 0;
+        return null;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = in.read(buffer)) != -1)
+            out.write(buffer, 0, length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Servlet response which keeps the headers and the body in memory.
+     */
+    private static class TestResponse {
+        private final Map<String, List<String>> headers = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                // nothing to do
+            }
+        };
+        private PrintWriter writer;
+
+        HttpServletResponse getResponse() {
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setHeader":
+                        headers.put(((String) args[0]).toLowerCase(), new ArrayList<>(Collections.singletonList((String) args[1])));
+                        return null;
+                    case "addHeader":
+                        headers.computeIfAbsent(((String) args[0]).toLowerCase(), name -> new ArrayList<>()).add((String) args[1]);
+                        return null;
+                    case "getOutputStream":
+                        return outputStream;
+                    case "getWriter":
+                        if (writer == null)
+                            writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                        return writer;
+                    default:
+                        return getDefault(method);
+                }
+            });
+        }
+
+        List<String> getHeaders(String name) {
+            return headers.getOrDefault(name.toLowerCase(), Collections.emptyList());
+        }
+
+        byte[] getBody() {
+            if (writer != null)
+                writer.flush();
+            return body.toByteArray();
+        }
+    }
+}